@@ -0,0 +1,95 @@
+package br.com.gerasaber.benchmark;
+
+import br.com.gerasaber.domain.port.IPipelineMetricsPort;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Comparator;
+import java.util.SplittableRandom;
+import java.util.stream.Stream;
+
+/**
+ * Helpers shared by the benchmarks.
+ */
+public final class BenchmarkSupport {
+    
+    private static final long SEED = 42L;
+    
+    private BenchmarkSupport() {
+    }
+    
+    /**
+     * Returns reproducible random content, which neither compresses nor deduplicates.
+     */
+    public static byte[] randomContent(int size) {
+        byte[] content = new byte[size];
+        new SplittableRandom(SEED).nextBytes(content);
+        return content;
+    }
+    
+    /**
+     * Resolves the directory for a storage medium: {@code tmpfs} or {@code disk}.
+     * The locations can be overridden with the {@code jmh.tmpfs.dir} and {@code jmh.disk.dir} system properties.
+     */
+    public static Path storageDirectory(String medium) throws IOException {
+        String location = switch (medium) {
+            case "tmpfs" -> System.getProperty("jmh.tmpfs.dir", "/dev/shm/gerasaber-jmh");
+            case "disk" -> System.getProperty("jmh.disk.dir", "build/jmh-storage");
+            default -> throw new IllegalArgumentException("Unknown storage medium: " + medium);
+        };
+        return Files.createDirectories(Paths.get(location).toAbsolutePath());
+    }
+    
+    public static void deleteRecursively(Path directory) throws IOException {
+        if (!Files.exists(directory)) {
+            return;
+        }
+        try (Stream<Path> paths = Files.walk(directory)) {
+            for (Path path : paths.sorted(Comparator.reverseOrder()).toList()) {
+                Files.deleteIfExists(path);
+            }
+        }
+    }
+    
+    /**
+     * Metrics port that records nothing, so benchmarks measure only the code under test.
+     */
+    public static IPipelineMetricsPort noOpMetrics() {
+        return new IPipelineMetricsPort() {
+            @Override
+            public long start(Stage stage) {
+                return 0;
+            }
+            
+            @Override
+            public void stop(Stage stage, long startNanos, Outcome outcome) {
+            }
+            
+            @Override
+            public void recordBytesIn(String filename, long bytes) {
+            }
+            
+            @Override
+            public void recordBytesGenerated(String filename, long bytes) {
+            }
+            
+            @Override
+            public void recordBytesOut(String filename, long bytes) {
+            }
+            
+            @Override
+            public void recordCacheLookup(boolean hit) {
+            }
+            
+            @Override
+            public void recordWebhookDuplicate() {
+            }
+            
+            @Override
+            public void recordRejection(String tenant, Rejection reason) {
+            }
+        };
+    }
+}
@@ -0,0 +1,82 @@
+package br.com.gerasaber.infrastructure.adapter;
+
+import br.com.gerasaber.benchmark.BenchmarkSupport;
+import br.com.gerasaber.domain.entity.StoredFile;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks the write latency of {@link LocalFileStorageAdapter#storeFile}, the path behind
+ * {@code saveFileWithTimestamp}, including hashing and indexing, on tmpfs and on disk at each durability level.
+ * The concurrent variant shows how directory syncs are shared between writers with {@code fsync} durability.
+ * Each stored file is deleted right away so long runs do not fill the medium; the unlink is part of the sample.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class LocalFileStorageAdapterBenchmark {
+    
+    @Param({"tmpfs", "disk"})
+    private String medium;
+    
+    @Param({"1024", "1048576", "10485760", "52428800"})
+    private int fileSize;
+    
+    @Param({"none", "flush", "fsync"})
+    private String durability;
+    
+    private Path storageDirectory;
+    private LocalFileStorageAdapter adapter;
+    private byte[] content;
+    
+    @Setup
+    public void setUp() throws IOException {
+        storageDirectory = BenchmarkSupport.storageDirectory(medium).resolve(UUID.randomUUID().toString());
+        adapter = new LocalFileStorageAdapter();
+        ReflectionTestUtils.setField(adapter, "baseStoragePath", storageDirectory.toString());
+        ReflectionTestUtils.setField(adapter, "durability", durability);
+        adapter.openIndex();
+        content = BenchmarkSupport.randomContent(fileSize);
+    }
+    
+    @TearDown
+    public void tearDown() throws IOException {
+        adapter.closeIndex();
+        BenchmarkSupport.deleteRecursively(storageDirectory);
+    }
+    
+    @Benchmark
+    public StoredFile storeFile() throws IOException {
+        StoredFile storedFile = adapter.storeFile("bench", "summary.pdf", new ByteArrayInputStream(content));
+        Files.delete(storedFile.getPath());
+        return storedFile;
+    }
+    
+    @Benchmark
+    @Threads(16)
+    public StoredFile storeFileConcurrently() throws IOException {
+        return storeFile();
+    }
+}
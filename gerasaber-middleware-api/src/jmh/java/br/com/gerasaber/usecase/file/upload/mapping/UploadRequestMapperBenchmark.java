@@ -0,0 +1,76 @@
+package br.com.gerasaber.usecase.file.upload.mapping;
+
+import br.com.gerasaber.benchmark.BenchmarkSupport;
+import br.com.gerasaber.domain.entity.UploadRequest;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks {@link UploadRequestMapper#toDomain}, which spools every uploaded part to the temporary storage path.
+ * Mock parts are held in memory, so this measures a full copy to disk rather than the container's temp-file move.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class UploadRequestMapperBenchmark {
+    
+    @Param({"1024", "1048576", "10485760", "52428800"})
+    private int fileSize;
+    
+    @Param({"1", "5"})
+    private int fileCount;
+    
+    private Path tempDirectory;
+    private UploadRequestMapper mapper;
+    private List<MultipartFile> files;
+    
+    @Setup
+    public void setUp() throws IOException {
+        tempDirectory = Files.createTempDirectory("mapper-bench-");
+        mapper = new UploadRequestMapper(BenchmarkSupport.noOpMetrics());
+        ReflectionTestUtils.setField(mapper, "tempStoragePath", tempDirectory.toString());
+        
+        byte[] content = BenchmarkSupport.randomContent(fileSize);
+        files = new ArrayList<>();
+        for (int i = 0; i < fileCount; i++) {
+            files.add(new MockMultipartFile("files", "document-" + i + ".pdf", "application/pdf", content));
+        }
+    }
+    
+    @TearDown
+    public void tearDown() throws IOException {
+        BenchmarkSupport.deleteRecursively(tempDirectory);
+    }
+    
+    @Benchmark
+    public UploadRequest toDomain() throws IOException {
+        UploadRequest uploadRequest = mapper.toDomain(files, "Summarize the attached documents", "benchmark");
+        for (UploadRequest.FilePart filePart : uploadRequest.getFiles()) {
+            Files.delete(filePart.getContentPath());
+        }
+        return uploadRequest;
+    }
+}
@@ -0,0 +1,114 @@
+package br.com.gerasaber.usecase.file.upload.service;
+
+import br.com.gerasaber.benchmark.BenchmarkSupport;
+import br.com.gerasaber.domain.entity.UploadRequest;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.support.AllEncompassingFormHttpMessageConverter;
+import org.springframework.util.MultiValueMap;
+import org.springframework.web.client.RestTemplate;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks {@link FileUploadService#buildFormData} on its own and together with the multipart encoding
+ * that {@link RestTemplate} performs when the form is sent to n8n. The encoded body is discarded.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class FileUploadFormDataBenchmark {
+    
+    @Param({"1024", "1048576", "10485760", "52428800"})
+    private int fileSize;
+    
+    @Param({"1", "5"})
+    private int fileCount;
+    
+    private Path spoolDirectory;
+    private FileUploadService fileUploadService;
+    private AllEncompassingFormHttpMessageConverter formConverter;
+    private UploadRequest uploadRequest;
+    
+    @Setup
+    public void setUp() throws IOException {
+        spoolDirectory = Files.createTempDirectory("form-bench-");
+        fileUploadService = new FileUploadService(new RestTemplate());
+        formConverter = new AllEncompassingFormHttpMessageConverter();
+        
+        byte[] content = BenchmarkSupport.randomContent(fileSize);
+        List<UploadRequest.FilePart> fileParts = new ArrayList<>();
+        for (int i = 0; i < fileCount; i++) {
+            Path spooled = Files.write(spoolDirectory.resolve("part-" + i + ".part"), content);
+            fileParts.add(UploadRequest.FilePart.builder()
+                    .originalFilename("document-" + i + ".pdf")
+                    .contentType("application/pdf")
+                    .contentPath(spooled)
+                    .size(fileSize)
+                    .build());
+        }
+        
+        uploadRequest = UploadRequest.builder()
+                .files(fileParts)
+                .promptDescription("Summarize the attached documents")
+                .timestamp(LocalDateTime.now())
+                .requestId(UUID.randomUUID().toString())
+                .build();
+    }
+    
+    @TearDown
+    public void tearDown() throws IOException {
+        BenchmarkSupport.deleteRecursively(spoolDirectory);
+    }
+    
+    @Benchmark
+    public MultiValueMap<String, Object> buildFormData() {
+        return fileUploadService.buildFormData(uploadRequest);
+    }
+    
+    @Benchmark
+    public HttpHeaders buildAndEncodeFormData() throws IOException {
+        DiscardingOutputMessage message = new DiscardingOutputMessage();
+        formConverter.write(fileUploadService.buildFormData(uploadRequest), MediaType.MULTIPART_FORM_DATA, message);
+        return message.getHeaders();
+    }
+    
+    private static final class DiscardingOutputMessage implements HttpOutputMessage {
+        
+        private final HttpHeaders headers = new HttpHeaders();
+        
+        @Override
+        public OutputStream getBody() {
+            return OutputStream.nullOutputStream();
+        }
+        
+        @Override
+        public HttpHeaders getHeaders() {
+            return headers;
+        }
+    }
+}
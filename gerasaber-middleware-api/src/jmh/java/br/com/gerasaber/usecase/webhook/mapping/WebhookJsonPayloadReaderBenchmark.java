@@ -0,0 +1,69 @@
+package br.com.gerasaber.usecase.webhook.mapping;
+
+import br.com.gerasaber.benchmark.BenchmarkSupport;
+import br.com.gerasaber.usecase.webhook.contract.WebhookJsonPayload;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Base64;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks {@link WebhookJsonPayloadReader#read}, the streaming Base64 decode of JSON webhook payloads
+ * that replaced {@code HandleWebhookEndpoint.extractPdfFromJsonPayload}. The decoded file is deleted after each read.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class WebhookJsonPayloadReaderBenchmark {
+    
+    @Param({"1024", "1048576", "10485760", "52428800"})
+    private int fileSize;
+    
+    private Path tempDirectory;
+    private WebhookJsonPayloadReader reader;
+    private byte[] payload;
+    
+    @Setup
+    public void setUp() throws IOException {
+        tempDirectory = Files.createTempDirectory("webhook-bench-");
+        reader = new WebhookJsonPayloadReader(new ObjectMapper());
+        ReflectionTestUtils.setField(reader, "tempStoragePath", tempDirectory.toString());
+        
+        String pdfContent = Base64.getEncoder().encodeToString(BenchmarkSupport.randomContent(fileSize));
+        payload = ("{\"requestId\":\"bench\",\"filename\":\"summary.pdf\",\"pdfContent\":\"" + pdfContent + "\"}")
+                .getBytes(StandardCharsets.UTF_8);
+    }
+    
+    @TearDown
+    public void tearDown() throws IOException {
+        BenchmarkSupport.deleteRecursively(tempDirectory);
+    }
+    
+    @Benchmark
+    public long read() throws IOException {
+        try (WebhookJsonPayload decoded = reader.read(new ByteArrayInputStream(payload))) {
+            return decoded.getPdfSize();
+        }
+    }
+}
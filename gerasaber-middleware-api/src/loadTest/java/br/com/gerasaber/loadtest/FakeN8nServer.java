@@ -0,0 +1,177 @@
+package br.com.gerasaber.loadtest;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Embedded stand-in for the n8n workflow.
+ * It accepts uploads on {@link #UPLOAD_PATH}, answers after a configurable latency (failing a configurable share
+ * of requests with {@code 500}), and later posts a generated PDF back to the middleware webhook for the request.
+ */
+final class FakeN8nServer implements AutoCloseable {
+    
+    static final String UPLOAD_PATH = "/webhook/upload-files";
+    
+    // The request ID part follows the files, so only the tail of each upload body is kept
+    private static final int TAIL_BYTES = 4096;
+    // Skips any part headers after the disposition (Spring adds Content-Type and Content-Length) up to the blank line
+    private static final Pattern REQUEST_ID =
+            Pattern.compile("name=\"requestId\"[^\\r\\n]*\\r\\n(?:[^\\r\\n]+\\r\\n)*\\r\\n([^\\r]+)\\r\\n");
+    
+    private final LoadTestConfig config;
+    private final HttpServer server;
+    private final ExecutorService handlers = Executors.newCachedThreadPool();
+    private final ScheduledExecutorService callbacks = Executors.newScheduledThreadPool(4);
+    private final HttpClient httpClient = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(10)).build();
+    private final byte[] pdf;
+    private final AtomicLong received = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+    private final AtomicLong callbackErrors = new AtomicLong();
+    private volatile URI webhookUri;
+    
+    FakeN8nServer(LoadTestConfig config) throws IOException {
+        this.config = config;
+        this.pdf = generatePdf(config.pdfSize());
+        this.server = HttpServer.create(new InetSocketAddress("localhost", 0), 1024);
+        server.createContext(UPLOAD_PATH, this::handleUpload);
+        server.setExecutor(handlers);
+    }
+    
+    void start() {
+        server.start();
+    }
+    
+    int port() {
+        return server.getAddress().getPort();
+    }
+    
+    void setWebhookUri(URI webhookUri) {
+        this.webhookUri = webhookUri;
+    }
+    
+    long received() {
+        return received.get();
+    }
+    
+    long failed() {
+        return failed.get();
+    }
+    
+    long callbackErrors() {
+        return callbackErrors.get();
+    }
+    
+    @Override
+    public void close() {
+        server.stop(0);
+        handlers.shutdownNow();
+        callbacks.shutdownNow();
+    }
+    
+    private void handleUpload(HttpExchange exchange) throws IOException {
+        try {
+            String requestId = readRequestId(exchange.getRequestBody());
+            received.incrementAndGet();
+            sleep(latency());
+            
+            if (requestId == null || ThreadLocalRandom.current().nextDouble() < config.n8nErrorRate()) {
+                failed.incrementAndGet();
+                exchange.sendResponseHeaders(500, -1);
+                return;
+            }
+            
+            byte[] response = "{\"message\":\"Workflow was started\"}".getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().set("Content-Type", "application/json");
+            exchange.sendResponseHeaders(200, response.length);
+            exchange.getResponseBody().write(response);
+            
+            callbacks.schedule(() -> callBack(requestId), config.callbackDelay().toMillis(), TimeUnit.MILLISECONDS);
+        } finally {
+            exchange.close();
+        }
+    }
+    
+    private void callBack(String requestId) {
+        MultipartBody body = new MultipartBody()
+                .file("file", "summary-" + requestId + ".pdf", "application/pdf", pdf)
+                .field("requestId", requestId)
+                .field("filename", "summary-" + requestId + ".pdf");
+        HttpRequest request = HttpRequest.newBuilder(webhookUri)
+                .header("Content-Type", body.contentType())
+                .POST(HttpRequest.BodyPublishers.ofByteArray(body.build()))
+                .build();
+        
+        httpClient.sendAsync(request, HttpResponse.BodyHandlers.discarding())
+                .whenComplete((response, error) -> {
+                    if (error != null || response.statusCode() != 200) {
+                        callbackErrors.incrementAndGet();
+                    }
+                });
+    }
+    
+    private Duration latency() {
+        long jitter = config.n8nLatencyJitter().toMillis();
+        long offset = jitter == 0 ? 0 : ThreadLocalRandom.current().nextLong(-jitter, jitter + 1);
+        return Duration.ofMillis(Math.max(0, config.n8nLatency().toMillis() + offset));
+    }
+    
+    static String readRequestId(InputStream body) throws IOException {
+        byte[] chunk = new byte[64 * 1024];
+        byte[] tail = new byte[TAIL_BYTES];
+        int tailLength = 0;
+        int read;
+        while ((read = body.read(chunk)) > 0) {
+            if (read >= TAIL_BYTES) {
+                System.arraycopy(chunk, read - TAIL_BYTES, tail, 0, TAIL_BYTES);
+                tailLength = TAIL_BYTES;
+            } else {
+                int keep = Math.min(tailLength, TAIL_BYTES - read);
+                System.arraycopy(tail, tailLength - keep, tail, 0, keep);
+                System.arraycopy(chunk, 0, tail, keep, read);
+                tailLength = keep + read;
+            }
+        }
+        
+        Matcher matcher = REQUEST_ID.matcher(new String(tail, 0, tailLength, StandardCharsets.ISO_8859_1));
+        return matcher.find() ? matcher.group(1) : null;
+    }
+    
+    private static void sleep(Duration duration) {
+        try {
+            Thread.sleep(duration.toMillis());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+    
+    /**
+     * Builds a valid single-page PDF padded with a comment to roughly the requested size.
+     */
+    private static byte[] generatePdf(int size) {
+        String header = "%PDF-1.4\n"
+                + "1 0 obj << /Type /Catalog /Pages 2 0 R >> endobj\n"
+                + "2 0 obj << /Type /Pages /Kids [3 0 R] /Count 1 >> endobj\n"
+                + "3 0 obj << /Type /Page /Parent 2 0 R /MediaBox [0 0 612 792] >> endobj\n";
+        String trailer = "trailer << /Root 1 0 R >>\n%%EOF\n";
+        int padding = Math.max(0, size - header.length() - trailer.length() - 2);
+        return (header + "%" + "x".repeat(padding) + "\n" + trailer).getBytes(StandardCharsets.US_ASCII);
+    }
+}
@@ -0,0 +1,47 @@
+package br.com.gerasaber.loadtest;
+
+import java.util.Arrays;
+
+/**
+ * Thread-safe recorder of latency samples in microseconds, with exact percentiles over all samples.
+ */
+final class LatencyRecorder {
+    
+    private long[] samples = new long[1024];
+    private int count;
+    
+    synchronized void record(long micros) {
+        if (count == samples.length) {
+            samples = Arrays.copyOf(samples, samples.length * 2);
+        }
+        samples[count++] = micros;
+    }
+    
+    synchronized Summary summarize() {
+        long[] sorted = Arrays.copyOf(samples, count);
+        Arrays.sort(sorted);
+        return new Summary(count,
+                millis(percentile(sorted, 0.50)),
+                millis(percentile(sorted, 0.99)),
+                millis(percentile(sorted, 0.999)),
+                millis(count == 0 ? 0 : sorted[count - 1]));
+    }
+    
+    private static long percentile(long[] sorted, double quantile) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        int rank = (int) Math.ceil(quantile * sorted.length) - 1;
+        return sorted[Math.max(0, Math.min(rank, sorted.length - 1))];
+    }
+    
+    private static double millis(long micros) {
+        return micros / 1000.0;
+    }
+    
+    /**
+     * Latency percentiles in milliseconds.
+     */
+    record Summary(int count, double p50, double p99, double p999, double max) {
+    }
+}
@@ -0,0 +1,243 @@
+package br.com.gerasaber.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Closed-loop load generator: each client uploads a request from the mix, then long-polls the job status
+ * endpoint until the fake n8n callback completes it, and starts over.
+ * Samples taken during the warmup are discarded.
+ */
+final class LoadDriver {
+    
+    private static final long LONG_POLL_SECONDS = 30;
+    
+    private final LoadTestConfig config;
+    private final URI baseUri;
+    private final FakeN8nServer fakeN8n;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final HttpClient httpClient = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(10)).build();
+    private final List<PreparedUpload> uploads = new ArrayList<>();
+    private final int totalWeight;
+    
+    private final LatencyRecorder uploadLatency = new LatencyRecorder();
+    private final LatencyRecorder endToEndLatency = new LatencyRecorder();
+    private final Map<String, LatencyRecorder> endToEndLatencyByMix = new LinkedHashMap<>();
+    private final AtomicLong accepted = new AtomicLong();
+    private final AtomicLong completed = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+    private final AtomicLong timedOut = new AtomicLong();
+    private final AtomicLong rejected = new AtomicLong();
+    private final AtomicLong errors = new AtomicLong();
+    private final AtomicLong heapUsedMax = new AtomicLong();
+    
+    private volatile boolean measuring;
+    
+    LoadDriver(LoadTestConfig config, URI baseUri, FakeN8nServer fakeN8n) {
+        this.config = config;
+        this.baseUri = baseUri;
+        this.fakeN8n = fakeN8n;
+        
+        int weight = 0;
+        for (LoadTestConfig.UploadMix mix : config.mix()) {
+            uploads.add(prepare(mix));
+            endToEndLatencyByMix.put(mix.name(), new LatencyRecorder());
+            weight += mix.weight();
+        }
+        this.totalWeight = weight;
+    }
+    
+    LoadTestReport run() throws InterruptedException {
+        ExecutorService clients = Executors.newFixedThreadPool(config.concurrency());
+        ScheduledExecutorService heapSampler = Executors.newSingleThreadScheduledExecutor();
+        long deadline = System.nanoTime() + config.warmup().toNanos() + config.duration().toNanos();
+        
+        for (int i = 0; i < config.concurrency(); i++) {
+            clients.execute(() -> {
+                while (System.nanoTime() < deadline) {
+                    runJob();
+                }
+            });
+        }
+        
+        Thread.sleep(config.warmup().toMillis());
+        long gcCountBefore = gcCount();
+        long gcTimeBefore = gcTime();
+        long measureStart = System.nanoTime();
+        measuring = true;
+        heapSampler.scheduleAtFixedRate(this::sampleHeap, 0, 100, TimeUnit.MILLISECONDS);
+        
+        Thread.sleep(config.duration().toMillis());
+        measuring = false;
+        double measuredSeconds = (System.nanoTime() - measureStart) / 1e9;
+        long gcCount = gcCount() - gcCountBefore;
+        long gcTime = gcTime() - gcTimeBefore;
+        heapSampler.shutdownNow();
+        
+        // Let the jobs still in flight finish so the next run starts from a quiet system
+        clients.shutdown();
+        clients.awaitTermination(config.completionTimeout().toMillis() + 10_000, TimeUnit.MILLISECONDS);
+        
+        long finished = completed.get() + failed.get() + timedOut.get() + errors.get();
+        Map<String, LatencyRecorder.Summary> byMix = new LinkedHashMap<>();
+        endToEndLatencyByMix.forEach((mix, recorder) -> byMix.put(mix, recorder.summarize()));
+        
+        return new LoadTestReport(
+                config.engine(),
+                config.concurrency(),
+                measuredSeconds,
+                accepted.get(),
+                completed.get(),
+                failed.get(),
+                timedOut.get(),
+                rejected.get(),
+                errors.get(),
+                completed.get() / measuredSeconds,
+                finished == 0 ? 0 : (double) (failed.get() + timedOut.get() + errors.get()) / finished,
+                uploadLatency.summarize(),
+                endToEndLatency.summarize(),
+                byMix,
+                heapUsedMax.get(),
+                gcCount,
+                gcTime,
+                fakeN8n.received(),
+                fakeN8n.failed());
+    }
+    
+    private void runJob() {
+        PreparedUpload upload = pick();
+        boolean sampled = measuring;
+        long start = System.nanoTime();
+        
+        try {
+            HttpResponse<String> response = httpClient.send(HttpRequest.newBuilder(baseUri.resolve("/api/upload"))
+                    .header("Content-Type", upload.contentType())
+                    .POST(HttpRequest.BodyPublishers.ofByteArray(upload.body()))
+                    .build(), HttpResponse.BodyHandlers.ofString());
+            
+            if (response.statusCode() == 503) {
+                count(sampled, rejected);
+                Thread.sleep(100);
+                return;
+            }
+            if (response.statusCode() != 202) {
+                count(sampled, errors);
+                return;
+            }
+            if (sampled) {
+                uploadLatency.record(micros(start));
+            }
+            count(sampled, accepted);
+            
+            String requestId = objectMapper.readTree(response.body()).path("data").path("requestId").asText();
+            String status = awaitFinalStatus(requestId, start);
+            switch (status) {
+                case "COMPLETED" -> {
+                    count(sampled, completed);
+                    if (sampled) {
+                        long micros = micros(start);
+                        endToEndLatency.record(micros);
+                        endToEndLatencyByMix.get(upload.name()).record(micros);
+                    }
+                }
+                case "FAILED" -> count(sampled, failed);
+                default -> count(sampled, timedOut);
+            }
+        } catch (IOException e) {
+            count(sampled, errors);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+    
+    private String awaitFinalStatus(String requestId, long start) throws IOException, InterruptedException {
+        long deadline = start + config.completionTimeout().toNanos();
+        String status = "ACCEPTED";
+        while (System.nanoTime() < deadline) {
+            long waitSeconds = Math.max(1, Math.min(LONG_POLL_SECONDS, TimeUnit.NANOSECONDS.toSeconds(deadline - System.nanoTime())));
+            HttpResponse<String> response = httpClient.send(HttpRequest.newBuilder(
+                            baseUri.resolve("/api/jobs/" + requestId + "?waitSeconds=" + waitSeconds)).GET().build(),
+                    HttpResponse.BodyHandlers.ofString());
+            if (response.statusCode() != 200) {
+                throw new IOException("Unexpected job status response: " + response.statusCode());
+            }
+            
+            JsonNode data = objectMapper.readTree(response.body()).path("data");
+            status = data.path("status").asText();
+            if ("COMPLETED".equals(status) || "FAILED".equals(status)) {
+                return status;
+            }
+        }
+        return status;
+    }
+    
+    private PreparedUpload pick() {
+        int ticket = ThreadLocalRandom.current().nextInt(totalWeight);
+        for (PreparedUpload upload : uploads) {
+            ticket -= upload.weight();
+            if (ticket < 0) {
+                return upload;
+            }
+        }
+        return uploads.get(uploads.size() - 1);
+    }
+    
+    private void sampleHeap() {
+        long used = ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed();
+        heapUsedMax.accumulateAndGet(used, Math::max);
+    }
+    
+    private static PreparedUpload prepare(LoadTestConfig.UploadMix mix) {
+        byte[] content = new byte[mix.fileSize()];
+        ThreadLocalRandom.current().nextBytes(content);
+        
+        MultipartBody body = new MultipartBody();
+        for (int i = 0; i < mix.files(); i++) {
+            body.file("files", "document-" + i + ".pdf", "application/pdf", content);
+        }
+        body.field("promptDescription", "Summarize the attached documents");
+        return new PreparedUpload(mix.name(), mix.weight(), body.contentType(), body.build());
+    }
+    
+    private static void count(boolean sampled, AtomicLong counter) {
+        if (sampled) {
+            counter.incrementAndGet();
+        }
+    }
+    
+    private static long micros(long startNanos) {
+        return TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - startNanos);
+    }
+    
+    private static long gcCount() {
+        return ManagementFactory.getGarbageCollectorMXBeans().stream()
+                .mapToLong(GarbageCollectorMXBean::getCollectionCount).filter(count -> count > 0).sum();
+    }
+    
+    private static long gcTime() {
+        return ManagementFactory.getGarbageCollectorMXBeans().stream()
+                .mapToLong(GarbageCollectorMXBean::getCollectionTime).filter(time -> time > 0).sum();
+    }
+    
+    private record PreparedUpload(String name, int weight, String contentType, byte[] body) {
+    }
+}
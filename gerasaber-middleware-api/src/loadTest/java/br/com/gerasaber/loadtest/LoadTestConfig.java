@@ -0,0 +1,83 @@
+package br.com.gerasaber.loadtest;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Load-test settings, read from {@code loadtest.*} system properties.
+ */
+record LoadTestConfig(
+        int concurrency,
+        Duration duration,
+        Duration warmup,
+        List<UploadMix> mix,
+        String engine,
+        Duration n8nLatency,
+        Duration n8nLatencyJitter,
+        double n8nErrorRate,
+        Duration callbackDelay,
+        int pdfSize,
+        Duration completionTimeout,
+        double maxP99Millis,
+        double minThroughput,
+        double maxErrorRate,
+        String reportPath) {
+    
+    /**
+     * One kind of upload in the request mix: {@code files} files of {@code fileSize} bytes, picked by {@code weight}.
+     */
+    record UploadMix(String name, int fileSize, int files, int weight) {
+    }
+    
+    static LoadTestConfig fromSystemProperties() {
+        return new LoadTestConfig(
+                Integer.parseInt(property("concurrency", "16")),
+                Duration.parse("PT" + property("duration", "60s")),
+                Duration.parse("PT" + property("warmup", "10s")),
+                parseMix(property("mix", "1KB:1:60,1MB:2:30,10MB:1:10")),
+                property("engine", "rest-template"),
+                Duration.parse("PT" + property("n8n-latency", "0.5s")),
+                Duration.parse("PT" + property("n8n-latency-jitter", "0.2s")),
+                Double.parseDouble(property("n8n-error-rate", "0.0")),
+                Duration.parse("PT" + property("callback-delay", "1s")),
+                parseSize(property("pdf-size", "200KB")),
+                Duration.parse("PT" + property("completion-timeout", "60s")),
+                Double.parseDouble(property("max-p99-ms", "0")),
+                Double.parseDouble(property("min-throughput", "0")),
+                Double.parseDouble(property("max-error-rate", "1")),
+                property("report", "build/reports/loadtest/results.json"));
+    }
+    
+    private static String property(String name, String defaultValue) {
+        return System.getProperty("loadtest." + name, defaultValue);
+    }
+    
+    /**
+     * Parses a mix such as {@code 1KB:1:60,1MB:2:30,10MB:1:10} (file size, files per request, weight).
+     */
+    static List<UploadMix> parseMix(String value) {
+        List<UploadMix> mix = new ArrayList<>();
+        for (String entry : value.split(",")) {
+            String[] fields = entry.trim().split(":");
+            if (fields.length != 3) {
+                throw new IllegalArgumentException("Invalid upload mix entry: " + entry);
+            }
+            int files = Integer.parseInt(fields[1]);
+            mix.add(new UploadMix(files + "x" + fields[0], parseSize(fields[0]), files, Integer.parseInt(fields[2])));
+        }
+        return mix;
+    }
+    
+    static int parseSize(String value) {
+        String size = value.trim().toUpperCase(Locale.ROOT);
+        if (size.endsWith("MB")) {
+            return Integer.parseInt(size.substring(0, size.length() - 2)) * 1024 * 1024;
+        }
+        if (size.endsWith("KB")) {
+            return Integer.parseInt(size.substring(0, size.length() - 2)) * 1024;
+        }
+        return Integer.parseInt(size.endsWith("B") ? size.substring(0, size.length() - 1) : size);
+    }
+}
@@ -0,0 +1,63 @@
+package br.com.gerasaber.loadtest;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Results of a load-test run, written as JSON and checked against the configured regression thresholds.
+ */
+record LoadTestReport(
+        String engine,
+        int concurrency,
+        double durationSeconds,
+        long accepted,
+        long completed,
+        long failed,
+        long timedOut,
+        long rejected,
+        long errors,
+        double throughputPerSecond,
+        double errorRate,
+        LatencyRecorder.Summary uploadLatency,
+        LatencyRecorder.Summary endToEndLatency,
+        Map<String, LatencyRecorder.Summary> endToEndLatencyByMix,
+        long heapUsedMaxBytes,
+        long gcCount,
+        long gcTimeMillis,
+        long n8nRequests,
+        long n8nFailures) {
+    
+    List<String> violations(LoadTestConfig config) {
+        List<String> violations = new ArrayList<>();
+        if (config.maxP99Millis() > 0 && endToEndLatency.p99() > config.maxP99Millis()) {
+            violations.add(String.format("end-to-end p99 %.1f ms exceeds %.1f ms", endToEndLatency.p99(), config.maxP99Millis()));
+        }
+        if (throughputPerSecond < config.minThroughput()) {
+            violations.add(String.format("throughput %.2f/s is below %.2f/s", throughputPerSecond, config.minThroughput()));
+        }
+        if (errorRate > config.maxErrorRate()) {
+            violations.add(String.format("error rate %.4f exceeds %.4f", errorRate, config.maxErrorRate()));
+        }
+        return violations;
+    }
+    
+    String format() {
+        StringBuilder text = new StringBuilder();
+        text.append(String.format("Engine %s, concurrency %d, %.1f s measured%n", engine, concurrency, durationSeconds));
+        text.append(String.format("Jobs: %d accepted, %d completed, %d failed, %d timed out, %d rejected, %d errors%n",
+                accepted, completed, failed, timedOut, rejected, errors));
+        text.append(String.format("Throughput: %.2f completed jobs/s, error rate %.4f%n", throughputPerSecond, errorRate));
+        text.append(line("Upload latency", uploadLatency));
+        text.append(line("End-to-end latency", endToEndLatency));
+        endToEndLatencyByMix.forEach((mix, summary) -> text.append(line("  " + mix, summary)));
+        text.append(String.format("Heap used max %d MB, %d GCs taking %d ms%n", heapUsedMaxBytes / (1024 * 1024), gcCount, gcTimeMillis));
+        text.append(String.format("Fake n8n: %d requests, %d failed on purpose%n", n8nRequests, n8nFailures));
+        return text.toString();
+    }
+    
+    private static String line(String label, LatencyRecorder.Summary summary) {
+        return String.format("%-20s n=%d p50=%.1f ms p99=%.1f ms p999=%.1f ms max=%.1f ms%n",
+                label, summary.count(), summary.p50(), summary.p99(), summary.p999(), summary.max());
+    }
+}
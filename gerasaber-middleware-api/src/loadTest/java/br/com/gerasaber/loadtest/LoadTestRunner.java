@@ -0,0 +1,101 @@
+package br.com.gerasaber.loadtest;
+
+import br.com.gerasaber.GerasaberMiddlewareApiApplication;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.net.URI;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Runs the middleware in-process against an embedded fake n8n, drives it with the configured upload mix
+ * and reports throughput, latency percentiles and heap/GC statistics.
+ * Exits with status 1 when the run violates one of the configured regression thresholds.
+ * <p>
+ * The application, the fake n8n and the clients share one JVM, so heap and GC figures cover all three.
+ */
+public final class LoadTestRunner {
+    
+    private static final String APP_PROPERTY_PREFIX = "loadtest.app.";
+    
+    private LoadTestRunner() {
+    }
+    
+    public static void main(String[] args) throws Exception {
+        LoadTestConfig config = LoadTestConfig.fromSystemProperties();
+        Path workDirectory = Files.createTempDirectory("gerasaber-loadtest-");
+        LoadTestReport report;
+        
+        try (FakeN8nServer fakeN8n = new FakeN8nServer(config)) {
+            fakeN8n.start();
+            
+            // Passed as command-line arguments so they take precedence over application.yml
+            List<String> applicationArgs = new ArrayList<>(List.of(args));
+            applicationProperties(config, fakeN8n, workDirectory).forEach(property -> applicationArgs.add("--" + property));
+            ConfigurableApplicationContext application = new SpringApplicationBuilder(GerasaberMiddlewareApiApplication.class)
+                    .run(applicationArgs.toArray(String[]::new));
+            try {
+                URI baseUri = URI.create("http://localhost:" + application.getEnvironment().getProperty("local.server.port"));
+                fakeN8n.setWebhookUri(baseUri.resolve("/api/webhook/n8n-response"));
+                report = new LoadDriver(config, baseUri, fakeN8n).run();
+            } finally {
+                application.close();
+            }
+        } finally {
+            deleteRecursively(workDirectory);
+        }
+        
+        System.out.println(report.format());
+        Path reportPath = Paths.get(config.reportPath());
+        Files.createDirectories(reportPath.toAbsolutePath().getParent());
+        new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT).writeValue(reportPath.toFile(), report);
+        System.out.println("Report written to " + reportPath.toAbsolutePath());
+        
+        List<String> violations = report.violations(config);
+        violations.forEach(violation -> System.err.println("Regression threshold violated: " + violation));
+        System.exit(violations.isEmpty() ? 0 : 1);
+    }
+    
+    private static List<String> applicationProperties(LoadTestConfig config, FakeN8nServer fakeN8n, Path workDirectory) {
+        List<String> properties = new ArrayList<>(List.of(
+                "server.port=0",
+                "n8n.base-url=http://localhost:" + fakeN8n.port(),
+                "n8n.upload-endpoint=" + FakeN8nServer.UPLOAD_PATH,
+                "n8n.engine=" + config.engine(),
+                "storage.local-path=" + workDirectory.resolve("files"),
+                "storage.temp-path=" + workDirectory.resolve("spool"),
+                "upload.outbox.path=" + workDirectory.resolve("outbox"),
+                "upload.dispatch.queue-capacity=" + Math.max(100, config.concurrency() * 2),
+                "upload.dispatch.retry.initial-backoff=200ms",
+                // The driver is a single client uploading identical files, which would be throttled and cached
+                "upload.clients.enabled=false",
+                "result-cache.enabled=false",
+                "spring.servlet.multipart.max-file-size=100MB",
+                "spring.servlet.multipart.max-request-size=500MB",
+                "logging.level.root=WARN",
+                "logging.level.br.com.gerasaber=WARN"));
+        
+        // Any application property can be overridden with -Dloadtest.app.<property>=<value>
+        System.getProperties().stringPropertyNames().stream()
+                .filter(name -> name.startsWith(APP_PROPERTY_PREFIX))
+                .forEach(name -> properties.add(name.substring(APP_PROPERTY_PREFIX.length()) + "=" + System.getProperty(name)));
+        return properties;
+    }
+    
+    private static void deleteRecursively(Path directory) throws IOException {
+        try (Stream<Path> paths = Files.walk(directory)) {
+            for (Path path : paths.sorted(Comparator.reverseOrder()).toList()) {
+                Files.deleteIfExists(path);
+            }
+        }
+    }
+}
@@ -0,0 +1,43 @@
+package br.com.gerasaber.loadtest;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.UUID;
+
+/**
+ * Minimal builder for {@code multipart/form-data} request bodies sent by the load-test clients.
+ */
+final class MultipartBody {
+    
+    private final String boundary = "loadtest-" + UUID.randomUUID();
+    private final ByteArrayOutputStream body = new ByteArrayOutputStream();
+    
+    MultipartBody field(String name, String value) {
+        write("--" + boundary + "\r\n"
+                + "Content-Disposition: form-data; name=\"" + name + "\"\r\n\r\n"
+                + value + "\r\n");
+        return this;
+    }
+    
+    MultipartBody file(String name, String filename, String contentType, byte[] content) {
+        write("--" + boundary + "\r\n"
+                + "Content-Disposition: form-data; name=\"" + name + "\"; filename=\"" + filename + "\"\r\n"
+                + "Content-Type: " + contentType + "\r\n\r\n");
+        body.writeBytes(content);
+        write("\r\n");
+        return this;
+    }
+    
+    String contentType() {
+        return "multipart/form-data; boundary=" + boundary;
+    }
+    
+    byte[] build() {
+        write("--" + boundary + "--\r\n");
+        return body.toByteArray();
+    }
+    
+    private void write(String text) {
+        body.writeBytes(text.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,104 @@
+package br.com.gerasaber.domain.entity;
+
+import lombok.Builder;
+import lombok.Data;
+
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.UnaryOperator;
+
+/**
+ * Domain entity representing the processing state of an upload request.
+ * Each transition returns a new state, so a state can be shared with waiting clients without copying.
+ * {@code COMPLETED} and {@code FAILED} are final: transitions out of them return the state unchanged.
+ * A job fanned out into parts aggregates their states and finishes once every part has finished.
+ */
+@Data
+@Builder(toBuilder = true)
+public class JobState {
+    
+    private final String requestId;
+    private final JobStatus status;
+    private final LocalDateTime acceptedAt;
+    private final LocalDateTime updatedAt;
+    private final Path resultPath;
+    private final String failureReason;
+    @Builder.Default
+    private final Map<String, JobState> parts = Map.of();
+    
+    public static JobState accepted(String requestId) {
+        LocalDateTime now = LocalDateTime.now();
+        return JobState.builder()
+                .requestId(requestId)
+                .status(JobStatus.ACCEPTED)
+                .acceptedAt(now)
+                .updatedAt(now)
+                .build();
+    }
+    
+    public boolean isFannedOut() {
+        return !parts.isEmpty();
+    }
+    
+    public JobState fannedOut(List<String> partIds) {
+        Map<String, JobState> accepted = new LinkedHashMap<>();
+        partIds.forEach(partId -> accepted.put(partId, JobState.accepted(partId)));
+        return toBuilder().parts(Collections.unmodifiableMap(accepted)).updatedAt(LocalDateTime.now()).build();
+    }
+    
+    public JobState forwarded() {
+        // A fast webhook may complete the job before the forward is acknowledged
+        if (status.isFinal()) {
+            return this;
+        }
+        return toBuilder().status(JobStatus.FORWARDED).updatedAt(LocalDateTime.now()).build();
+    }
+    
+    public JobState completed(Path resultPath) {
+        if (status.isFinal()) {
+            return this;
+        }
+        return toBuilder()
+                .status(JobStatus.COMPLETED)
+                .updatedAt(LocalDateTime.now())
+                .resultPath(resultPath)
+                .failureReason(null)
+                .build();
+    }
+    
+    public JobState failed(String failureReason) {
+        if (status.isFinal()) {
+            return this;
+        }
+        return toBuilder().status(JobStatus.FAILED).updatedAt(LocalDateTime.now()).failureReason(failureReason).build();
+    }
+    
+    /**
+     * Applies a transition to one part and derives the state of the whole job from its parts.
+     */
+    public JobState withPart(String partId, UnaryOperator<JobState> transition) {
+        JobState part = parts.get(partId);
+        if (part == null) {
+            return this;
+        }
+        
+        Map<String, JobState> updated = new LinkedHashMap<>(parts);
+        updated.put(partId, transition.apply(part));
+        JobState state = toBuilder().parts(Collections.unmodifiableMap(updated)).updatedAt(LocalDateTime.now()).build();
+        
+        long finished = updated.values().stream().filter(p -> p.getStatus().isFinal()).count();
+        long failed = updated.values().stream().filter(p -> p.getStatus() == JobStatus.FAILED).count();
+        if (finished < updated.size()) {
+            return state.getStatus() == JobStatus.ACCEPTED && updated.get(partId).getStatus() != JobStatus.ACCEPTED
+                    ? state.toBuilder().status(JobStatus.FORWARDED).build()
+                    : state;
+        }
+        return failed == 0
+                ? state.toBuilder().status(JobStatus.COMPLETED).failureReason(null).build()
+                : state.toBuilder().status(JobStatus.FAILED).failureReason(failed + " of " + updated.size() + " parts failed").build();
+    }
+}
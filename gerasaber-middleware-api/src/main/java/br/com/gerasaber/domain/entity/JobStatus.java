@@ -0,0 +1,16 @@
+package br.com.gerasaber.domain.entity;
+
+/**
+ * Lifecycle of an upload job, from acceptance by the middleware to the PDF returned by n8n.
+ */
+public enum JobStatus {
+    
+    ACCEPTED,
+    FORWARDED,
+    COMPLETED,
+    FAILED;
+    
+    public boolean isFinal() {
+        return this == COMPLETED || this == FAILED;
+    }
+}
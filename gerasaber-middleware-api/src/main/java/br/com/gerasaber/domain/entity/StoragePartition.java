@@ -0,0 +1,18 @@
+package br.com.gerasaber.domain.entity;
+
+import lombok.Builder;
+import lombok.Data;
+
+import java.time.LocalDate;
+
+/**
+ * Domain entity describing one date partition of the file storage.
+ */
+@Data
+@Builder
+public class StoragePartition {
+    
+    private final LocalDate date;
+    private final int fileCount;
+    private final long size;
+}
@@ -0,0 +1,26 @@
+package br.com.gerasaber.domain.entity;
+
+import lombok.Builder;
+import lombok.Data;
+
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+
+/**
+ * Domain entity representing a file kept by the storage port.
+ * Links the stored content to the request and original filename it was received for.
+ * The content is the {@code size} bytes at {@code offset} in {@code path}; the offset is only non-zero for
+ * files packed into a segment.
+ */
+@Data
+@Builder(toBuilder = true)
+public class StoredFile {
+    
+    private final String requestId;
+    private final String filename;
+    private final Path path;
+    private final long offset;
+    private final long size;
+    private final String contentHash;
+    private final LocalDateTime storedAt;
+}
@@ -3,6 +3,10 @@ package br.com.gerasaber.domain.entity;
 import lombok.Builder;
 import lombok.Data;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.time.LocalDateTime;
 import java.util.List;
 
@@ -18,16 +22,28 @@ public class UploadRequest {
     private final String promptDescription;
     private final LocalDateTime timestamp;
     private final String requestId;
+    private final String clientId;
     
     /**
      * Value object representing a file part in the upload request.
+     * The content is spooled to a local file so it never has to be held in heap.
      */
     @Data
     @Builder
     public static class FilePart {
         private final String originalFilename;
         private final String contentType;
-        private final byte[] content;
+        private final Path contentPath;
         private final long size;
+        
+        /**
+         * Opens a new stream over the spooled content of this file part.
+         * 
+         * @return an input stream that must be closed by the caller
+         * @throws IOException if the spooled content cannot be read
+         */
+        public InputStream openStream() throws IOException {
+            return Files.newInputStream(contentPath);
+        }
     }
 }
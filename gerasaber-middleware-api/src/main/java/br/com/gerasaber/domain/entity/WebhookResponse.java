@@ -8,14 +8,13 @@ import java.time.LocalDateTime;
 
 /**
  * Domain entity representing a webhook response from n8n.
- * Contains the processed PDF file and metadata.
+ * Contains the metadata of the processed PDF file; the content itself is streamed to storage.
  */
 @Data
 @Builder
 public class WebhookResponse {
     
     private final String requestId;
-    private final byte[] pdfContent;
     private final String filename;
     private final String contentType;
     private final LocalDateTime timestamp;
@@ -1,6 +1,12 @@
 package br.com.gerasaber.domain.port;
 
+import br.com.gerasaber.domain.entity.StoragePartition;
+import br.com.gerasaber.domain.entity.StoredFile;
+
+import java.io.InputStream;
 import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.List;
 import java.util.Optional;
 
 /**
@@ -34,4 +40,92 @@ public interface IFileStoragePort {
      * @return the path where the file was saved
      */
     Path saveFileWithTimestamp(String filename, byte[] content);
+    
+    /**
+     * Saves a file with timestamp-based directory structure, streaming its content straight to disk.
+     * The stream is consumed but not closed.
+     * 
+     * @param filename the name of the file to save
+     * @param content the file content as a stream
+     * @return the path where the file was saved
+     */
+    Path saveFileWithTimestamp(String filename, InputStream content);
+    
+    /**
+     * Saves a file with timestamp-based directory structure and records it in the storage index.
+     * The stream is consumed but not closed.
+     * 
+     * @param requestId the request ID the file belongs to, or null if unknown
+     * @param filename the original name of the file
+     * @param content the file content as a stream
+     * @return the indexed metadata of the stored file
+     */
+    StoredFile storeFile(String requestId, String filename, InputStream content);
+    
+    /**
+     * Records an already stored file as the result of another request as well, without copying its content.
+     * 
+     * @param requestId the request ID to link the file to
+     * @param storedFile the stored file to link
+     * @return the indexed metadata of the file under the new request ID
+     */
+    StoredFile linkFile(String requestId, StoredFile storedFile);
+    
+    /**
+     * Finds the most recently stored file of a request.
+     * 
+     * @param requestId the request ID the file was stored for
+     * @return Optional containing the stored file if found, empty otherwise
+     */
+    Optional<StoredFile> findByRequestId(String requestId);
+    
+    /**
+     * Finds a stored file by its path relative to the storage root.
+     * Paths that resolve outside the storage root are never returned.
+     * 
+     * @param relativePath the path of the file relative to the storage root
+     * @return Optional containing the stored file if found, empty otherwise
+     */
+    Optional<StoredFile> findByPath(String relativePath);
+    
+    /**
+     * Finds stored files whose original filename starts with the given prefix, ordered by filename.
+     * 
+     * @param prefix the filename prefix to match
+     * @param limit the maximum number of results
+     * @return the matching stored files
+     */
+    List<StoredFile> findByFilenamePrefix(String prefix, int limit);
+    
+    /**
+     * Lists the date partitions of the storage, oldest first. Storages without partitions return an empty list.
+     * 
+     * @return the partitions with their file count and size
+     */
+    List<StoragePartition> listPartitions();
+    
+    /**
+     * Deletes a partition and every file in it. Storages without partitions ignore the call.
+     * 
+     * @param date the date of the partition
+     */
+    void deletePartition(LocalDate date);
+    
+    /**
+     * Moves a partition and every file in it out of the storage, into the given directory.
+     * Storages without partitions ignore the call.
+     * 
+     * @param date the date of the partition
+     * @param archiveDirectory the directory receiving the partition
+     */
+    void archivePartition(LocalDate date, Path archiveDirectory);
+    
+    /**
+     * Packs the small files of a partition into a single segment file, keeping them readable by offset.
+     * 
+     * @param date the date of the partition
+     * @param maxFileSize files larger than this are left as they are
+     * @return the number of files packed, always 0 for storages without partitions
+     */
+    int compactPartition(LocalDate date, long maxFileSize);
 }
@@ -0,0 +1,38 @@
+package br.com.gerasaber.domain.port;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.OptionalLong;
+
+/**
+ * Port interface for an object store used as the cold storage tier following Clean Architecture principles.
+ * Objects are immutable and addressed by a slash-separated key.
+ */
+public interface IObjectStorePort {
+    
+    /**
+     * Uploads a local file as an object, replacing any object with the same key.
+     * The object only becomes visible once it has been written completely.
+     * 
+     * @param key the object key
+     * @param source the file to upload
+     * @throws IOException if the upload fails
+     */
+    void putObject(String key, Path source) throws IOException;
+    
+    /**
+     * Downloads an object to a local file, replacing the file if it exists.
+     * 
+     * @param key the object key
+     * @param target the file to write
+     * @throws IOException if the object does not exist or cannot be read
+     */
+    void getObject(String key, Path target) throws IOException;
+    
+    /**
+     * @param key the object key
+     * @return the size of the object in bytes, empty if it does not exist
+     * @throws IOException if the store cannot be queried
+     */
+    OptionalLong sizeOf(String key) throws IOException;
+}
@@ -0,0 +1,97 @@
+package br.com.gerasaber.domain.port;
+
+/**
+ * Port interface for recording metrics of the upload to n8n to webhook pipeline following Clean Architecture principles.
+ */
+public interface IPipelineMetricsPort {
+    
+    /**
+     * Pipeline stages whose latency and concurrency are tracked.
+     */
+    enum Stage {
+        CONVERSION,
+        PREPROCESSING,
+        FORWARD,
+        WEBHOOK,
+        STORAGE_WRITE,
+        END_TO_END
+    }
+    
+    /**
+     * Outcome a stage finished with.
+     */
+    enum Outcome {
+        SUCCESS,
+        FAILURE,
+        EXPIRED
+    }
+    
+    /**
+     * Reasons an upload submission is rejected.
+     */
+    enum Rejection {
+        RATE_LIMITED,
+        QUEUE_FULL
+    }
+    
+    /**
+     * Marks a stage as started and counts it as in flight.
+     * 
+     * @param stage the stage that started
+     * @return the start time to pass to {@link #stop(Stage, long, Outcome)}
+     */
+    long start(Stage stage);
+    
+    /**
+     * Records the duration of a stage started with {@link #start(Stage)} and removes it from the in-flight count.
+     * 
+     * @param stage the stage that finished
+     * @param startNanos the start time returned by {@link #start(Stage)}
+     * @param outcome how the stage finished
+     */
+    void stop(Stage stage, long startNanos, Outcome outcome);
+    
+    /**
+     * Records the size of a file uploaded by a client.
+     * 
+     * @param filename the original filename, used to derive the file type
+     * @param bytes the size of the file in bytes
+     */
+    void recordBytesIn(String filename, long bytes);
+    
+    /**
+     * Records the size of a file generated by n8n and returned through the webhook.
+     * 
+     * @param filename the stored filename, used to derive the file type
+     * @param bytes the size of the file in bytes
+     */
+    void recordBytesGenerated(String filename, long bytes);
+    
+    /**
+     * Records the size of a file sent to n8n.
+     * 
+     * @param filename the original filename, used to derive the file type
+     * @param bytes the size of the file in bytes
+     */
+    void recordBytesOut(String filename, long bytes);
+    
+    /**
+     * Records a lookup in the result cache.
+     * 
+     * @param hit true if a cached result was found, so the request is not forwarded to n8n
+     */
+    void recordCacheLookup(boolean hit);
+    
+    /**
+     * Records a retried webhook that was answered with the response of an earlier delivery.
+     */
+    void recordWebhookDuplicate();
+    
+    /**
+     * Records an upload submission that was rejected before being accepted.
+     * 
+     * @param tenant the configured tenant of the client, or the default tenant
+     * @param reason why the upload was rejected
+     */
+    void recordRejection(String tenant, Rejection reason);
+}
@@ -0,0 +1,29 @@
+package br.com.gerasaber.domain.port;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.file.Path;
+
+/**
+ * Port interface for extracting plain text from uploaded documents following Clean Architecture principles.
+ */
+public interface ITextExtractionPort {
+    
+    /**
+     * Tells whether this extractor handles a document.
+     * 
+     * @param filename the original filename of the document
+     * @param contentType the declared content type of the document, may be null
+     * @return true if the document can be extracted by this extractor
+     */
+    boolean supports(String filename, String contentType);
+    
+    /**
+     * Extracts the text of a document, writing it as it is read instead of collecting it in memory.
+     * 
+     * @param document the path of the document
+     * @param target the writer receiving the extracted text
+     * @throws IOException if the document cannot be read or is not a valid document of the supported type
+     */
+    void extractText(Path document, Writer target) throws IOException;
+}
@@ -0,0 +1,54 @@
+package br.com.gerasaber.domain.port;
+
+import br.com.gerasaber.domain.entity.UploadRequest;
+
+import java.util.List;
+
+/**
+ * Port interface for the durable outbox of accepted upload requests following Clean Architecture principles.
+ * Requests are written ahead of their acknowledgment so they survive n8n outages and application restarts.
+ */
+public interface IUploadOutboxPort {
+    
+    /**
+     * Durably records an upload request and its file contents.
+     * 
+     * @param uploadRequest the upload request to record
+     */
+    void append(UploadRequest uploadRequest);
+    
+    /**
+     * Durably records several upload requests and their file contents in one commit.
+     * A request that cannot be written is left out without failing the others.
+     * 
+     * @param uploadRequests the upload requests to record
+     * @return the requests that were recorded, in the order they were given
+     */
+    List<UploadRequest> appendAll(List<UploadRequest> uploadRequests);
+    
+    /**
+     * Marks an upload request as delivered so it will not be replayed.
+     * 
+     * @param requestId the request ID of the delivered upload request
+     */
+    void acknowledge(String requestId);
+    
+    /**
+     * Sets aside an upload request that could not be delivered, keeping its files for inspection.
+     * The files are taken from the recorded request, so they are the ones originally accepted even if the spooled
+     * copies were replaced since, e.g. by preprocessing. The request is then acknowledged, so it is neither replayed
+     * nor holding back the reclamation of older records.
+     * 
+     * @param requestId the request ID of the undeliverable upload request
+     * @param reason why the request could not be delivered
+     */
+    void deadLetter(String requestId, String reason);
+    
+    /**
+     * Returns the upload requests that were recorded but never acknowledged before the last shutdown.
+     * Their files are restored to spooled copies owned by the caller.
+     * 
+     * @return the unacknowledged upload requests, oldest first
+     */
+    List<UploadRequest> recover();
+}
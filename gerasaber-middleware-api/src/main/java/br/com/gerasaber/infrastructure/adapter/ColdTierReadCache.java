@@ -0,0 +1,118 @@
+package br.com.gerasaber.infrastructure.adapter;
+
+import br.com.gerasaber.domain.port.IObjectStorePort;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Size-bounded local cache of objects read back from the cold tier.
+ * Cached copies are plain files under the cache directory, so they can be served like hot files; when the cache
+ * exceeds its size, Caffeine evicts the copies least likely to be read again and the files are deleted.
+ * Concurrent reads of the same object share a single download.
+ * <p>
+ * Callers are handed the path of a copy, not an open file, so an evicted copy is only deleted after a grace period
+ * that covers the time between a lookup and the reader opening the file. Readers that already have it open are
+ * unaffected by the deletion. If the object was cached again in the meantime, the copy now belongs to the new entry
+ * and is kept.
+ */
+@Slf4j
+final class ColdTierReadCache {
+    
+    private final Path directory;
+    private final IObjectStorePort objectStorePort;
+    private final Executor delayedDeletion;
+    private final Cache<String, Path> copies;
+    
+    ColdTierReadCache(Path directory, long maximumBytes, Duration evictionGrace, IObjectStorePort objectStorePort) {
+        this.directory = directory.toAbsolutePath().normalize();
+        this.objectStorePort = objectStorePort;
+        this.delayedDeletion = CompletableFuture.delayedExecutor(evictionGrace.toMillis(), TimeUnit.MILLISECONDS);
+        this.copies = Caffeine.newBuilder()
+                .maximumWeight(maximumBytes)
+                .weigher((String key, Path copy) -> (int) Math.min(sizeOf(copy), Integer.MAX_VALUE))
+                .removalListener((String key, Path copy, RemovalCause cause) -> delayedDeletion.execute(() -> release(key, copy)))
+                .build();
+    }
+    
+    /**
+     * Creates the cache directory, dropping copies left by a previous run since they are not tracked.
+     */
+    void open() throws IOException {
+        if (Files.exists(directory)) {
+            try (Stream<Path> paths = Files.walk(directory)) {
+                for (Path path : paths.sorted(Comparator.reverseOrder()).toList()) {
+                    Files.deleteIfExists(path);
+                }
+            }
+        }
+        Files.createDirectories(directory);
+    }
+    
+    Optional<Path> get(String key) {
+        try {
+            return Optional.of(copies.get(key, this::download));
+        } catch (UncheckedIOException e) {
+            log.warn("Failed to read object {} from the cold tier", key, e.getCause());
+            return Optional.empty();
+        }
+    }
+    
+    private Path download(String key) {
+        Path copy = directory.resolve(key).normalize();
+        try {
+            Files.createDirectories(copy.getParent());
+            Path temp = Files.createTempFile(copy.getParent(), ".download-", ".tmp");
+            try {
+                objectStorePort.getObject(key, temp);
+                Files.move(temp, copy, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } finally {
+                Files.deleteIfExists(temp);
+            }
+            log.debug("Cached cold object {} at {}", key, copy);
+            return copy;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+    
+    private void release(String key, Path copy) {
+        // Runs atomically with any download of the same key, which would write to the same path
+        copies.asMap().computeIfAbsent(key, absent -> {
+            delete(copy);
+            return null;
+        });
+    }
+    
+    private static long sizeOf(Path copy) {
+        try {
+            return Files.size(copy);
+        } catch (IOException e) {
+            return 0;
+        }
+    }
+    
+    private static void delete(Path copy) {
+        try {
+            if (copy != null) {
+                Files.deleteIfExists(copy);
+            }
+        } catch (IOException e) {
+            log.warn("Failed to delete cached cold object: {}", copy, e);
+        }
+    }
+}
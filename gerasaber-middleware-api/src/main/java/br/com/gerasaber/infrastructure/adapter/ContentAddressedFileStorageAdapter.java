@@ -0,0 +1,229 @@
+package br.com.gerasaber.infrastructure.adapter;
+
+import br.com.gerasaber.domain.entity.StoragePartition;
+import br.com.gerasaber.domain.entity.StoredFile;
+import br.com.gerasaber.domain.port.IFileStoragePort;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.security.MessageDigest;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Locale;
+import java.util.Optional;
+
+/**
+ * Content-addressed implementation of the file storage port.
+ * Files are hashed with SHA-256 while being streamed to a staging file and stored once under a sharded
+ * {@code blobs/ab/cd/<hash>} layout; identical content sent again only costs a hash check and an index append.
+ * New blobs are staged and renamed into place through a {@link StorageWriter}, so they get the durability level
+ * set by {@code storage.durability} just like date-partitioned storage.
+ * The filename to hash references are kept in the shared {@link FileStorageIndex}.
+ * Blobs are not partitioned by date, so retention never sees a partition here and the partition operations
+ * do nothing.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "storage.type", havingValue = "content-addressed")
+public class ContentAddressedFileStorageAdapter implements IFileStoragePort {
+    
+    private static final String BLOB_DIRECTORY = "blobs";
+    private static final String TEMP_DIRECTORY = "tmp";
+    private static final String INDEX_FILE = ".index/storage-index.dat";
+    
+    @Value("${storage.local-path:/var/app/files}")
+    private String baseStoragePath;
+    
+    @Value("${storage.durability:fsync}")
+    private String durability;
+    
+    private Path blobPath;
+    private StorageWriter writer;
+    private FileStorageIndex index;
+    
+    @PostConstruct
+    void open() throws IOException {
+        Path basePath = Paths.get(baseStoragePath);
+        blobPath = Files.createDirectories(basePath.resolve(BLOB_DIRECTORY));
+        writer = new StorageWriter(basePath.resolve(TEMP_DIRECTORY), StorageWriter.Durability.valueOf(durability.toUpperCase(Locale.ROOT)));
+        writer.open();
+        
+        index = new FileStorageIndex(basePath, basePath.resolve(INDEX_FILE));
+        index.open();
+        
+        log.info("Content-addressed storage opened at {} with {} indexed files", basePath, index.size());
+    }
+    
+    @PreDestroy
+    void close() throws IOException {
+        index.close();
+    }
+    
+    @Override
+    public Path saveFile(String filename, byte[] content) {
+        return saveFileWithTimestamp(filename, new ByteArrayInputStream(content));
+    }
+    
+    @Override
+    public Optional<Path> findFile(String filename) {
+        Optional<StoredFile> indexed = index.findLatestByFilename(filename);
+        if (indexed.isPresent()) {
+            return indexed.map(StoredFile::getPath);
+        }
+        
+        // Allow blobs to be addressed directly by their relative path or hash as well
+        Path candidate = blobPath.resolve(filename).normalize();
+        if (candidate.startsWith(blobPath) && Files.isRegularFile(candidate)) {
+            return Optional.of(candidate);
+        }
+        if (filename.matches("[0-9a-f]{64}") && Files.isRegularFile(resolveBlob(filename))) {
+            return Optional.of(resolveBlob(filename));
+        }
+        return Optional.empty();
+    }
+    
+    @Override
+    public Path saveFileWithTimestamp(String filename, byte[] content) {
+        return saveFileWithTimestamp(filename, new ByteArrayInputStream(content));
+    }
+    
+    @Override
+    public Path saveFileWithTimestamp(String filename, InputStream content) {
+        return storeFile(null, filename, content).getPath();
+    }
+    
+    @Override
+    public StoredFile storeFile(String requestId, String filename, InputStream content) {
+        StorageWriter.StagedFile staged = null;
+        try {
+            MessageDigest digest = FileStorageIndex.newDigest();
+            staged = writer.stage(content, digest);
+            String hash = HexFormat.of().formatHex(digest.digest());
+            
+            Path target = resolveBlob(hash);
+            if (Files.exists(target)) {
+                log.info("Deduplicated {} against existing blob {}", filename, hash);
+            } else {
+                writer.commit(staged.path(), target);
+                log.info("Stored new blob {} for {} ({} bytes)", hash, filename, staged.size());
+            }
+            
+            // Duplicates only add a reference from this request and filename to the existing blob
+            StoredFile storedFile = StoredFile.builder()
+                    .requestId(requestId)
+                    .filename(filename)
+                    .path(target)
+                    .size(staged.size())
+                    .contentHash(hash)
+                    .storedAt(LocalDateTime.now())
+                    .build();
+            index.add(storedFile);
+            return storedFile;
+        } catch (IOException e) {
+            log.error("Failed to save content-addressed file: {}", filename, e);
+            throw new RuntimeException("Failed to save file with timestamp: " + filename, e);
+        } finally {
+            if (staged != null) {
+                deleteQuietly(staged.path());
+            }
+        }
+    }
+    
+    @Override
+    public StoredFile linkFile(String requestId, StoredFile storedFile) {
+        StoredFile linked = storedFile.toBuilder()
+                .requestId(requestId)
+                .storedAt(LocalDateTime.now())
+                .build();
+        index.add(linked);
+        log.debug("Linked file {} to request {}", storedFile.getPath(), requestId);
+        return linked;
+    }
+    
+    @Override
+    public Optional<StoredFile> findByRequestId(String requestId) {
+        return index.findByRequestId(requestId);
+    }
+    
+    @Override
+    public Optional<StoredFile> findByPath(String relativePath) {
+        Path basePath = Paths.get(baseStoragePath).toAbsolutePath().normalize();
+        Path filePath = basePath.resolve(relativePath).normalize();
+        if (!filePath.startsWith(blobPath.toAbsolutePath().normalize()) || !Files.isRegularFile(filePath)) {
+            return Optional.empty();
+        }
+        
+        // Files not known to the index are still served, just without a content hash
+        return index.findByPath(filePath).or(() -> describeUnindexed(filePath));
+    }
+    
+    @Override
+    public List<StoredFile> findByFilenamePrefix(String prefix, int limit) {
+        return index.findByFilenamePrefix(prefix, limit);
+    }
+    
+    @Override
+    public List<StoragePartition> listPartitions() {
+        // Blobs are shared between requests and dates, so there are no partitions to expire
+        return List.of();
+    }
+    
+    @Override
+    public void deletePartition(LocalDate date) {
+        // No partitions are listed, so there is never one to delete
+        log.debug("Ignoring deletion of partition {}, content-addressed storage has no date partitions", date);
+    }
+    
+    @Override
+    public void archivePartition(LocalDate date, Path archiveDirectory) {
+        log.debug("Ignoring archival of partition {}, content-addressed storage has no date partitions", date);
+    }
+    
+    @Override
+    public int compactPartition(LocalDate date, long maxFileSize) {
+        log.debug("Ignoring compaction of partition {}, content-addressed storage has no date partitions", date);
+        return 0;
+    }
+    
+    private Path resolveBlob(String hash) {
+        return blobPath.resolve(hash.substring(0, 2)).resolve(hash.substring(2, 4)).resolve(hash);
+    }
+    
+    private Optional<StoredFile> describeUnindexed(Path filePath) {
+        try {
+            return Optional.of(StoredFile.builder()
+                    .filename(filePath.getFileName().toString())
+                    .path(filePath)
+                    .size(Files.size(filePath))
+                    .storedAt(LocalDateTime.ofInstant(Files.getLastModifiedTime(filePath).toInstant(), ZoneId.systemDefault()))
+                    .build());
+        } catch (IOException e) {
+            log.warn("Failed to read attributes of file: {}", filePath, e);
+            return Optional.empty();
+        }
+    }
+    
+    private void deleteQuietly(Path path) {
+        if (path == null) {
+            return;
+        }
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException e) {
+            log.warn("Failed to delete temporary blob: {}", path, e);
+        }
+    }
+}
@@ -0,0 +1,149 @@
+package br.com.gerasaber.infrastructure.adapter;
+
+import br.com.gerasaber.domain.port.ITextExtractionPort;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Writer;
+import java.nio.file.Path;
+import java.util.Locale;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+/**
+ * StAX implementation of the text extraction port for DOCX documents.
+ * The main document part is read straight from the zip entry with a pull parser, emitting the text runs,
+ * tabs and breaks of each paragraph as they are encountered.
+ * Uploaded archives are untrusted, so documents with more than {@code upload.preprocessing.docx.max-entries}
+ * entries are refused before anything is inflated, and inflation stops once the document part exceeds
+ * {@code upload.preprocessing.docx.max-inflated-size} whatever size its entry declares.
+ */
+@Component
+public class DocxTextExtractionAdapter implements ITextExtractionPort {
+    
+    private static final String DOCX_CONTENT_TYPE = "application/vnd.openxmlformats-officedocument.wordprocessingml.document";
+    private static final String DOCUMENT_PART = "word/document.xml";
+    private static final String WORDML_NAMESPACE = "http://schemas.openxmlformats.org/wordprocessingml/2006/main";
+    
+    private final XMLInputFactory xmlInputFactory = createXmlInputFactory();
+    
+    @Value("${upload.preprocessing.docx.max-entries:1000}")
+    private int maxEntries;
+    
+    @Value("${upload.preprocessing.docx.max-inflated-size:64MB}")
+    private DataSize maxInflatedSize;
+    
+    @Override
+    public boolean supports(String filename, String contentType) {
+        return DOCX_CONTENT_TYPE.equals(contentType)
+                || (filename != null && filename.toLowerCase(Locale.ROOT).endsWith(".docx"));
+    }
+    
+    @Override
+    public void extractText(Path document, Writer target) throws IOException {
+        try (ZipFile docx = new ZipFile(document.toFile())) {
+            if (docx.size() > maxEntries) {
+                throw new IOException("DOCX document has " + docx.size() + " entries, at most " + maxEntries + " are allowed");
+            }
+            ZipEntry documentPart = docx.getEntry(DOCUMENT_PART);
+            if (documentPart == null) {
+                throw new IOException("Not a DOCX document, missing " + DOCUMENT_PART);
+            }
+            long limit = maxInflatedSize.toBytes();
+            if (documentPart.getSize() > limit) {
+                throw new IOException("DOCX document part exceeds " + maxInflatedSize);
+            }
+            try (InputStream content = new BoundedInputStream(docx.getInputStream(documentPart), limit)) {
+                writeText(xmlInputFactory.createXMLStreamReader(content), target);
+            }
+        } catch (XMLStreamException e) {
+            throw new IOException("Malformed DOCX document", e);
+        }
+    }
+    
+    private void writeText(XMLStreamReader reader, Writer target) throws XMLStreamException, IOException {
+        boolean inText = false;
+        try {
+            while (reader.hasNext()) {
+                int event = reader.next();
+                if (event == XMLStreamConstants.START_ELEMENT && WORDML_NAMESPACE.equals(reader.getNamespaceURI())) {
+                    switch (reader.getLocalName()) {
+                        case "t" -> inText = true;
+                        case "tab" -> target.write('\t');
+                        case "br", "cr" -> target.write('\n');
+                        default -> {
+                        }
+                    }
+                } else if (event == XMLStreamConstants.END_ELEMENT && WORDML_NAMESPACE.equals(reader.getNamespaceURI())) {
+                    switch (reader.getLocalName()) {
+                        case "t" -> inText = false;
+                        case "p" -> target.write('\n');
+                        default -> {
+                        }
+                    }
+                } else if (inText && (event == XMLStreamConstants.CHARACTERS || event == XMLStreamConstants.CDATA)) {
+                    target.write(reader.getTextCharacters(), reader.getTextStart(), reader.getTextLength());
+                }
+            }
+        } finally {
+            reader.close();
+        }
+    }
+    
+    /**
+     * Fails the read once more than a given number of bytes has been inflated, since the declared entry size
+     * cannot be trusted.
+     */
+    private static final class BoundedInputStream extends FilterInputStream {
+        
+        private final long limit;
+        private long remaining;
+        
+        BoundedInputStream(InputStream in, long limit) {
+            super(in);
+            this.limit = limit;
+            this.remaining = limit;
+        }
+        
+        @Override
+        public int read() throws IOException {
+            int value = super.read();
+            if (value != -1) {
+                consumed(1);
+            }
+            return value;
+        }
+        
+        @Override
+        public int read(byte[] buffer, int offset, int length) throws IOException {
+            int read = super.read(buffer, offset, length);
+            if (read > 0) {
+                consumed(read);
+            }
+            return read;
+        }
+        
+        private void consumed(int bytes) throws IOException {
+            remaining -= bytes;
+            if (remaining < 0) {
+                throw new IOException("DOCX document part exceeds " + limit + " bytes once inflated");
+            }
+        }
+    }
+    
+    private static XMLInputFactory createXmlInputFactory() {
+        XMLInputFactory factory = XMLInputFactory.newFactory();
+        // Uploaded documents are untrusted, so DTDs and external entities are never resolved
+        factory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+        factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+        return factory;
+    }
+}
@@ -0,0 +1,839 @@
+package br.com.gerasaber.infrastructure.adapter;
+
+import br.com.gerasaber.domain.entity.UploadRequest;
+import br.com.gerasaber.domain.port.IUploadOutboxPort;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Objects;
+import java.util.Properties;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+import java.util.zip.CRC32C;
+
+/**
+ * Write-ahead outbox journal backed by segmented log files.
+ * <p>
+ * Each record holds the request metadata followed by the raw file contents, copied from the spool with
+ * {@link FileChannel#transferFrom}. Writers reserve their byte range under a short lock and write in parallel;
+ * durability is provided by group commit, where one writer forces the segments on behalf of every record
+ * written before it started. Acknowledged records are tracked in an ack log and the offset of the oldest
+ * unacknowledged record is kept in a checkpoint file, so recovery only scans what may still need replaying.
+ * Delivery is at-least-once: a record forwarded just before a crash may be replayed.
+ * <p>
+ * Because records are written in parallel, a crash can leave a torn record in front of records that were already
+ * forced and acknowledged. Every record is therefore checked on its own: the header carries a magic number and its
+ * own checksum, and the trailer a checksum of the file contents. Recovery skips a record with a bad body by its
+ * length, and a record with a bad header by searching for the next valid header, so later records are kept.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "upload.outbox.enabled", havingValue = "true", matchIfMissing = true)
+public class FileChannelUploadOutboxAdapter implements IUploadOutboxPort {
+
+    private static final int RECORD_VERSION = 2;
+    private static final int RECORD_MAGIC = 0x4F55544D;
+    private static final int RECORD_TRAILER = 0x4F555442;
+    // Magic, record length, metadata length and the checksum of the three
+    private static final int RECORD_HEADER_BYTES = Integer.BYTES + Long.BYTES + Integer.BYTES + Integer.BYTES;
+    private static final int RECORD_TRAILER_BYTES = Long.BYTES + Integer.BYTES;
+    private static final int SCAN_BUFFER_SIZE = 64 * 1024;
+    private static final int COPY_BUFFER_SIZE = 64 * 1024;
+    private static final String SEGMENT_PREFIX = "outbox-";
+    private static final String SEGMENT_SUFFIX = ".log";
+    private static final String CHECKPOINT_FILE = "outbox.checkpoint";
+    private static final String ACK_LOG_FILE = "outbox.acks";
+    private static final String DEAD_LETTER_DIRECTORY = "dead-letter";
+    private static final String DEAD_LETTER_METADATA_FILE = "request.properties";
+
+    @Value("${upload.outbox.path:/var/app/outbox}")
+    private String outboxPath;
+
+    @Value("${upload.outbox.segment-size:256MB}")
+    private DataSize segmentSize;
+
+    @Value("${storage.temp-path:/tmp/middleware/files}")
+    private String tempStoragePath;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition forced = lock.newCondition();
+    private final NavigableMap<Long, Segment> segments = new TreeMap<>();
+    private final Map<String, RecordLocation> pending = new HashMap<>();
+    private final TreeSet<RecordLocation> pendingLocations = new TreeSet<>();
+    private final Set<Segment> dirtySegments = new HashSet<>();
+    private final List<AckEntry> ackEntries = new ArrayList<>();
+
+    private Path directory;
+    private Segment activeSegment;
+    private RecordLocation checkpoint;
+    private FileChannel checkpointChannel;
+    private FileChannel ackChannel;
+    private List<UploadRequest> recovered = new ArrayList<>();
+    private long writtenTickets;
+    private long durableTickets;
+    private boolean forcing;
+
+    @PostConstruct
+    void open() throws IOException {
+        directory = Paths.get(outboxPath);
+        Files.createDirectories(directory);
+        Files.createDirectories(Paths.get(tempStoragePath));
+
+        checkpointChannel = FileChannel.open(directory.resolve(CHECKPOINT_FILE),
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        RecordLocation start = readCheckpoint();
+        Set<String> acknowledged = readAckLog(start);
+
+        long lastSegmentId = 0;
+        for (Path segmentPath : listSegments()) {
+            long segmentId = parseSegmentId(segmentPath);
+            lastSegmentId = Math.max(lastSegmentId, segmentId);
+            if (segmentId < start.segmentId()) {
+                Files.delete(segmentPath);
+                continue;
+            }
+            Segment segment = new Segment(segmentId, segmentPath, FileChannel.open(segmentPath,
+                    StandardOpenOption.READ, StandardOpenOption.WRITE));
+            segments.put(segmentId, segment);
+            long from = segmentId == start.segmentId() ? start.position() : 0;
+            scanSegment(segment, from, acknowledged);
+        }
+
+        activeSegment = openSegment(lastSegmentId + 1);
+        checkpoint = pendingLocations.isEmpty() ? new RecordLocation(activeSegment.id, 0) : pendingLocations.first();
+        writeCheckpoint(checkpoint);
+        rewriteAckLog();
+        deleteSegmentsBefore(checkpoint.segmentId());
+
+        log.info("Upload outbox opened at {} with {} unacknowledged requests", directory, recovered.size());
+    }
+
+    @PreDestroy
+    void close() throws IOException {
+        lock.lock();
+        try {
+            for (Segment segment : segments.values()) {
+                segment.channel.close();
+            }
+            checkpointChannel.close();
+            ackChannel.close();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void append(UploadRequest uploadRequest) {
+        try {
+            Segment segment = write(uploadRequest);
+            try {
+                commit(Set.of(segment));
+            } catch (IOException e) {
+                abandon(uploadRequest.getRequestId());
+                throw e;
+            }
+        } catch (IOException e) {
+            log.error("Failed to write upload request to outbox: {}", uploadRequest.getRequestId(), e);
+            throw new RuntimeException("Failed to write upload request to outbox: " + uploadRequest.getRequestId(), e);
+        }
+    }
+
+    @Override
+    public List<UploadRequest> appendAll(List<UploadRequest> uploadRequests) {
+        List<UploadRequest> written = new ArrayList<>(uploadRequests.size());
+        Set<Segment> segmentsWritten = new HashSet<>();
+        for (UploadRequest uploadRequest : uploadRequests) {
+            try {
+                segmentsWritten.add(write(uploadRequest));
+                written.add(uploadRequest);
+            } catch (IOException e) {
+                log.error("Failed to write upload request to outbox: {}", uploadRequest.getRequestId(), e);
+            }
+        }
+        if (written.isEmpty()) {
+            return written;
+        }
+
+        try {
+            commit(segmentsWritten);
+        } catch (IOException e) {
+            log.error("Failed to commit {} upload requests to outbox", written.size(), e);
+            written.forEach(uploadRequest -> abandon(uploadRequest.getRequestId()));
+            return List.of();
+        }
+        return written;
+    }
+
+    /**
+     * Reserves the byte range of a record and writes it, without forcing it to disk.
+     *
+     * @return the segment the record was written to
+     */
+    private Segment write(UploadRequest uploadRequest) throws IOException {
+        byte[] metadata = encodeMetadata(uploadRequest);
+        long contentLength = uploadRequest.getFiles().stream().mapToLong(UploadRequest.FilePart::getSize).sum();
+        long contentChecksum = contentChecksum(uploadRequest);
+        long recordLength = RECORD_HEADER_BYTES + metadata.length + Long.BYTES + contentLength + RECORD_TRAILER_BYTES;
+
+        Segment segment;
+        long position;
+        lock.lock();
+        try {
+            if (activeSegment.writePosition > 0 && activeSegment.writePosition + recordLength > segmentSize.toBytes()) {
+                activeSegment = openSegment(activeSegment.id + 1);
+            }
+            segment = activeSegment;
+            position = segment.writePosition;
+            segment.writePosition += recordLength;
+
+            RecordLocation location = new RecordLocation(segment.id, position);
+            pending.put(uploadRequest.getRequestId(), location);
+            pendingLocations.add(location);
+        } finally {
+            lock.unlock();
+        }
+
+        try {
+            writeRecord(segment, position, recordLength, metadata, uploadRequest, contentChecksum);
+        } catch (IOException e) {
+            abandon(uploadRequest.getRequestId());
+            throw e;
+        }
+
+        log.debug("Upload request {} written to outbox segment {} at position {}",
+                uploadRequest.getRequestId(), segment.id, position);
+        return segment;
+    }
+
+    @Override
+    public void acknowledge(String requestId) {
+        lock.lock();
+        try {
+            RecordLocation location = pending.remove(requestId);
+            if (location == null) {
+                return;
+            }
+            pendingLocations.remove(location);
+
+            AckEntry entry = new AckEntry(location, requestId);
+            ackEntries.add(entry);
+            ackChannel.write(ByteBuffer.wrap(entry.toLine().getBytes(StandardCharsets.UTF_8)));
+
+            advanceCheckpoint();
+        } catch (IOException e) {
+            log.warn("Failed to record outbox acknowledgment for request: {}", requestId, e);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void deadLetter(String requestId, String reason) {
+        Segment segment;
+        RecordLocation location;
+        lock.lock();
+        try {
+            location = pending.get(requestId);
+            segment = location != null ? segments.get(location.segmentId()) : null;
+        } finally {
+            lock.unlock();
+        }
+        if (segment == null) {
+            log.warn("Upload request {} is not pending in the outbox, nothing to dead-letter", requestId);
+            return;
+        }
+
+        try {
+            writeDeadLetter(segment.channel, location.position(), requestId, reason);
+        } catch (IOException e) {
+            // Left unacknowledged, so the request is replayed on the next start instead of being lost
+            log.error("Failed to dead-letter upload request {}", requestId, e);
+            return;
+        }
+
+        acknowledge(requestId);
+        log.warn("Upload request {} moved to the outbox dead letters: {}", requestId, reason);
+    }
+
+    /**
+     * Copies a recorded request into the dead letters. The copy is taken from the record rather than the spool,
+     * since preprocessing may have replaced the spooled files the caller still holds.
+     */
+    private void writeDeadLetter(FileChannel channel, long position, String requestId, String reason) throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(RECORD_HEADER_BYTES);
+        readFully(channel, header, position);
+        header.position(Integer.BYTES + Long.BYTES);
+        int metadataLength = header.getInt();
+        ByteBuffer metadataBuffer = ByteBuffer.allocate(metadataLength);
+        readFully(channel, metadataBuffer, position + RECORD_HEADER_BYTES);
+        UploadRequest recorded = decodeMetadata(metadataBuffer.array());
+
+        Path target = Files.createDirectories(directory.resolve(DEAD_LETTER_DIRECTORY).resolve(requestId));
+        Properties metadata = new Properties();
+        metadata.setProperty("requestId", requestId);
+        metadata.setProperty("clientId", Objects.requireNonNullElse(recorded.getClientId(), ""));
+        metadata.setProperty("promptDescription", Objects.requireNonNullElse(recorded.getPromptDescription(), ""));
+        metadata.setProperty("timestamp", String.valueOf(recorded.getTimestamp()));
+        metadata.setProperty("reason", reason);
+
+        long cursor = position + RECORD_HEADER_BYTES + metadataLength + Long.BYTES;
+        List<UploadRequest.FilePart> files = recorded.getFiles();
+        for (int i = 0; i < files.size(); i++) {
+            UploadRequest.FilePart filePart = files.get(i);
+            // Stored under their index, client filenames are not trusted as paths
+            copyContent(channel, cursor, filePart.getSize(), target.resolve("file-" + i));
+            metadata.setProperty("file." + i + ".originalFilename", filePart.getOriginalFilename());
+            metadata.setProperty("file." + i + ".contentType", String.valueOf(filePart.getContentType()));
+            cursor += filePart.getSize();
+        }
+        try (OutputStream out = Files.newOutputStream(target.resolve(DEAD_LETTER_METADATA_FILE))) {
+            metadata.store(out, "Undeliverable upload request");
+        }
+    }
+
+    @Override
+    public List<UploadRequest> recover() {
+        lock.lock();
+        try {
+            List<UploadRequest> result = recovered;
+            recovered = new ArrayList<>();
+            return result;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void commit(Collection<Segment> written) throws IOException {
+        lock.lock();
+        try {
+            dirtySegments.addAll(written);
+            long ticket = ++writtenTickets;
+
+            while (durableTickets < ticket) {
+                if (forcing) {
+                    forced.awaitUninterruptibly();
+                    continue;
+                }
+
+                // Become the leader and force everything written so far on behalf of the waiting writers
+                forcing = true;
+                long target = writtenTickets;
+                List<Segment> toForce = new ArrayList<>(dirtySegments);
+                dirtySegments.clear();
+
+                boolean succeeded = false;
+                lock.unlock();
+                try {
+                    for (Segment dirty : toForce) {
+                        dirty.channel.force(false);
+                    }
+                    succeeded = true;
+                } finally {
+                    lock.lock();
+                    forcing = false;
+                    if (succeeded) {
+                        durableTickets = Math.max(durableTickets, target);
+                    } else {
+                        dirtySegments.addAll(toForce);
+                    }
+                    forced.signalAll();
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void abandon(String requestId) {
+        // The partially written record fails its checksums on recovery and is skipped, records around it are kept
+        lock.lock();
+        try {
+            RecordLocation location = pending.remove(requestId);
+            if (location != null) {
+                pendingLocations.remove(location);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void advanceCheckpoint() throws IOException {
+        RecordLocation next = pendingLocations.isEmpty()
+                ? new RecordLocation(activeSegment.id, activeSegment.writePosition)
+                : pendingLocations.first();
+        if (next.equals(checkpoint)) {
+            return;
+        }
+
+        checkpoint = next;
+        writeCheckpoint(checkpoint);
+
+        boolean segmentsDeleted = deleteSegmentsBefore(checkpoint.segmentId());
+        if (segmentsDeleted || pendingLocations.isEmpty()) {
+            rewriteAckLog();
+        }
+    }
+
+    private boolean deleteSegmentsBefore(long segmentId) throws IOException {
+        NavigableMap<Long, Segment> obsolete = segments.headMap(segmentId, false);
+        if (obsolete.isEmpty()) {
+            return false;
+        }
+        for (Segment segment : new ArrayList<>(obsolete.values())) {
+            segment.channel.close();
+            Files.deleteIfExists(segment.path);
+            dirtySegments.remove(segment);
+            log.debug("Deleted fully acknowledged outbox segment {}", segment.id);
+        }
+        obsolete.clear();
+        return true;
+    }
+
+    private void writeRecord(Segment segment, long position, long recordLength, byte[] metadata,
+                             UploadRequest uploadRequest, long contentChecksum) throws IOException {
+        CRC32 crc = new CRC32();
+        crc.update(metadata);
+
+        ByteBuffer header = ByteBuffer.allocate(RECORD_HEADER_BYTES + metadata.length + Long.BYTES);
+        header.putInt(RECORD_MAGIC).putLong(recordLength).putInt(metadata.length)
+                .putInt(headerChecksum(recordLength, metadata.length))
+                .put(metadata).putLong(crc.getValue()).flip();
+
+        // The header goes first so the file always extends up to the position file contents are transferred to
+        long cursor = position + writeFully(segment.channel, header, position);
+        for (UploadRequest.FilePart filePart : uploadRequest.getFiles()) {
+            try (FileChannel source = FileChannel.open(filePart.getContentPath(), StandardOpenOption.READ)) {
+                long copied = 0;
+                while (copied < filePart.getSize()) {
+                    long transferred = segment.channel.transferFrom(source, cursor + copied, filePart.getSize() - copied);
+                    if (transferred <= 0) {
+                        throw new IOException("Spooled file is shorter than its declared size: " + filePart.getContentPath());
+                    }
+                    copied += transferred;
+                }
+            }
+            cursor += filePart.getSize();
+        }
+
+        ByteBuffer trailer = ByteBuffer.allocate(RECORD_TRAILER_BYTES).putLong(contentChecksum).putInt(RECORD_TRAILER).flip();
+        writeFully(segment.channel, trailer, cursor);
+    }
+
+    private void scanSegment(Segment segment, long from, Set<String> acknowledged) throws IOException {
+        FileChannel channel = segment.channel;
+        long size = channel.size();
+        long position = from;
+
+        while (position + RECORD_HEADER_BYTES <= size) {
+            ByteBuffer header = ByteBuffer.allocate(RECORD_HEADER_BYTES);
+            readFully(channel, header, position);
+            long recordLength = validRecordLength(header, position, size);
+            if (recordLength < 0) {
+                // The header itself is torn, so the next record can only be found by its magic number
+                long next = findNextHeader(channel, position + 1, size);
+                log.warn("Skipping torn outbox record in segment {} at position {} ({} bytes)",
+                        segment.id, position, next - position);
+                position = next;
+                continue;
+            }
+
+            header.position(Integer.BYTES + Long.BYTES);
+            int metadataLength = header.getInt();
+            if (!restoreIfIntact(channel, new RecordLocation(segment.id, position), recordLength, metadataLength, acknowledged)) {
+                log.warn("Skipping incomplete outbox record in segment {} at position {}", segment.id, position);
+            }
+            position += recordLength;
+        }
+
+        // Recovered segments are never appended to again, so nothing has to be truncated
+        segment.writePosition = size;
+    }
+
+    private long validRecordLength(ByteBuffer header, long position, long size) {
+        int magic = header.getInt();
+        long recordLength = header.getLong();
+        int metadataLength = header.getInt();
+        int checksum = header.getInt();
+        if (magic != RECORD_MAGIC || checksum != headerChecksum(recordLength, metadataLength)) {
+            return -1;
+        }
+        if (metadataLength <= 0 || recordLength < RECORD_HEADER_BYTES + metadataLength + Long.BYTES + RECORD_TRAILER_BYTES
+                || position + recordLength > size) {
+            return -1;
+        }
+        return recordLength;
+    }
+
+    private long findNextHeader(FileChannel channel, long from, long size) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(SCAN_BUFFER_SIZE);
+        ByteBuffer header = ByteBuffer.allocate(RECORD_HEADER_BYTES);
+        long position = from;
+        while (position + RECORD_HEADER_BYTES <= size) {
+            buffer.clear();
+            int read = channel.read(buffer, position);
+            if (read < Integer.BYTES) {
+                break;
+            }
+            for (int i = 0; i + Integer.BYTES <= read; i++) {
+                if (buffer.getInt(i) != RECORD_MAGIC || position + i + RECORD_HEADER_BYTES > size) {
+                    continue;
+                }
+                header.clear();
+                readFully(channel, header, position + i);
+                if (validRecordLength(header, position + i, size) >= 0) {
+                    return position + i;
+                }
+            }
+            // Overlap the chunks so a magic number split across them is still found
+            position += read - (Integer.BYTES - 1);
+        }
+        return size;
+    }
+
+    private boolean restoreIfIntact(FileChannel channel, RecordLocation location, long recordLength, int metadataLength,
+                                    Set<String> acknowledged) throws IOException {
+        long position = location.position();
+        ByteBuffer trailer = ByteBuffer.allocate(RECORD_TRAILER_BYTES);
+        readFully(channel, trailer, position + recordLength - RECORD_TRAILER_BYTES);
+        long contentChecksum = trailer.getLong();
+        if (trailer.getInt() != RECORD_TRAILER) {
+            return false;
+        }
+
+        ByteBuffer metadataBuffer = ByteBuffer.allocate(metadataLength + Long.BYTES);
+        readFully(channel, metadataBuffer, position + RECORD_HEADER_BYTES);
+        byte[] metadata = new byte[metadataLength];
+        metadataBuffer.get(metadata);
+        CRC32 crc = new CRC32();
+        crc.update(metadata);
+        if (crc.getValue() != metadataBuffer.getLong()) {
+            return false;
+        }
+
+        long contentPosition = position + RECORD_HEADER_BYTES + metadataLength + Long.BYTES;
+        long contentLength = recordLength - (contentPosition - position) - RECORD_TRAILER_BYTES;
+        if (contentChecksum(channel, contentPosition, contentLength) != contentChecksum) {
+            return false;
+        }
+
+        restoreRecord(channel, location, metadata, contentPosition, acknowledged);
+        return true;
+    }
+
+    private void restoreRecord(FileChannel channel, RecordLocation location, byte[] metadata, long contentPosition,
+                               Set<String> acknowledged) throws IOException {
+        UploadRequest recorded = decodeMetadata(metadata);
+        String requestId = recorded.getRequestId();
+        if (acknowledged.contains(requestId)) {
+            ackEntries.add(new AckEntry(location, requestId));
+            return;
+        }
+
+        List<UploadRequest.FilePart> fileParts = new ArrayList<>(recorded.getFiles().size());
+        long cursor = contentPosition;
+        for (UploadRequest.FilePart filePart : recorded.getFiles()) {
+            Path spoolFile = Files.createTempFile(Paths.get(tempStoragePath), requestId + "-", ".part");
+            copyContent(channel, cursor, filePart.getSize(), spoolFile);
+            fileParts.add(UploadRequest.FilePart.builder()
+                    .originalFilename(filePart.getOriginalFilename())
+                    .contentType(filePart.getContentType())
+                    .contentPath(spoolFile)
+                    .size(filePart.getSize())
+                    .build());
+            cursor += filePart.getSize();
+        }
+
+        recovered.add(UploadRequest.builder()
+                .files(fileParts)
+                .promptDescription(recorded.getPromptDescription())
+                .timestamp(recorded.getTimestamp())
+                .requestId(requestId)
+                .clientId(recorded.getClientId())
+                .build());
+        pending.put(requestId, location);
+        pendingLocations.add(location);
+    }
+
+    /**
+     * Decodes the metadata of a record into its request, whose file parts have no content path.
+     */
+    private UploadRequest decodeMetadata(byte[] metadata) throws IOException {
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(metadata))) {
+            int version = in.readByte();
+            String requestId = readString(in);
+            String promptDescription = readString(in);
+            LocalDateTime timestamp = LocalDateTime.parse(readString(in));
+            // Version 1 records predate client IDs and are replayed under the default tenant
+            String clientId = version >= 2 ? readString(in) : null;
+            int fileCount = in.readInt();
+
+            List<UploadRequest.FilePart> fileParts = new ArrayList<>(fileCount);
+            for (int i = 0; i < fileCount; i++) {
+                fileParts.add(UploadRequest.FilePart.builder()
+                        .originalFilename(readString(in))
+                        .contentType(readString(in))
+                        .size(in.readLong())
+                        .build());
+            }
+            return UploadRequest.builder()
+                    .files(fileParts)
+                    .promptDescription(promptDescription)
+                    .timestamp(timestamp)
+                    .requestId(requestId)
+                    .clientId(clientId)
+                    .build();
+        }
+    }
+
+    private static void copyContent(FileChannel channel, long position, long size, Path target) throws IOException {
+        try (FileChannel out = FileChannel.open(target, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            long copied = 0;
+            while (copied < size) {
+                copied += channel.transferTo(position + copied, size - copied, out);
+            }
+        }
+    }
+
+    private long contentChecksum(UploadRequest uploadRequest) throws IOException {
+        CRC32C crc = new CRC32C();
+        for (UploadRequest.FilePart filePart : uploadRequest.getFiles()) {
+            try (FileChannel source = FileChannel.open(filePart.getContentPath(), StandardOpenOption.READ)) {
+                updateChecksum(crc, source, 0, filePart.getSize());
+            }
+        }
+        return crc.getValue();
+    }
+
+    private long contentChecksum(FileChannel channel, long position, long length) throws IOException {
+        CRC32C crc = new CRC32C();
+        updateChecksum(crc, channel, position, length);
+        return crc.getValue();
+    }
+
+    private static void updateChecksum(CRC32C crc, FileChannel channel, long position, long length) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocateDirect(COPY_BUFFER_SIZE);
+        long cursor = position;
+        long end = position + length;
+        while (cursor < end) {
+            buffer.clear().limit((int) Math.min(buffer.capacity(), end - cursor));
+            int read = channel.read(buffer, cursor);
+            if (read < 0) {
+                throw new IOException("File is shorter than its declared size");
+            }
+            buffer.flip();
+            crc.update(buffer);
+            cursor += read;
+        }
+    }
+
+    private static int headerChecksum(long recordLength, int metadataLength) {
+        CRC32C crc = new CRC32C();
+        crc.update(ByteBuffer.allocate(Integer.BYTES + Long.BYTES + Integer.BYTES)
+                .putInt(RECORD_MAGIC).putLong(recordLength).putInt(metadataLength).flip());
+        return (int) crc.getValue();
+    }
+
+    private byte[] encodeMetadata(UploadRequest uploadRequest) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeByte(RECORD_VERSION);
+            writeString(out, uploadRequest.getRequestId());
+            writeString(out, uploadRequest.getPromptDescription());
+            writeString(out, uploadRequest.getTimestamp().toString());
+            writeString(out, uploadRequest.getClientId());
+            out.writeInt(uploadRequest.getFiles().size());
+            for (UploadRequest.FilePart filePart : uploadRequest.getFiles()) {
+                writeString(out, filePart.getOriginalFilename());
+                writeString(out, filePart.getContentType());
+                out.writeLong(filePart.getSize());
+            }
+        }
+        return bytes.toByteArray();
+    }
+
+    private void writeString(DataOutputStream out, String value) throws IOException {
+        if (value == null) {
+            out.writeInt(-1);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private String readString(DataInputStream in) throws IOException {
+        int length = in.readInt();
+        if (length < 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private RecordLocation readCheckpoint() throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(2 * Long.BYTES);
+        if (!readFully(checkpointChannel, buffer, 0)) {
+            return new RecordLocation(0, 0);
+        }
+        return new RecordLocation(buffer.getLong(), buffer.getLong());
+    }
+
+    private void writeCheckpoint(RecordLocation location) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(2 * Long.BYTES);
+        buffer.putLong(location.segmentId()).putLong(location.position()).flip();
+        writeFully(checkpointChannel, buffer, 0);
+    }
+
+    private Set<String> readAckLog(RecordLocation start) throws IOException {
+        Set<String> acknowledged = new HashSet<>();
+        Path ackLog = directory.resolve(ACK_LOG_FILE);
+        if (Files.exists(ackLog)) {
+            try (Stream<String> lines = Files.lines(ackLog, StandardCharsets.UTF_8)) {
+                lines.map(AckEntry::parse)
+                        .filter(entry -> entry != null && entry.location().compareTo(start) >= 0)
+                        .forEach(entry -> acknowledged.add(entry.requestId()));
+            }
+        }
+        return acknowledged;
+    }
+
+    private void rewriteAckLog() throws IOException {
+        ackEntries.removeIf(entry -> entry.location().compareTo(checkpoint) < 0);
+
+        Path ackLog = directory.resolve(ACK_LOG_FILE);
+        Path rewritten = directory.resolve(ACK_LOG_FILE + ".tmp");
+        StringBuilder content = new StringBuilder();
+        for (AckEntry entry : ackEntries) {
+            content.append(entry.toLine());
+        }
+        Files.writeString(rewritten, content, StandardCharsets.UTF_8);
+
+        if (ackChannel != null) {
+            ackChannel.close();
+        }
+        Files.move(rewritten, ackLog, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        ackChannel = FileChannel.open(ackLog, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+    }
+
+    private Segment openSegment(long segmentId) throws IOException {
+        Path segmentPath = directory.resolve(String.format("%s%020d%s", SEGMENT_PREFIX, segmentId, SEGMENT_SUFFIX));
+        Segment segment = new Segment(segmentId, segmentPath, FileChannel.open(segmentPath,
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE));
+        segment.writePosition = segment.channel.size();
+        segments.put(segmentId, segment);
+        log.debug("Opened outbox segment {}", segmentPath);
+        return segment;
+    }
+
+    private List<Path> listSegments() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(path -> {
+                        String name = path.getFileName().toString();
+                        return name.startsWith(SEGMENT_PREFIX) && name.endsWith(SEGMENT_SUFFIX);
+                    })
+                    .sorted()
+                    .toList();
+        }
+    }
+
+    private long parseSegmentId(Path segmentPath) {
+        String name = segmentPath.getFileName().toString();
+        return Long.parseLong(name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length()));
+    }
+
+    private static int writeFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        int written = 0;
+        while (buffer.hasRemaining()) {
+            written += channel.write(buffer, position + written);
+        }
+        return written;
+    }
+
+    private static boolean readFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        long cursor = position;
+        while (buffer.hasRemaining()) {
+            int read = channel.read(buffer, cursor);
+            if (read < 0) {
+                return false;
+            }
+            cursor += read;
+        }
+        buffer.flip();
+        return true;
+    }
+
+    private static final class Segment {
+        private final long id;
+        private final Path path;
+        private final FileChannel channel;
+        private long writePosition;
+
+        private Segment(long id, Path path, FileChannel channel) {
+            this.id = id;
+            this.path = path;
+            this.channel = channel;
+        }
+    }
+
+    private record RecordLocation(long segmentId, long position) implements Comparable<RecordLocation> {
+
+        @Override
+        public int compareTo(RecordLocation other) {
+            int bySegment = Long.compare(segmentId, other.segmentId);
+            return bySegment != 0 ? bySegment : Long.compare(position, other.position);
+        }
+    }
+
+    private record AckEntry(RecordLocation location, String requestId) {
+
+        private String toLine() {
+            return location.segmentId() + " " + location.position() + " " + requestId + "\n";
+        }
+
+        private static AckEntry parse(String line) {
+            String[] fields = line.trim().split(" ");
+            if (fields.length != 3) {
+                return null;
+            }
+            try {
+                return new AckEntry(new RecordLocation(Long.parseLong(fields[0]), Long.parseLong(fields[1])), fields[2]);
+            } catch (NumberFormatException e) {
+                return null;
+            }
+        }
+    }
+}
@@ -0,0 +1,608 @@
+package br.com.gerasaber.infrastructure.adapter;
+
+import br.com.gerasaber.domain.entity.StoredFile;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.HexFormat;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.SortedSet;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.zip.CRC32C;
+
+/**
+ * Memory-mapped index of stored files shared by the storage adapters.
+ * <p>
+ * File metadata is appended to a memory-mapped log, so the records themselves live outside the heap;
+ * only the lookup keys (request ID, original filename and relative path) are held in concurrent maps that
+ * point at record offsets. The log header keeps the committed length and a checkpoint date that adapters
+ * use to limit their startup rescan to partitions that may contain unindexed files.
+ * Files packed into a segment are recorded with their offset in the segment and stay reachable by their
+ * original path. The mapped log is limited to 2 GB, which is several million records.
+ * <p>
+ * Removed files are recorded as tombstones. Records that no key points at any more are dead; once they make up
+ * half of a log of a few megabytes, or the log would outgrow its 2 GB limit, the log is rewritten with only the
+ * live records and swapped in with an atomic rename.
+ * <p>
+ * Mapped pages reach the disk in no particular order, so after a crash the committed length may cover records
+ * that were only partly written. Every record carries its length and a checksum; replay stops at the first record
+ * that fails either check, truncates the log there and clears the checkpoint so the adapters rescan everything.
+ */
+@Slf4j
+public class FileStorageIndex implements Closeable {
+
+    private static final int HEADER_BYTES = 2 * Long.BYTES;
+    private static final int END_OFFSET_POSITION = 0;
+    private static final int CHECKPOINT_POSITION = Long.BYTES;
+    private static final int INITIAL_CAPACITY = 16 * 1024 * 1024;
+    private static final int HASH_BYTES = 32;
+    private static final int RECORD_HEADER_BYTES = 2 * Integer.BYTES;
+    private static final int MIN_RECORD_BYTES = RECORD_HEADER_BYTES + 3 * Integer.BYTES + 2 * Long.BYTES + 1 + HASH_BYTES;
+    private static final byte FLAG_HASH = 1;
+    private static final byte FLAG_PACKED = 2;
+    private static final byte FLAG_TOMBSTONE = 4;
+    private static final int COMPACTION_MIN_DEAD_BYTES = 4 * 1024 * 1024;
+    private static final double COMPACTION_DEAD_RATIO = 0.5;
+    private static final char FILENAME_KEY_SEPARATOR = '\u0000';
+    private static final ZoneId ZONE = ZoneId.systemDefault();
+
+    private final Path basePath;
+    private final Path indexFile;
+    private final ReentrantLock writeLock = new ReentrantLock();
+
+    private FileChannel channel;
+    private volatile Generation records;
+    private int endOffset;
+    private int deadBytes;
+    private int compactionMinDeadBytes = COMPACTION_MIN_DEAD_BYTES;
+
+    public FileStorageIndex(Path basePath, Path indexFile) {
+        this.basePath = basePath.toAbsolutePath().normalize();
+        this.indexFile = indexFile;
+    }
+
+    public void open() throws IOException {
+        Files.createDirectories(indexFile.getParent());
+        Files.deleteIfExists(compactedFile());
+        channel = FileChannel.open(indexFile, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        records = load(channel);
+
+        writeLock.lock();
+        try {
+            compactIfNeeded();
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * Maps a log and replays its records into a new generation, truncating it at the first broken record.
+     */
+    private Generation load(FileChannel source) throws IOException {
+        Generation loaded = new Generation(source.map(FileChannel.MapMode.READ_WRITE, 0, Math.max(source.size(), INITIAL_CAPACITY)));
+        MappedByteBuffer buffer = loaded.buffer;
+        deadBytes = 0;
+
+        endOffset = (int) buffer.getLong(END_OFFSET_POSITION);
+        if (endOffset < HEADER_BYTES) {
+            endOffset = HEADER_BYTES;
+            buffer.putLong(END_OFFSET_POSITION, endOffset);
+        }
+
+        int offset = HEADER_BYTES;
+        while (offset < endOffset) {
+            int length = replay(loaded, offset);
+            if (length < 0) {
+                log.warn("Storage index {} has a corrupt record at offset {}, dropping the {} bytes after it",
+                        indexFile, offset, endOffset - offset);
+                endOffset = offset;
+                buffer.putLong(END_OFFSET_POSITION, endOffset);
+                buffer.putLong(CHECKPOINT_POSITION, 0);
+                break;
+            }
+            offset += length;
+        }
+        return loaded;
+    }
+
+    /**
+     * Applies the record at an offset if it is intact.
+     *
+     * @return the length of the record, or -1 if it is torn or corrupt
+     */
+    private int replay(Generation loaded, int offset) {
+        if (endOffset - offset < RECORD_HEADER_BYTES) {
+            return -1;
+        }
+        int length = loaded.buffer.getInt(offset);
+        if (length < MIN_RECORD_BYTES || length > endOffset - offset) {
+            return -1;
+        }
+        if (loaded.buffer.getInt(offset + Integer.BYTES) != checksum(loaded.buffer, offset, length)) {
+            return -1;
+        }
+
+        try {
+            apply(loaded, offset);
+        } catch (RuntimeException e) {
+            return -1;
+        }
+        return length;
+    }
+
+    @Override
+    public void close() throws IOException {
+        writeLock.lock();
+        try {
+            records.buffer.force();
+            channel.close();
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    public int size() {
+        return records.offsetByPath.size();
+    }
+
+    public void add(StoredFile storedFile) {
+        append(encode(storedFile, null, (byte) 0));
+    }
+
+    /**
+     * Records a file packed into a segment, reachable by its original path.
+     */
+    public void addPacked(StoredFile packed, Path originalPath) {
+        append(encode(packed, relativize(originalPath), (byte) 0));
+    }
+
+    /**
+     * Drops the file at a path, along with every request that refers to it, by appending a tombstone.
+     */
+    public void remove(Path path) {
+        if (contains(path)) {
+            append(tombstone(relativize(path)));
+        }
+    }
+
+    /**
+     * Drops every file under a directory, including the files packed into segments there.
+     */
+    public void removeDirectory(Path directory) {
+        Path relative = Path.of(relativize(directory));
+        List<String> paths = records.offsetByPath.keySet().stream()
+                .filter(path -> Path.of(path).startsWith(relative))
+                .toList();
+        paths.forEach(path -> remove(basePath.resolve(path)));
+    }
+
+    /**
+     * Records files that were packed into a segment, so every request and path that pointed at one of the
+     * original files now resolves to its copy in the segment.
+     *
+     * @param segment the segment file the files were packed into
+     * @param offsets the offset in the segment of each packed file, keyed by its original path
+     */
+    public void relocate(Path segment, Map<Path, Long> offsets) {
+        writeLock.lock();
+        try {
+            Generation current = records;
+            List<byte[]> relocated = new ArrayList<>();
+            offsets.forEach((path, segmentOffset) -> {
+                String original = relativize(path);
+
+                // The latest record of every request that refers to the file, then the latest record of the path,
+                // so the path keeps resolving to the same request after the move
+                Set<Integer> affected = new LinkedHashSet<>();
+                for (String requestId : current.requestIdsByPath.getOrDefault(original, Set.of())) {
+                    Integer offset = current.offsetByRequestId.get(requestId);
+                    if (offset != null && current.keysAt(offset).path().equals(original)) {
+                        affected.add(offset);
+                    }
+                }
+                Integer byPath = current.offsetByPath.get(original);
+                if (byPath != null) {
+                    affected.remove(byPath);
+                    affected.add(byPath);
+                }
+
+                for (Integer offset : affected) {
+                    StoredFile packed = current.decode(offset).toBuilder()
+                            .path(segment)
+                            .offset(segmentOffset)
+                            .build();
+                    relocated.add(encode(packed, original, (byte) 0));
+                }
+            });
+            relocated.forEach(this::append);
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    private void append(byte[] record) {
+        writeLock.lock();
+        try {
+            if ((long) endOffset + record.length > Integer.MAX_VALUE && deadBytes > 0) {
+                // Reclaim the space of dead records before giving up on a full log
+                compact();
+            }
+            ensureCapacity((long) endOffset + record.length);
+            Generation current = records;
+            int offset = endOffset;
+            current.buffer.put(offset, record);
+            endOffset += record.length;
+            current.buffer.putLong(END_OFFSET_POSITION, endOffset);
+            apply(current, offset);
+            compactIfNeeded();
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to write storage index: " + indexFile, e);
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    public boolean contains(Path path) {
+        return records.offsetByPath.containsKey(relativize(path));
+    }
+
+    public Optional<StoredFile> findByRequestId(String requestId) {
+        Generation current = records;
+        return Optional.ofNullable(current.offsetByRequestId.get(requestId)).map(current::decode);
+    }
+
+    public Optional<StoredFile> findByPath(Path path) {
+        Generation current = records;
+        return Optional.ofNullable(current.offsetByPath.get(relativize(path))).map(current::decode);
+    }
+
+    public Optional<StoredFile> findLatestByFilename(String filename) {
+        Generation current = records;
+        ConcurrentNavigableMap<String, Integer> matches = current.offsetByFilename.subMap(
+                filename + FILENAME_KEY_SEPARATOR, true, filename + (char) (FILENAME_KEY_SEPARATOR + 1), false);
+        return matches.isEmpty() ? Optional.empty() : Optional.of(current.decode(matches.lastEntry().getValue()));
+    }
+
+    public List<StoredFile> findByFilenamePrefix(String prefix, int limit) {
+        Generation current = records;
+        List<StoredFile> result = new ArrayList<>();
+        for (Integer offset : current.offsetByFilename.tailMap(prefix, true).values()) {
+            StoredFile storedFile = current.decode(offset);
+            if (result.size() >= limit || !storedFile.getFilename().startsWith(prefix)) {
+                break;
+            }
+            result.add(storedFile);
+        }
+        return result;
+    }
+
+    public Optional<LocalDate> getCheckpoint() {
+        long epochDay = records.buffer.getLong(CHECKPOINT_POSITION);
+        return epochDay == 0 ? Optional.empty() : Optional.of(LocalDate.ofEpochDay(epochDay));
+    }
+
+    public void setCheckpoint(LocalDate date) {
+        writeLock.lock();
+        try {
+            records.buffer.putLong(CHECKPOINT_POSITION, date.toEpochDay());
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * Computes the SHA-256 hash of a file by mapping it, so the content is never copied onto the heap.
+     */
+    public static String hash(Path file) throws IOException {
+        try (FileChannel source = FileChannel.open(file, StandardOpenOption.READ)) {
+            MessageDigest digest = newDigest();
+            long size = source.size();
+            long position = 0;
+            while (position < size) {
+                long chunk = Math.min(size - position, Integer.MAX_VALUE);
+                digest.update(source.map(FileChannel.MapMode.READ_ONLY, position, chunk));
+                position += chunk;
+            }
+            return HexFormat.of().formatHex(digest.digest());
+        }
+    }
+
+    /**
+     * Creates a digest for the content hashes kept in the index.
+     */
+    public static MessageDigest newDigest() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    private void ensureCapacity(long required) throws IOException {
+        Generation current = records;
+        if (required <= current.buffer.capacity()) {
+            return;
+        }
+        if (required > Integer.MAX_VALUE) {
+            throw new IOException("Storage index is full: " + indexFile);
+        }
+        long capacity = Math.min(Math.max((long) current.buffer.capacity() * 2, required), Integer.MAX_VALUE);
+        current.buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, capacity);
+    }
+
+    /**
+     * Points the lookup keys at a new record, or drops the file a tombstone refers to.
+     */
+    private void apply(Generation target, int offset) {
+        Keys keys = target.keysAt(offset);
+        if (keys.tombstone()) {
+            unregister(target, keys.path());
+            deadBytes += target.buffer.getInt(offset);
+            return;
+        }
+
+        Integer previousByPath = target.offsetByPath.put(keys.path(), offset);
+        Integer previousByRequestId = null;
+        if (keys.requestId() != null) {
+            previousByRequestId = target.offsetByRequestId.put(keys.requestId(), offset);
+            target.requestIdsByPath.computeIfAbsent(keys.path(), path -> new HashSet<>()).add(keys.requestId());
+        }
+        target.offsetByFilename.put(filenameKey(keys.filename(), offset), offset);
+        release(target, previousByPath);
+        if (!Objects.equals(previousByRequestId, previousByPath)) {
+            release(target, previousByRequestId);
+        }
+    }
+
+    private void unregister(Generation target, String path) {
+        Set<Integer> dropped = new HashSet<>();
+        Optional.ofNullable(target.offsetByPath.remove(path)).ifPresent(dropped::add);
+        for (String requestId : Optional.ofNullable(target.requestIdsByPath.remove(path)).orElse(Set.of())) {
+            Integer offset = target.offsetByRequestId.get(requestId);
+            if (offset != null && target.keysAt(offset).path().equals(path)) {
+                target.offsetByRequestId.remove(requestId);
+                dropped.add(offset);
+            }
+        }
+        dropped.forEach(offset -> release(target, offset));
+    }
+
+    /**
+     * Accounts for a record that lost one of its keys, and counts it as dead once no key points at it.
+     */
+    private void release(Generation target, Integer offset) {
+        if (offset == null) {
+            return;
+        }
+        Keys keys = target.keysAt(offset);
+        Integer byRequestId = keys.requestId() != null ? target.offsetByRequestId.get(keys.requestId()) : null;
+        if (keys.requestId() != null && (byRequestId == null || !target.keysAt(byRequestId).path().equals(keys.path()))) {
+            Set<String> requestIds = target.requestIdsByPath.get(keys.path());
+            if (requestIds != null && requestIds.remove(keys.requestId()) && requestIds.isEmpty()) {
+                target.requestIdsByPath.remove(keys.path());
+            }
+        }
+        if (!offset.equals(target.offsetByPath.get(keys.path())) && !offset.equals(byRequestId)) {
+            target.offsetByFilename.remove(filenameKey(keys.filename(), offset));
+            deadBytes += target.buffer.getInt(offset);
+        }
+    }
+
+    private void compactIfNeeded() {
+        if (deadBytes < compactionMinDeadBytes || deadBytes < (endOffset - HEADER_BYTES) * COMPACTION_DEAD_RATIO) {
+            return;
+        }
+        try {
+            compact();
+        } catch (IOException e) {
+            log.warn("Failed to compact storage index {}", indexFile, e);
+        }
+    }
+
+    /**
+     * Rewrites the log with only the live records, kept in their original order so that replaying them rebuilds
+     * the same lookups. Readers still holding the previous generation keep reading its mapping until they are done.
+     */
+    private void compact() throws IOException {
+        Generation source = records;
+        SortedSet<Integer> live = new TreeSet<>(source.offsetByPath.values());
+        live.addAll(source.offsetByRequestId.values());
+        int previousEndOffset = endOffset;
+
+        Path compacted = compactedFile();
+        try (FileChannel target = FileChannel.open(compacted, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+                StandardOpenOption.WRITE)) {
+            long position = HEADER_BYTES;
+            for (int offset : live) {
+                ByteBuffer record = source.buffer.slice(offset, source.buffer.getInt(offset));
+                while (record.hasRemaining()) {
+                    position += target.write(record, position);
+                }
+            }
+            ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES)
+                    .putLong(END_OFFSET_POSITION, position)
+                    .putLong(CHECKPOINT_POSITION, source.buffer.getLong(CHECKPOINT_POSITION));
+            target.write(header, 0);
+            target.force(true);
+        }
+        Files.move(compacted, indexFile, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+
+        FileChannel previous = channel;
+        channel = FileChannel.open(indexFile, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        records = load(channel);
+        previous.close();
+        log.info("Compacted storage index {} from {} to {} bytes", indexFile, previousEndOffset, endOffset);
+    }
+
+    private Path compactedFile() {
+        return indexFile.resolveSibling(indexFile.getFileName() + ".compact");
+    }
+
+    private byte[] encode(StoredFile storedFile, String originalPath, byte extraFlags) {
+        byte[] requestId = bytes(storedFile.getRequestId());
+        byte[] filename = bytes(storedFile.getFilename());
+        byte[] path = bytes(relativize(storedFile.getPath()));
+        byte[] original = bytes(originalPath);
+        boolean packed = storedFile.getOffset() != 0 || originalPath != null;
+        int length = RECORD_HEADER_BYTES
+                + 3 * Integer.BYTES + length(requestId) + length(filename) + length(path)
+                + Long.BYTES + Long.BYTES + 1 + HASH_BYTES
+                + (packed ? Long.BYTES + Integer.BYTES + length(original) : 0);
+
+        ByteBuffer record = ByteBuffer.allocate(length);
+        record.putInt(length);
+        record.putInt(0);
+        putString(record, requestId);
+        putString(record, filename);
+        putString(record, path);
+        record.putLong(storedFile.getSize());
+        record.putLong(storedFile.getStoredAt().atZone(ZONE).toInstant().toEpochMilli());
+        byte flags = (byte) ((storedFile.getContentHash() != null ? FLAG_HASH : 0) | (packed ? FLAG_PACKED : 0) | extraFlags);
+        record.put(flags);
+        record.put(storedFile.getContentHash() != null ? HexFormat.of().parseHex(storedFile.getContentHash()) : new byte[HASH_BYTES]);
+        if (packed) {
+            record.putLong(storedFile.getOffset());
+            putString(record, original);
+        }
+        record.putInt(Integer.BYTES, checksum(record, 0, length));
+        return record.array();
+    }
+
+    private byte[] tombstone(String path) {
+        return encode(StoredFile.builder()
+                .path(basePath.resolve(path))
+                .storedAt(LocalDateTime.now())
+                .build(), null, FLAG_TOMBSTONE);
+    }
+
+    private static int checksum(ByteBuffer source, int offset, int length) {
+        CRC32C crc = new CRC32C();
+        crc.update(source.slice(offset + RECORD_HEADER_BYTES, length - RECORD_HEADER_BYTES));
+        return (int) crc.getValue();
+    }
+
+    private String relativize(Path path) {
+        return basePath.relativize(path.toAbsolutePath().normalize()).toString();
+    }
+
+    private static String filenameKey(String filename, int offset) {
+        return filename + FILENAME_KEY_SEPARATOR + String.format("%010d", offset);
+    }
+
+    private static byte[] bytes(String value) {
+        return value == null ? null : value.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static int length(byte[] value) {
+        return value == null ? 0 : value.length;
+    }
+
+    private static void putString(ByteBuffer record, byte[] value) {
+        if (value == null) {
+            record.putInt(-1);
+            return;
+        }
+        record.putInt(value.length);
+        record.put(value);
+    }
+
+    private static String getString(ByteBuffer record) {
+        int length = record.getInt();
+        if (length < 0) {
+            return null;
+        }
+        byte[] value = new byte[length];
+        record.get(value);
+        return new String(value, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * The lookup keys of a record; {@code path} is the original path for packed files.
+     */
+    private record Keys(String requestId, String filename, String path, boolean tombstone) {
+    }
+
+    /**
+     * A mapped log together with the lookups that point into it. Compaction replaces both at once, so a reader
+     * never resolves an offset against the wrong log.
+     */
+    private final class Generation {
+
+        private final Map<String, Integer> offsetByRequestId = new ConcurrentHashMap<>();
+        private final Map<String, Integer> offsetByPath = new ConcurrentHashMap<>();
+        private final ConcurrentSkipListMap<String, Integer> offsetByFilename = new ConcurrentSkipListMap<>();
+        // Only used by writers, to find the requests a tombstone or a relocation affects
+        private final Map<String, Set<String>> requestIdsByPath = new HashMap<>();
+        private volatile MappedByteBuffer buffer;
+
+        private Generation(MappedByteBuffer buffer) {
+            this.buffer = buffer;
+        }
+
+        private StoredFile decode(int offset) {
+            ByteBuffer record = buffer.duplicate();
+            record.position(offset + RECORD_HEADER_BYTES);
+            String requestId = getString(record);
+            String filename = getString(record);
+            String path = getString(record);
+            long size = record.getLong();
+            long storedAt = record.getLong();
+            byte flags = record.get();
+            byte[] hash = new byte[HASH_BYTES];
+            record.get(hash);
+            long fileOffset = (flags & FLAG_PACKED) != 0 ? record.getLong() : 0;
+
+            return StoredFile.builder()
+                    .requestId(requestId)
+                    .filename(filename)
+                    .path(basePath.resolve(path))
+                    .size(size)
+                    .offset(fileOffset)
+                    .contentHash((flags & FLAG_HASH) != 0 ? HexFormat.of().formatHex(hash) : null)
+                    .storedAt(LocalDateTime.ofInstant(Instant.ofEpochMilli(storedAt), ZONE))
+                    .build();
+        }
+
+        private Keys keysAt(int offset) {
+            ByteBuffer record = buffer.duplicate();
+            record.position(offset + RECORD_HEADER_BYTES);
+            String requestId = getString(record);
+            String filename = getString(record);
+            String path = getString(record);
+            record.position(record.position() + 2 * Long.BYTES);
+            byte flags = record.get();
+            if ((flags & FLAG_PACKED) != 0) {
+                record.position(record.position() + HASH_BYTES + Long.BYTES);
+                path = getString(record);
+            }
+            return new Keys(requestId, filename, path, (flags & FLAG_TOMBSTONE) != 0);
+        }
+    }
+}
@@ -0,0 +1,120 @@
+package br.com.gerasaber.infrastructure.adapter;
+
+import br.com.gerasaber.domain.port.IObjectStorePort;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.OptionalLong;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+/**
+ * File system implementation of the object store port, standing in for an S3-compatible store.
+ * Uploads follow the multipart protocol of such stores: files larger than {@code storage.cold.part-size} are
+ * written as parts in parallel into a staging object, which is published with an atomic rename once every part
+ * has been written, so readers never see a partial object. Parts run on the storage executor, whose
+ * {@code storage.cold.upload-parallelism} threads bound the number of parts written at once.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "storage.type", havingValue = "tiered")
+public class FileSystemObjectStoreAdapter implements IObjectStorePort {
+    
+    private static final String STAGING_DIRECTORY = ".staging";
+    
+    @Qualifier("storageExecutor")
+    private final ThreadPoolTaskExecutor storageExecutor;
+    
+    @Value("${storage.cold.path:/var/app/cold}")
+    private String coldStoragePath;
+    
+    @Value("${storage.cold.part-size:8MB}")
+    private DataSize partSize;
+    
+    private Path basePath;
+    private Path stagingPath;
+    
+    @PostConstruct
+    void open() throws IOException {
+        basePath = Files.createDirectories(Paths.get(coldStoragePath)).toAbsolutePath().normalize();
+        stagingPath = Files.createDirectories(basePath.resolve(STAGING_DIRECTORY));
+        log.info("File system object store opened at {}", basePath);
+    }
+    
+    @Override
+    public void putObject(String key, Path source) throws IOException {
+        Path target = resolve(key);
+        Files.createDirectories(target.getParent());
+        Path staged = Files.createTempFile(stagingPath, "upload-", ".part");
+        
+        try {
+            long size = Files.size(source);
+            List<CompletableFuture<Void>> parts = new ArrayList<>();
+            for (long offset = 0; offset < size; offset += partSize.toBytes()) {
+                long position = offset;
+                long length = Math.min(partSize.toBytes(), size - offset);
+                parts.add(CompletableFuture.runAsync(() -> uploadPart(source, staged, position, length), storageExecutor));
+            }
+            CompletableFuture.allOf(parts.toArray(CompletableFuture[]::new)).join();
+            
+            try (FileChannel channel = FileChannel.open(staged, StandardOpenOption.WRITE)) {
+                channel.force(true);
+            }
+            Files.move(staged, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            log.debug("Uploaded object {} ({} bytes in {} parts)", key, size, parts.size());
+        } catch (CompletionException e) {
+            throw e.getCause() instanceof UncheckedIOException io ? io.getCause() : new IOException("Failed to upload object: " + key, e.getCause());
+        } finally {
+            Files.deleteIfExists(staged);
+        }
+    }
+    
+    @Override
+    public void getObject(String key, Path target) throws IOException {
+        Files.copy(resolve(key), target, StandardCopyOption.REPLACE_EXISTING);
+    }
+    
+    @Override
+    public OptionalLong sizeOf(String key) throws IOException {
+        Path object = resolve(key);
+        return Files.isRegularFile(object) ? OptionalLong.of(Files.size(object)) : OptionalLong.empty();
+    }
+    
+    private void uploadPart(Path source, Path staged, long position, long length) {
+        try (FileChannel in = FileChannel.open(source, StandardOpenOption.READ);
+             FileChannel out = FileChannel.open(staged, StandardOpenOption.WRITE)) {
+            long copied = 0;
+            while (copied < length) {
+                copied += in.transferTo(position + copied, length - copied, out.position(position + copied));
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+    
+    private Path resolve(String key) throws IOException {
+        Path object = basePath.resolve(key).normalize();
+        if (!object.startsWith(basePath) || object.startsWith(stagingPath)) {
+            throw new IOException("Invalid object key: " + key);
+        }
+        return object;
+    }
+}
@@ -1,43 +1,88 @@
 package br.com.gerasaber.infrastructure.adapter;
 
+import br.com.gerasaber.domain.entity.StoragePartition;
+import br.com.gerasaber.domain.entity.StoredFile;
 import br.com.gerasaber.domain.port.IFileStoragePort;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.stereotype.Component;
 
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
+import java.io.InputStream;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.time.ZoneId;
 import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.stream.Stream;
 
 /**
  * Local file system implementation of the file storage port.
  * Stores files in the configured local directory with timestamp-based organization.
+ * Every stored file is recorded in a {@link FileStorageIndex}, which is caught up on startup by scanning
+ * only the date partitions that are not older than the index checkpoint. Files are written through a
+ * {@link StorageWriter} with the durability level set by {@code storage.durability}.
  */
 @Slf4j
 @Component
 @RequiredArgsConstructor
+@ConditionalOnProperty(name = "storage.type", havingValue = "local", matchIfMissing = true)
 public class LocalFileStorageAdapter implements IFileStoragePort {
     
+    static final DateTimeFormatter PARTITION_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd");
+    private static final String INDEX_FILE = ".index/storage-index.dat";
+    private static final String STAGING_DIRECTORY = ".staging";
+    
     @Value("${storage.local-path:/var/app/files}")
-    private String baseStoragePath;
+    String baseStoragePath;
+    
+    @Value("${storage.durability:fsync}")
+    private String durability;
+    
+    FileStorageIndex index;
+    StorageWriter writer;
     
-    @Value("${storage.temp-path:/tmp/middleware/files}")
-    private String tempStoragePath;
+    @PostConstruct
+    void openIndex() throws IOException {
+        Path basePath = Paths.get(baseStoragePath);
+        writer = new StorageWriter(basePath.resolve(STAGING_DIRECTORY), StorageWriter.Durability.valueOf(durability.toUpperCase(Locale.ROOT)));
+        writer.open();
+        index = new FileStorageIndex(basePath, basePath.resolve(INDEX_FILE));
+        index.open();
+        
+        int recovered = scanPartitionsSince(basePath, index.getCheckpoint().orElse(LocalDate.MIN));
+        index.setCheckpoint(LocalDate.now());
+        log.info("Storage index opened with {} files ({} recovered from partition scan)", index.size(), recovered);
+    }
+    
+    @PreDestroy
+    void closeIndex() throws IOException {
+        index.close();
+    }
     
     @Override
     public Path saveFile(String filename, byte[] content) {
         try {
-            Path basePath = Paths.get(baseStoragePath);
-            ensureDirectoryExists(basePath);
-            
-            Path filePath = basePath.resolve(filename);
-            Files.write(filePath, content);
+            Path filePath = Paths.get(baseStoragePath).resolve(filename);
+            writer.write(new ByteArrayInputStream(content), filePath);
             
             log.info("File saved successfully: {}", filePath);
             return filePath;
@@ -50,13 +95,16 @@ public class LocalFileStorageAdapter implements IFileStoragePort {
     @Override
     public Optional<Path> findFile(String filename) {
         try {
-            Path basePath = Paths.get(baseStoragePath);
-            Path filePath = basePath.resolve(filename);
+            Path basePath = Paths.get(baseStoragePath).toAbsolutePath().normalize();
+            Path filePath = basePath.resolve(filename).normalize();
             
-            if (Files.exists(filePath)) {
+            if (filePath.startsWith(basePath) && Files.exists(filePath)) {
                 return Optional.of(filePath);
             }
-            return Optional.empty();
+            
+            // Fall back to the most recent file stored under this original name, unless it only survives
+            // inside a segment, which a caller expecting a whole file cannot read
+            return index.findLatestByFilename(filename).filter(storedFile -> !isPacked(storedFile)).map(StoredFile::getPath);
         } catch (Exception e) {
             log.error("Failed to find file: {}", filename, e);
             return Optional.empty();
@@ -65,29 +113,282 @@ public class LocalFileStorageAdapter implements IFileStoragePort {
     
     @Override
     public Path saveFileWithTimestamp(String filename, byte[] content) {
+        return saveFileWithTimestamp(filename, new ByteArrayInputStream(content));
+    }
+    
+    @Override
+    public Path saveFileWithTimestamp(String filename, InputStream content) {
+        return storeFile(null, filename, content).getPath();
+    }
+    
+    @Override
+    public StoredFile storeFile(String requestId, String filename, InputStream content) {
         try {
-            String timestamp = LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyy-MM-dd"));
+            String timestamp = LocalDateTime.now().format(PARTITION_FORMAT);
             Path basePath = Paths.get(baseStoragePath, timestamp);
-            ensureDirectoryExists(basePath);
             
             // Generate unique filename to avoid conflicts
             String uniqueFilename = generateUniqueFilename(filename);
             Path filePath = basePath.resolve(uniqueFilename);
             
-            Files.write(filePath, content);
+            MessageDigest digest = FileStorageIndex.newDigest();
+            long size = writer.write(content, filePath, digest);
             
-            log.info("File saved with timestamp: {}", filePath);
-            return filePath;
+            StoredFile storedFile = StoredFile.builder()
+                    .requestId(requestId)
+                    .filename(filename)
+                    .path(filePath)
+                    .size(size)
+                    .contentHash(HexFormat.of().formatHex(digest.digest()))
+                    .storedAt(LocalDateTime.now())
+                    .build();
+            index.add(storedFile);
+            
+            log.info("File saved with timestamp: {} ({} bytes)", filePath, size);
+            return storedFile;
         } catch (IOException e) {
             log.error("Failed to save file with timestamp: {}", filename, e);
             throw new RuntimeException("Failed to save file with timestamp: " + filename, e);
         }
     }
     
-    private void ensureDirectoryExists(Path path) throws IOException {
-        if (!Files.exists(path)) {
-            Files.createDirectories(path);
-            log.debug("Created directory: {}", path);
+    @Override
+    public StoredFile linkFile(String requestId, StoredFile storedFile) {
+        StoredFile linked = storedFile.toBuilder()
+                .requestId(requestId)
+                .storedAt(LocalDateTime.now())
+                .build();
+        index.add(linked);
+        log.debug("Linked file {} to request {}", storedFile.getPath(), requestId);
+        return linked;
+    }
+    
+    @Override
+    public Optional<StoredFile> findByRequestId(String requestId) {
+        return index.findByRequestId(requestId);
+    }
+    
+    @Override
+    public Optional<StoredFile> findByPath(String relativePath) {
+        Path basePath = Paths.get(baseStoragePath).toAbsolutePath().normalize();
+        Path filePath = basePath.resolve(relativePath).normalize();
+        if (!filePath.startsWith(basePath) || isReserved(basePath.relativize(filePath))) {
+            return Optional.empty();
+        }
+        
+        // Packed files stay indexed under their original path; files not known to the index are
+        // still served, just without a content hash
+        Optional<StoredFile> indexed = index.findByPath(filePath);
+        if (indexed.isPresent()) {
+            return indexed;
+        }
+        return Files.isRegularFile(filePath) && !PartitionSegment.isSegment(filePath)
+                ? describeUnindexed(filePath)
+                : Optional.empty();
+    }
+    
+    @Override
+    public List<StoredFile> findByFilenamePrefix(String prefix, int limit) {
+        return index.findByFilenamePrefix(prefix, limit);
+    }
+    
+    @Override
+    public List<StoragePartition> listPartitions() {
+        List<StoragePartition> result = new ArrayList<>();
+        try (Stream<Path> partitions = Files.list(Paths.get(baseStoragePath))) {
+            for (Path partition : partitions.filter(Files::isDirectory).sorted().toList()) {
+                Optional<LocalDate> date = parsePartitionDate(partition);
+                if (date.isEmpty()) {
+                    continue;
+                }
+                int fileCount = 0;
+                long size = 0;
+                try (Stream<Path> files = Files.list(partition)) {
+                    for (Path file : files.filter(Files::isRegularFile).toList()) {
+                        fileCount++;
+                        size += Files.size(file);
+                    }
+                }
+                result.add(StoragePartition.builder().date(date.get()).fileCount(fileCount).size(size).build());
+            }
+        } catch (IOException e) {
+            log.error("Failed to list storage partitions", e);
+            throw new RuntimeException("Failed to list storage partitions", e);
+        }
+        return result;
+    }
+    
+    @Override
+    public void deletePartition(LocalDate date) {
+        Path partition = partitionPath(date);
+        try {
+            // A partition that was moved to the cold tier only has index records left
+            if (Files.exists(partition)) {
+                try (Stream<Path> paths = Files.walk(partition)) {
+                    for (Path path : paths.sorted(Comparator.reverseOrder()).toList()) {
+                        Files.deleteIfExists(path);
+                    }
+                }
+            }
+            index.removeDirectory(partition);
+            writer.forgetDirectory(partition);
+            log.info("Deleted storage partition {}", partition);
+        } catch (IOException e) {
+            log.error("Failed to delete storage partition: {}", partition, e);
+            throw new RuntimeException("Failed to delete storage partition: " + partition, e);
+        }
+    }
+    
+    @Override
+    public void archivePartition(LocalDate date, Path archiveDirectory) {
+        Path partition = partitionPath(date);
+        Path target = archiveDirectory.resolve(partition.getFileName());
+        try {
+            Files.createDirectories(archiveDirectory);
+            try {
+                Files.move(partition, target, StandardCopyOption.ATOMIC_MOVE);
+            } catch (IOException e) {
+                // Directories cannot be renamed across file systems, so the files are copied one by one
+                try (Stream<Path> files = Files.list(partition)) {
+                    Files.createDirectories(target);
+                    for (Path file : files.filter(Files::isRegularFile).toList()) {
+                        Files.copy(file, target.resolve(file.getFileName()), StandardCopyOption.REPLACE_EXISTING);
+                    }
+                }
+                deletePartition(date);
+            }
+            index.removeDirectory(partition);
+            writer.forgetDirectory(partition);
+            log.info("Archived storage partition {} to {}", partition, target);
+        } catch (IOException e) {
+            log.error("Failed to archive storage partition: {}", partition, e);
+            throw new RuntimeException("Failed to archive storage partition: " + partition, e);
+        }
+    }
+    
+    @Override
+    public int compactPartition(LocalDate date, long maxFileSize) {
+        Path partition = partitionPath(date);
+        try {
+            List<Path> smallFiles;
+            try (Stream<Path> files = Files.list(partition)) {
+                smallFiles = files.filter(Files::isRegularFile)
+                        .filter(file -> !PartitionSegment.isSegment(file))
+                        .filter(file -> file.toFile().length() <= maxFileSize)
+                        .sorted()
+                        .toList();
+            }
+            if (smallFiles.size() < 2) {
+                return 0;
+            }
+            
+            // The originals are only deleted once the segment is in place and the index points into it
+            Path basePath = Paths.get(baseStoragePath).toAbsolutePath().normalize();
+            Path segment = partition.resolve("pack-" + UUID.randomUUID() + PartitionSegment.SUFFIX);
+            Map<Path, Long> offsets = PartitionSegment.write(segment, basePath.resolve(STAGING_DIRECTORY), basePath,
+                    smallFiles.stream().map(file -> file.toAbsolutePath().normalize()).toList());
+            index.relocate(segment, offsets);
+            for (Path file : offsets.keySet()) {
+                Files.deleteIfExists(file);
+            }
+            
+            log.info("Packed {} files of storage partition {} into {}", offsets.size(), partition, segment.getFileName());
+            return offsets.size();
+        } catch (IOException e) {
+            log.error("Failed to compact storage partition: {}", partition, e);
+            throw new RuntimeException("Failed to compact storage partition: " + partition, e);
+        }
+    }
+    
+    /**
+     * Tells whether a path relative to the storage root belongs to the adapter's own bookkeeping.
+     */
+    boolean isReserved(Path relativePath) {
+        return relativePath.startsWith(".index") || relativePath.startsWith(STAGING_DIRECTORY);
+    }
+    
+    /**
+     * Tells whether a stored file only exists as a range of a partition segment.
+     */
+    static boolean isPacked(StoredFile storedFile) {
+        return storedFile.getOffset() != 0 || PartitionSegment.isSegment(storedFile.getPath());
+    }
+    
+    private Optional<StoredFile> describeUnindexed(Path filePath) {
+        try {
+            return Optional.of(StoredFile.builder()
+                    .filename(filePath.getFileName().toString())
+                    .path(filePath)
+                    .size(Files.size(filePath))
+                    .storedAt(LocalDateTime.ofInstant(Files.getLastModifiedTime(filePath).toInstant(), ZoneId.systemDefault()))
+                    .build());
+        } catch (IOException e) {
+            log.warn("Failed to read attributes of file: {}", filePath, e);
+            return Optional.empty();
+        }
+    }
+    
+    /**
+     * Indexes the files of every partition from the checkpoint on that the index does not know yet.
+     * Recovered files are not hashed, so even a full rescan only reads directory entries; their downloads
+     * fall back to a weak ETag.
+     */
+    private int scanPartitionsSince(Path basePath, LocalDate checkpoint) throws IOException {
+        int recovered = 0;
+        try (Stream<Path> partitions = Files.list(basePath)) {
+            for (Path partition : partitions.filter(Files::isDirectory).toList()) {
+                Optional<LocalDate> date = parsePartitionDate(partition);
+                if (date.isEmpty() || date.get().isBefore(checkpoint)) {
+                    continue;
+                }
+                try (Stream<Path> files = Files.list(partition)) {
+                    for (Path file : files.filter(Files::isRegularFile).toList()) {
+                        if (PartitionSegment.isSegment(file)) {
+                            recovered += recoverSegment(basePath, file);
+                        } else if (!index.contains(file)) {
+                            index.add(StoredFile.builder()
+                                    .filename(file.getFileName().toString())
+                                    .path(file)
+                                    .size(Files.size(file))
+                                    .storedAt(LocalDateTime.ofInstant(Files.getLastModifiedTime(file).toInstant(), ZoneId.systemDefault()))
+                                    .build());
+                            recovered++;
+                        }
+                    }
+                }
+            }
+        }
+        return recovered;
+    }
+    
+    private int recoverSegment(Path basePath, Path segment) throws IOException {
+        int recovered = 0;
+        LocalDateTime storedAt = LocalDateTime.ofInstant(Files.getLastModifiedTime(segment).toInstant(), ZoneId.systemDefault());
+        for (PartitionSegment.Entry entry : PartitionSegment.read(segment)) {
+            Path originalPath = basePath.resolve(entry.originalPath());
+            if (!index.contains(originalPath)) {
+                index.addPacked(StoredFile.builder()
+                        .filename(originalPath.getFileName().toString())
+                        .path(segment)
+                        .offset(entry.offset())
+                        .size(entry.size())
+                        .storedAt(storedAt)
+                        .build(), originalPath);
+                recovered++;
+            }
+        }
+        return recovered;
+    }
+    
+    private Path partitionPath(LocalDate date) {
+        return Paths.get(baseStoragePath, date.format(PARTITION_FORMAT));
+    }
+    
+    Optional<LocalDate> parsePartitionDate(Path partition) {
+        try {
+            return Optional.of(LocalDate.parse(partition.getFileName().toString(), PARTITION_FORMAT));
+        } catch (DateTimeParseException e) {
+            return Optional.empty();
         }
     }
     
@@ -0,0 +1,122 @@
+package br.com.gerasaber.infrastructure.adapter;
+
+import br.com.gerasaber.domain.port.IPipelineMetricsPort;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Micrometer implementation of the pipeline metrics port.
+ * Stage timers publish percentile histograms so latency percentiles can be aggregated across instances,
+ * and byte summaries are tagged by a fixed set of file types to keep tag cardinality bounded.
+ */
+@Component
+@RequiredArgsConstructor
+public class MicrometerPipelineMetricsAdapter implements IPipelineMetricsPort {
+    
+    private static final String STAGE_DURATION = "gerasaber.pipeline.stage.duration";
+    private static final String STAGE_IN_FLIGHT = "gerasaber.pipeline.stage.in.flight";
+    private static final String FILE_SIZE = "gerasaber.pipeline.file.size";
+    private static final String CACHE_REQUESTS = "gerasaber.result.cache.requests";
+    private static final String WEBHOOK_DUPLICATES = "gerasaber.webhook.duplicates";
+    private static final String UPLOAD_REJECTIONS = "gerasaber.upload.rejected";
+    private static final Set<String> KNOWN_FILE_TYPES = Set.of("pdf", "doc", "docx", "txt", "md", "rtf", "odt", "html");
+    private static final String OTHER_FILE_TYPE = "other";
+    
+    private final MeterRegistry meterRegistry;
+    
+    private final Map<Stage, AtomicInteger> inFlight = new EnumMap<>(Stage.class);
+    private final Map<String, Timer> timers = new ConcurrentHashMap<>();
+    private final Map<String, DistributionSummary> summaries = new ConcurrentHashMap<>();
+    
+    @PostConstruct
+    void registerGauges() {
+        // Gauges hold their state weakly, so the counters are kept here for the lifetime of the adapter
+        for (Stage stage : Stage.values()) {
+            inFlight.put(stage, meterRegistry.gauge(STAGE_IN_FLIGHT, Tags.of("stage", tagValue(stage)), new AtomicInteger()));
+        }
+    }
+    
+    @Override
+    public long start(Stage stage) {
+        inFlight.get(stage).incrementAndGet();
+        return System.nanoTime();
+    }
+    
+    @Override
+    public void stop(Stage stage, long startNanos, Outcome outcome) {
+        inFlight.get(stage).decrementAndGet();
+        timers.computeIfAbsent(stage + ":" + outcome, key -> Timer.builder(STAGE_DURATION)
+                        .description("Time spent in each stage of the upload pipeline")
+                        .tag("stage", tagValue(stage))
+                        .tag("outcome", tagValue(outcome))
+                        .publishPercentileHistogram()
+                        .register(meterRegistry))
+                .record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+    }
+    
+    @Override
+    public void recordBytesIn(String filename, long bytes) {
+        summary("in", fileType(filename)).record(bytes);
+    }
+    
+    @Override
+    public void recordBytesGenerated(String filename, long bytes) {
+        summary("generated", fileType(filename)).record(bytes);
+    }
+    
+    @Override
+    public void recordBytesOut(String filename, long bytes) {
+        summary("out", fileType(filename)).record(bytes);
+    }
+    
+    @Override
+    public void recordCacheLookup(boolean hit) {
+        meterRegistry.counter(CACHE_REQUESTS, "result", hit ? "hit" : "miss").increment();
+    }
+    
+    @Override
+    public void recordWebhookDuplicate() {
+        meterRegistry.counter(WEBHOOK_DUPLICATES).increment();
+    }
+    
+    @Override
+    public void recordRejection(String tenant, Rejection reason) {
+        meterRegistry.counter(UPLOAD_REJECTIONS, "tenant", tenant, "reason", tagValue(reason)).increment();
+    }
+    
+    private DistributionSummary summary(String direction, String fileType) {
+        return summaries.computeIfAbsent(direction + ":" + fileType, key -> DistributionSummary.builder(FILE_SIZE)
+                .description("Size of files moving through the upload pipeline")
+                .baseUnit("bytes")
+                .tag("direction", direction)
+                .tag("file.type", fileType)
+                .publishPercentileHistogram()
+                .register(meterRegistry));
+    }
+    
+    private static String fileType(String filename) {
+        if (filename == null) {
+            return OTHER_FILE_TYPE;
+        }
+        int dot = filename.lastIndexOf('.');
+        String extension = dot < 0 ? "" : filename.substring(dot + 1).toLowerCase(Locale.ROOT);
+        return KNOWN_FILE_TYPES.contains(extension) ? extension : OTHER_FILE_TYPE;
+    }
+    
+    private static String tagValue(Enum<?> value) {
+        return value.name().toLowerCase(Locale.ROOT).replace('_', '.');
+    }
+}
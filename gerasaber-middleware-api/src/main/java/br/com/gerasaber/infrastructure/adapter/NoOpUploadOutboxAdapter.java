@@ -0,0 +1,39 @@
+package br.com.gerasaber.infrastructure.adapter;
+
+import br.com.gerasaber.domain.entity.UploadRequest;
+import br.com.gerasaber.domain.port.IUploadOutboxPort;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Outbox implementation used when the durable outbox is disabled.
+ * Accepted upload requests only live in memory until they are forwarded.
+ */
+@Component
+@ConditionalOnProperty(name = "upload.outbox.enabled", havingValue = "false")
+public class NoOpUploadOutboxAdapter implements IUploadOutboxPort {
+    
+    @Override
+    public void append(UploadRequest uploadRequest) {
+    }
+    
+    @Override
+    public List<UploadRequest> appendAll(List<UploadRequest> uploadRequests) {
+        return uploadRequests;
+    }
+    
+    @Override
+    public void acknowledge(String requestId) {
+    }
+    
+    @Override
+    public void deadLetter(String requestId, String reason) {
+    }
+    
+    @Override
+    public List<UploadRequest> recover() {
+        return List.of();
+    }
+}
@@ -0,0 +1,132 @@
+package br.com.gerasaber.infrastructure.adapter;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Segment file holding many small stored files of one partition.
+ * <p>
+ * The files are concatenated and followed by a footer listing the original path, offset and size of each one,
+ * then the entry count, the footer position and a magic number. The footer makes a segment self-describing,
+ * so the storage index can be rebuilt from a partition scan. Segments are written to a staging file and renamed
+ * into place, so a segment is either complete or absent.
+ */
+final class PartitionSegment {
+    
+    static final String SUFFIX = ".seg";
+    
+    private static final int MAGIC = 0x47534547;
+    private static final int TRAILER_BYTES = Integer.BYTES + Long.BYTES + Integer.BYTES;
+    
+    record Entry(Path originalPath, long offset, long size) {
+    }
+    
+    private PartitionSegment() {
+    }
+    
+    static boolean isSegment(Path file) {
+        return file.getFileName().toString().endsWith(SUFFIX);
+    }
+    
+    /**
+     * Packs files into a new segment.
+     * 
+     * @return the offset of each file in the segment, keyed by its path
+     */
+    static Map<Path, Long> write(Path segment, Path stagingDirectory, Path basePath, List<Path> files) throws IOException {
+        Map<Path, Long> offsets = new LinkedHashMap<>();
+        List<Entry> entries = new ArrayList<>();
+        Path staged = Files.createTempFile(stagingDirectory, "segment-", ".tmp");
+        try {
+            try (FileChannel target = FileChannel.open(staged, StandardOpenOption.WRITE)) {
+                long position = 0;
+                for (Path file : files) {
+                    try (FileChannel source = FileChannel.open(file, StandardOpenOption.READ)) {
+                        long size = source.size();
+                        long copied = 0;
+                        while (copied < size) {
+                            copied += source.transferTo(copied, size - copied, target);
+                        }
+                        entries.add(new Entry(basePath.relativize(file), position, size));
+                        offsets.put(file, position);
+                        position += size;
+                    }
+                }
+                writeFooter(target, position, entries);
+                target.force(false);
+            }
+            Files.move(staged, segment, StandardCopyOption.ATOMIC_MOVE);
+            return offsets;
+        } finally {
+            Files.deleteIfExists(staged);
+        }
+    }
+    
+    /**
+     * Reads the footer of a segment.
+     * 
+     * @return the files packed in the segment, with their original paths relative to the storage root
+     */
+    static List<Entry> read(Path segment) throws IOException {
+        try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.READ)) {
+            ByteBuffer trailer = ByteBuffer.allocate(TRAILER_BYTES);
+            readFully(channel, trailer, channel.size() - TRAILER_BYTES);
+            trailer.flip();
+            int count = trailer.getInt();
+            long footerStart = trailer.getLong();
+            if (trailer.getInt() != MAGIC) {
+                throw new IOException("Not a partition segment: " + segment);
+            }
+            
+            ByteBuffer footer = ByteBuffer.allocate((int) (channel.size() - TRAILER_BYTES - footerStart));
+            readFully(channel, footer, footerStart);
+            footer.flip();
+            List<Entry> entries = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                byte[] path = new byte[footer.getShort()];
+                footer.get(path);
+                entries.add(new Entry(Path.of(new String(path, StandardCharsets.UTF_8)), footer.getLong(), footer.getLong()));
+            }
+            return entries;
+        }
+    }
+    
+    private static void readFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, position + buffer.position()) < 0) {
+                throw new IOException("Truncated partition segment");
+            }
+        }
+    }
+    
+    private static void writeFooter(FileChannel target, long footerStart, List<Entry> entries) throws IOException {
+        int length = TRAILER_BYTES;
+        List<byte[]> paths = new ArrayList<>(entries.size());
+        for (Entry entry : entries) {
+            byte[] path = entry.originalPath().toString().getBytes(StandardCharsets.UTF_8);
+            paths.add(path);
+            length += Short.BYTES + path.length + 2 * Long.BYTES;
+        }
+        
+        ByteBuffer footer = ByteBuffer.allocate(length);
+        for (int i = 0; i < entries.size(); i++) {
+            footer.putShort((short) paths.get(i).length).put(paths.get(i));
+            footer.putLong(entries.get(i).offset()).putLong(entries.get(i).size());
+        }
+        footer.putInt(entries.size()).putLong(footerStart).putInt(MAGIC);
+        footer.flip();
+        while (footer.hasRemaining()) {
+            target.write(footer, footerStart + footer.position());
+        }
+    }
+}
@@ -0,0 +1,35 @@
+package br.com.gerasaber.infrastructure.adapter;
+
+import br.com.gerasaber.domain.port.ITextExtractionPort;
+import org.apache.pdfbox.Loader;
+import org.apache.pdfbox.io.IOUtils;
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.text.PDFTextStripper;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.file.Path;
+import java.util.Locale;
+
+/**
+ * PDFBox implementation of the text extraction port for PDF documents.
+ * The document is read through a buffered random-access file and PDFBox stream caches are kept in
+ * temporary files, so large PDFs are not loaded into the heap; text is written page by page.
+ */
+@Component
+public class PdfBoxTextExtractionAdapter implements ITextExtractionPort {
+    
+    @Override
+    public boolean supports(String filename, String contentType) {
+        return "application/pdf".equals(contentType)
+                || (filename != null && filename.toLowerCase(Locale.ROOT).endsWith(".pdf"));
+    }
+    
+    @Override
+    public void extractText(Path document, Writer target) throws IOException {
+        try (PDDocument pdf = Loader.loadPDF(document.toFile(), IOUtils.createTempFileOnlyStreamCache())) {
+            new PDFTextStripper().writeText(pdf, target);
+        }
+    }
+}
@@ -0,0 +1,262 @@
+package br.com.gerasaber.infrastructure.adapter;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Stream;
+
+/**
+ * Write engine for stored files.
+ * <p>
+ * Writes run on the caller's thread: the content is read from the caller's stream and the caller needs the stored
+ * path before it can answer, so handing the copy to another thread would only add a hand-off.
+ * The durability level decides what a write guarantees when it returns:
+ * <ul>
+ *     <li>{@link Durability#NONE} writes the target file in place; a reader or a crash may see it half written.</li>
+ *     <li>{@link Durability#FLUSH} writes the content through to the OS in a staging file and renames it into place
+ *     atomically, without forcing anything to disk. The file survives an application crash but not a power loss.</li>
+ *     <li>{@link Durability#FSYNC} also forces the staged content and the directory entry of the rename.</li>
+ * </ul>
+ * Each file's content has to be forced on its own, but directory syncs use group commit like the upload outbox:
+ * one writer syncs every directory renamed into before it started, on behalf of all writers waiting at that moment.
+ * Directories known to exist are cached so writes do not stat the filesystem every time.
+ * Callers that only know the target once the content has been read, like content-addressed storage, stage the
+ * file first and commit it with the same guarantees.
+ */
+@Slf4j
+final class StorageWriter {
+    
+    private static final long TRANSFER_CHUNK_SIZE = 8L * 1024 * 1024;
+    
+    enum Durability {
+        NONE,
+        FLUSH,
+        FSYNC
+    }
+    
+    private final Path stagingDirectory;
+    private final Durability durability;
+    private final Set<Path> knownDirectories = ConcurrentHashMap.newKeySet();
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition synced = lock.newCondition();
+    private final Set<Path> dirtyDirectories = new HashSet<>();
+    
+    private long writtenTickets;
+    private long durableTickets;
+    private boolean syncing;
+    
+    StorageWriter(Path stagingDirectory, Durability durability) {
+        this.stagingDirectory = stagingDirectory;
+        this.durability = durability;
+    }
+    
+    /**
+     * Creates the staging directory, deleting files staged by writes that never completed.
+     */
+    void open() throws IOException {
+        if (Files.exists(stagingDirectory)) {
+            try (Stream<Path> paths = Files.walk(stagingDirectory)) {
+                for (Path path : paths.sorted(Comparator.reverseOrder()).filter(path -> !path.equals(stagingDirectory)).toList()) {
+                    Files.deleteIfExists(path);
+                }
+            }
+        }
+        ensureDirectory(stagingDirectory);
+    }
+    
+    /**
+     * Writes a stream to a file, replacing the file if it exists. The stream is consumed but not closed.
+     * 
+     * @return the number of bytes written
+     */
+    long write(InputStream content, Path target) throws IOException {
+        return write(content, target, null);
+    }
+    
+    /**
+     * Writes a stream to a file like {@link #write(InputStream, Path)}, feeding the content to a digest on the way,
+     * so the file does not have to be read back to hash it.
+     * 
+     * @param digest the digest to update, or {@code null} to keep the kernel copy for file-backed streams
+     * @return the number of bytes written
+     */
+    long write(InputStream content, Path target, MessageDigest digest) throws IOException {
+        Path directory = target.toAbsolutePath().getParent();
+        if (durability == Durability.NONE) {
+            ensureDirectory(directory);
+            return writeInPlace(digest != null ? new DigestInputStream(content, digest) : content, target, directory);
+        }
+        
+        StagedFile staged = stage(content, digest);
+        try {
+            commit(staged.path(), target);
+            return staged.size();
+        } finally {
+            Files.deleteIfExists(staged.path());
+        }
+    }
+    
+    /**
+     * Writes a stream to a new file in the staging directory, for callers that only know the target once the
+     * content has been read. The staged content is forced with {@link Durability#FSYNC}; the caller either
+     * {@linkplain #commit commits} the file or deletes it.
+     * 
+     * @param digest the digest to update, or {@code null} to keep the kernel copy for file-backed streams
+     */
+    StagedFile stage(InputStream content, MessageDigest digest) throws IOException {
+        Path staged = Files.createTempFile(stagingDirectory, "write-", ".tmp");
+        try (FileChannel channel = FileChannel.open(staged, StandardOpenOption.WRITE)) {
+            long size = transfer(digest != null ? new DigestInputStream(content, digest) : content, channel);
+            if (durability == Durability.FSYNC) {
+                channel.force(false);
+            }
+            return new StagedFile(staged, size);
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(staged);
+            throw e;
+        }
+    }
+    
+    /**
+     * Renames a staged file into place, replacing the target if it exists, and with {@link Durability#FSYNC}
+     * waits until the rename is durable.
+     */
+    void commit(Path staged, Path target) throws IOException {
+        Path directory = target.toAbsolutePath().getParent();
+        ensureDirectory(directory);
+        try {
+            Files.move(staged, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (NoSuchFileException e) {
+            // The directory was removed behind the cache's back, e.g. by retention; recreate it once
+            forgetDirectory(directory);
+            ensureDirectory(directory);
+            Files.move(staged, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        }
+        
+        if (durability == Durability.FSYNC) {
+            syncDirectory(directory);
+        }
+    }
+    
+    private long writeInPlace(InputStream content, Path target, Path directory) throws IOException {
+        try (FileChannel channel = openInPlace(target, directory)) {
+            return transfer(content, channel);
+        }
+    }
+    
+    private FileChannel openInPlace(Path target, Path directory) throws IOException {
+        try {
+            return FileChannel.open(target, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                    StandardOpenOption.TRUNCATE_EXISTING);
+        } catch (NoSuchFileException e) {
+            // The directory was removed behind the cache's back, e.g. by retention; recreate it once
+            forgetDirectory(directory);
+            ensureDirectory(directory);
+            return FileChannel.open(target, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                    StandardOpenOption.TRUNCATE_EXISTING);
+        }
+    }
+    
+    void ensureDirectory(Path directory) throws IOException {
+        Path absolute = directory.toAbsolutePath().normalize();
+        if (knownDirectories.contains(absolute)) {
+            return;
+        }
+        if (!Files.isDirectory(absolute)) {
+            Files.createDirectories(absolute);
+            log.debug("Created directory: {}", absolute);
+        }
+        knownDirectories.add(absolute);
+    }
+    
+    /**
+     * Drops a directory, and any directory below it, from the cache after it has been deleted.
+     */
+    void forgetDirectory(Path directory) {
+        Path absolute = directory.toAbsolutePath().normalize();
+        knownDirectories.removeIf(known -> known.startsWith(absolute));
+    }
+    
+    private long transfer(InputStream content, FileChannel target) throws IOException {
+        // File-backed streams (e.g. container multipart temp files) are copied by the kernel
+        ReadableByteChannel source = content instanceof FileInputStream fileInputStream
+                ? fileInputStream.getChannel()
+                : Channels.newChannel(content);
+        
+        long position = 0;
+        long transferred;
+        while ((transferred = target.transferFrom(source, position, TRANSFER_CHUNK_SIZE)) > 0) {
+            position += transferred;
+        }
+        return position;
+    }
+    
+    private void syncDirectory(Path directory) throws IOException {
+        lock.lock();
+        try {
+            dirtyDirectories.add(directory);
+            long ticket = ++writtenTickets;
+            
+            while (durableTickets < ticket) {
+                if (syncing) {
+                    synced.awaitUninterruptibly();
+                    continue;
+                }
+                
+                // Become the leader and sync every directory renamed into so far on behalf of the waiting writers
+                syncing = true;
+                long target = writtenTickets;
+                List<Path> toSync = new ArrayList<>(dirtyDirectories);
+                dirtyDirectories.clear();
+                
+                boolean succeeded = false;
+                lock.unlock();
+                try {
+                    for (Path dirty : toSync) {
+                        try (FileChannel channel = FileChannel.open(dirty, StandardOpenOption.READ)) {
+                            channel.force(true);
+                        }
+                    }
+                    succeeded = true;
+                } finally {
+                    lock.lock();
+                    syncing = false;
+                    if (succeeded) {
+                        durableTickets = Math.max(durableTickets, target);
+                    } else {
+                        dirtyDirectories.addAll(toSync);
+                    }
+                    synced.signalAll();
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+    
+    /**
+     * A file written to the staging directory and the number of bytes in it.
+     */
+    record StagedFile(Path path, long size) {
+    }
+}
@@ -0,0 +1,167 @@
+package br.com.gerasaber.infrastructure.adapter;
+
+import br.com.gerasaber.domain.entity.StoredFile;
+import br.com.gerasaber.domain.port.IObjectStorePort;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+import java.util.OptionalLong;
+import java.util.stream.Stream;
+
+/**
+ * Tiered implementation of the file storage port.
+ * New files are written to the local hot tier exactly like {@link LocalFileStorageAdapter}; a background migrator
+ * moves date partitions older than {@code storage.tiered.hot-days} to the cold object store and removes them
+ * from local disk. The storage index keeps pointing at the original paths, so reads fall through to the cold tier
+ * transparently whenever the hot file is gone, and cold objects are served from a local read cache.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "storage.type", havingValue = "tiered")
+public class TieredFileStorageAdapter extends LocalFileStorageAdapter {
+    
+    private static final String CACHE_DIRECTORY = ".cold-cache";
+    
+    private final IObjectStorePort objectStorePort;
+    
+    @Value("${storage.tiered.hot-days:7}")
+    private int hotDays;
+    
+    @Value("${storage.tiered.cache-max-size:1GB}")
+    private DataSize cacheMaxSize;
+    
+    @Value("${storage.tiered.cache-eviction-grace:5m}")
+    private Duration cacheEvictionGrace;
+    
+    private ColdTierReadCache readCache;
+    
+    @PostConstruct
+    void openReadCache() throws IOException {
+        readCache = new ColdTierReadCache(Paths.get(baseStoragePath).resolve(CACHE_DIRECTORY), cacheMaxSize.toBytes(),
+                cacheEvictionGrace, objectStorePort);
+        readCache.open();
+        log.info("Tiered storage keeps {} days of partitions on local disk", hotDays);
+    }
+    
+    @Override
+    public StoredFile linkFile(String requestId, StoredFile storedFile) {
+        // Files read from the cold tier carry the path of their cached copy; the index must keep the original one
+        Path cachePath = Paths.get(baseStoragePath).resolve(CACHE_DIRECTORY).toAbsolutePath().normalize();
+        Path path = storedFile.getPath().toAbsolutePath().normalize();
+        if (path.startsWith(cachePath)) {
+            Path originalPath = Paths.get(baseStoragePath).toAbsolutePath().normalize().resolve(cachePath.relativize(path));
+            return super.linkFile(requestId, storedFile.toBuilder().path(originalPath).build());
+        }
+        return super.linkFile(requestId, storedFile);
+    }
+    
+    @Override
+    public Optional<Path> findFile(String filename) {
+        return super.findFile(filename).flatMap(path -> Files.exists(path)
+                ? Optional.of(path)
+                : index.findByPath(path).filter(storedFile -> !isPacked(storedFile)).flatMap(this::readable).map(StoredFile::getPath));
+    }
+    
+    @Override
+    public Optional<StoredFile> findByRequestId(String requestId) {
+        return super.findByRequestId(requestId).flatMap(this::readable);
+    }
+    
+    @Override
+    public Optional<StoredFile> findByPath(String relativePath) {
+        return super.findByPath(relativePath).flatMap(this::readable);
+    }
+    
+    @Override
+    boolean isReserved(Path relativePath) {
+        return super.isReserved(relativePath) || relativePath.startsWith(CACHE_DIRECTORY);
+    }
+    
+    /**
+     * Moves partitions that are past the hot window to the cold tier.
+     */
+    @Scheduled(fixedDelayString = "${storage.tiered.migration-interval:PT1H}", initialDelayString = "${storage.tiered.migration-initial-delay:PT1M}")
+    void migrateColdPartitions() {
+        Path basePath = Paths.get(baseStoragePath);
+        LocalDate oldestHotDate = LocalDate.now().minusDays(hotDays);
+        
+        List<Path> partitions;
+        try (Stream<Path> paths = Files.list(basePath)) {
+            partitions = paths.filter(Files::isDirectory)
+                    .filter(partition -> parsePartitionDate(partition).filter(date -> date.isBefore(oldestHotDate)).isPresent())
+                    .sorted()
+                    .toList();
+        } catch (IOException e) {
+            log.error("Failed to list partitions for cold tier migration", e);
+            return;
+        }
+        
+        for (Path partition : partitions) {
+            try {
+                int migrated = migratePartition(basePath, partition);
+                log.info("Migrated {} files of partition {} to the cold tier", migrated, partition.getFileName());
+            } catch (IOException e) {
+                log.error("Failed to migrate partition {} to the cold tier", partition, e);
+            }
+        }
+    }
+    
+    private int migratePartition(Path basePath, Path partition) throws IOException {
+        List<Path> files;
+        try (Stream<Path> paths = Files.list(partition)) {
+            files = paths.filter(Files::isRegularFile).toList();
+        }
+        
+        int migrated = 0;
+        for (Path file : files) {
+            String key = keyOf(basePath, file);
+            long size = Files.size(file);
+            objectStorePort.putObject(key, file);
+            
+            // The local copy is only removed once the object is confirmed complete in the cold tier
+            OptionalLong coldSize = objectStorePort.sizeOf(key);
+            if (coldSize.isEmpty() || coldSize.getAsLong() != size) {
+                throw new IOException("Cold object does not match local file: " + key);
+            }
+            Files.delete(file);
+            migrated++;
+        }
+        
+        try (Stream<Path> remaining = Files.list(partition)) {
+            if (remaining.findAny().isEmpty()) {
+                Files.delete(partition);
+                writer.forgetDirectory(partition);
+            }
+        }
+        return migrated;
+    }
+    
+    private Optional<StoredFile> readable(StoredFile storedFile) {
+        if (Files.isRegularFile(storedFile.getPath())) {
+            return Optional.of(storedFile);
+        }
+        Path basePath = Paths.get(baseStoragePath);
+        return readCache.get(keyOf(basePath, storedFile.getPath()))
+                .map(copy -> storedFile.toBuilder().path(copy).build());
+    }
+    
+    private static String keyOf(Path basePath, Path file) {
+        Path relative = basePath.toAbsolutePath().normalize().relativize(file.toAbsolutePath().normalize());
+        return relative.toString().replace(relative.getFileSystem().getSeparator(), "/");
+    }
+}
@@ -0,0 +1,52 @@
+package br.com.gerasaber.infrastructure.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+/**
+ * Configuration class for the executors used by the upload dispatch and storage subsystems.
+ * Every executor is a fixed-size platform thread pool sized from the limit it serves, so the number of threads
+ * stays bounded however many tasks are submitted.
+ */
+@Configuration
+public class DispatchExecutorConfig {
+
+    /**
+     * Runs the dispatch loop, the outbox replay and one task per dispatch worker. Workers are only submitted while
+     * they hold one of the {@code upload.dispatch.concurrency} permits, so the pool never has to queue them.
+     */
+    @Bean
+    public ThreadPoolTaskExecutor uploadDispatchExecutor(@Value("${upload.dispatch.concurrency:8}") int concurrency) {
+        return boundedExecutor("upload-dispatch-", concurrency + 2, concurrency);
+    }
+
+    /**
+     * Runs the per-file work of a dispatched request, i.e. preprocessing and fan-out parts. Kept apart from the
+     * dispatch pool because workers wait for these tasks, which must not queue behind the workers themselves.
+     */
+    @Bean
+    public ThreadPoolTaskExecutor uploadPartExecutor(@Value("${upload.dispatch.concurrency:8}") int concurrency,
+                                                     @Value("${upload.fan-out.global-parallelism:32}") int globalParallelism) {
+        return boundedExecutor("upload-part-", concurrency + globalParallelism, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Runs the part uploads of the cold storage tier. Its thread count is the only limit on concurrent part uploads.
+     */
+    @Bean
+    public ThreadPoolTaskExecutor storageExecutor(@Value("${storage.cold.upload-parallelism:4}") int uploadParallelism) {
+        return boundedExecutor("storage-", uploadParallelism, Integer.MAX_VALUE);
+    }
+
+    private static ThreadPoolTaskExecutor boundedExecutor(String threadNamePrefix, int poolSize, int queueCapacity) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setThreadNamePrefix(threadNamePrefix);
+        executor.setCorePoolSize(poolSize);
+        executor.setMaxPoolSize(poolSize);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setAllowCoreThreadTimeOut(true);
+        return executor;
+    }
+}
@@ -0,0 +1,57 @@
+package br.com.gerasaber.infrastructure.config;
+
+import br.com.gerasaber.usecase.file.upload.service.IForwardGuardService;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.HealthIndicator;
+import org.springframework.boot.actuate.health.Status;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Configuration class exposing the n8n limiter and circuit breaker state as metrics and as the {@code n8n}
+ * health contributor. An open breaker is reported as {@code DEGRADED} rather than {@code DOWN}, so an n8n
+ * outage does not get the middleware itself restarted.
+ */
+@Configuration
+public class ForwardGuardObservabilityConfig {
+
+    public static final Status DEGRADED = new Status("DEGRADED", "n8n calls are being held back by the circuit breaker");
+
+    @Bean
+    public MeterBinder n8nForwardGuardMetrics(IForwardGuardService forwardGuardService) {
+        return registry -> {
+            Gauge.builder("gerasaber.n8n.limiter.limit", () -> forwardGuardService.snapshot().limit())
+                    .description("Current adaptive concurrency limit for n8n calls")
+                    .register(registry);
+            Gauge.builder("gerasaber.n8n.limiter.in.flight", () -> forwardGuardService.snapshot().inFlight())
+                    .description("n8n calls currently in flight")
+                    .register(registry);
+            Gauge.builder("gerasaber.n8n.breaker.failure.rate", () -> forwardGuardService.snapshot().failureRate())
+                    .description("Failure rate in percent over the circuit breaker window")
+                    .baseUnit("percent")
+                    .register(registry);
+            for (String state : new String[] {"CLOSED", "OPEN", "HALF_OPEN"}) {
+                Gauge.builder("gerasaber.n8n.breaker.state", () -> state.equals(forwardGuardService.snapshot().breakerState()) ? 1 : 0)
+                        .description("1 for the current circuit breaker state, 0 otherwise")
+                        .tag("state", state.toLowerCase())
+                        .register(registry);
+            }
+        };
+    }
+
+    @Bean
+    public HealthIndicator n8nHealthIndicator(IForwardGuardService forwardGuardService) {
+        return () -> {
+            IForwardGuardService.Snapshot snapshot = forwardGuardService.snapshot();
+            Health.Builder health = "CLOSED".equals(snapshot.breakerState()) ? Health.up() : Health.status(DEGRADED);
+            return health
+                    .withDetail("breaker", snapshot.breakerState())
+                    .withDetail("failureRate", snapshot.failureRate())
+                    .withDetail("concurrencyLimit", snapshot.limit())
+                    .withDetail("inFlight", snapshot.inFlight())
+                    .build();
+        };
+    }
+}
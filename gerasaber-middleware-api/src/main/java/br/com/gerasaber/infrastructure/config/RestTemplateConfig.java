@@ -1,23 +1,104 @@
 package br.com.gerasaber.infrastructure.config;
 
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.httpcomponents.hc5.PoolingHttpClientConnectionManagerMetricsBinder;
+import org.apache.hc.client5.http.config.ConnectionConfig;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.apache.hc.client5.http.impl.classic.HttpClients;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManagerBuilder;
+import org.apache.hc.core5.util.TimeValue;
+import org.apache.hc.core5.util.Timeout;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
-import org.springframework.http.client.SimpleClientHttpRequestFactory;
+import org.springframework.http.client.ClientHttpRequestFactory;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+import org.springframework.http.client.JdkClientHttpRequestFactory;
 import org.springframework.web.client.RestTemplate;
 
+import java.net.http.HttpClient;
+import java.time.Duration;
+
 /**
  * Configuration class for HTTP client beans.
+ * Connections to n8n are pooled by Apache HttpClient 5, or multiplexed over h2c by the JDK client when enabled.
  */
 @Configuration
 public class RestTemplateConfig {
     
+    @Value("${n8n.http.connect-timeout:30s}")
+    private Duration connectTimeout;
+    
+    @Value("${n8n.http.read-timeout:5m}")
+    private Duration readTimeout;
+    
+    @Value("${n8n.http.max-connections:50}")
+    private int maxConnections;
+    
+    @Value("${n8n.http.max-connections-per-route:20}")
+    private int maxConnectionsPerRoute;
+    
+    @Value("${n8n.http.idle-timeout:30s}")
+    private Duration idleTimeout;
+    
+    @Value("${n8n.http.keep-alive:2m}")
+    private Duration keepAlive;
+    
+    @Bean
+    public RestTemplate restTemplate(ClientHttpRequestFactory n8nRequestFactory) {
+        return new RestTemplate(n8nRequestFactory);
+    }
+    
+    @Bean
+    @ConditionalOnProperty(name = "n8n.http.h2c", havingValue = "false", matchIfMissing = true)
+    public PoolingHttpClientConnectionManager n8nConnectionManager() {
+        return PoolingHttpClientConnectionManagerBuilder.create()
+                .setMaxConnTotal(maxConnections)
+                .setMaxConnPerRoute(maxConnectionsPerRoute)
+                .setDefaultConnectionConfig(ConnectionConfig.custom()
+                        .setConnectTimeout(Timeout.of(connectTimeout))
+                        .setSocketTimeout(Timeout.of(readTimeout))
+                        .build())
+                .build();
+    }
+    
+    @Bean
+    @ConditionalOnProperty(name = "n8n.http.h2c", havingValue = "false", matchIfMissing = true)
+    public ClientHttpRequestFactory n8nRequestFactory(PoolingHttpClientConnectionManager n8nConnectionManager) {
+        CloseableHttpClient httpClient = HttpClients.custom()
+                .setConnectionManager(n8nConnectionManager)
+                .setKeepAliveStrategy((response, context) -> TimeValue.of(keepAlive))
+                .evictExpiredConnections()
+                .evictIdleConnections(TimeValue.of(idleTimeout))
+                .build();
+        return new HttpComponentsClientHttpRequestFactory(httpClient);
+    }
+    
+    /**
+     * Exports leased, pending and available connection counts of the n8n pool through actuator metrics.
+     */
+    @Bean
+    @ConditionalOnProperty(name = "n8n.http.h2c", havingValue = "false", matchIfMissing = true)
+    public MeterBinder n8nConnectionPoolMetrics(PoolingHttpClientConnectionManager n8nConnectionManager) {
+        return new PoolingHttpClientConnectionManagerMetricsBinder(n8nConnectionManager, "n8n");
+    }
+    
+    /**
+     * HTTP/2 cleartext client. The JDK client multiplexes requests over a single connection per host,
+     * so pool limits do not apply; idle connections follow {@code jdk.httpclient.keepalive.timeout}.
+     */
     @Bean
-    public RestTemplate restTemplate() {
-        SimpleClientHttpRequestFactory factory = new SimpleClientHttpRequestFactory();
-        factory.setConnectTimeout(30000); // 30 seconds
-        factory.setReadTimeout(300000);  // 5 minutes for file uploads
+    @ConditionalOnProperty(name = "n8n.http.h2c", havingValue = "true")
+    public ClientHttpRequestFactory n8nH2cRequestFactory() {
+        HttpClient httpClient = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_2)
+                .connectTimeout(connectTimeout)
+                .build();
         
-        RestTemplate restTemplate = new RestTemplate(factory);
-        return restTemplate;
+        JdkClientHttpRequestFactory factory = new JdkClientHttpRequestFactory(httpClient);
+        factory.setReadTimeout(readTimeout);
+        return factory;
     }
 }
@@ -0,0 +1,12 @@
+package br.com.gerasaber.infrastructure.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/**
+ * Configuration class enabling scheduled maintenance tasks such as cache snapshots.
+ */
+@Configuration
+@EnableScheduling
+public class SchedulingConfig {
+}
@@ -0,0 +1,64 @@
+package br.com.gerasaber.infrastructure.config;
+
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Configuration;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.attribute.FileTime;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Configuration class for the spool directory under {@code storage.temp-path}.
+ * The servlet container writes multipart parts above {@code spring.servlet.multipart.file-size-threshold} to this
+ * directory, so spooling an accepted upload is a rename rather than a copy. Files are deleted once their request
+ * is done; files left behind by a previous run (e.g. after a crash) are swept on startup. Uploads that were still
+ * pending are restored from the outbox, so no spooled file from an earlier run is needed anymore.
+ */
+@Slf4j
+@Configuration
+public class SpoolDirectoryConfig {
+
+    @Value("${storage.temp-path:/tmp/middleware/files}")
+    private String tempStoragePath;
+
+    @PostConstruct
+    void sweepOrphans() throws IOException {
+        Path spoolDirectory = Files.createDirectories(Paths.get(tempStoragePath));
+
+        // Only files older than this JVM can be orphans; anything newer belongs to a request in progress
+        FileTime startTime = FileTime.fromMillis(ManagementFactory.getRuntimeMXBean().getStartTime());
+        List<Path> orphans;
+        try (Stream<Path> files = Files.list(spoolDirectory)) {
+            orphans = files.filter(Files::isRegularFile)
+                    .filter(file -> isOlderThan(file, startTime))
+                    .toList();
+        }
+
+        int deleted = 0;
+        for (Path orphan : orphans) {
+            try {
+                deleted += Files.deleteIfExists(orphan) ? 1 : 0;
+            } catch (IOException e) {
+                log.warn("Failed to delete orphaned spool file: {}", orphan, e);
+            }
+        }
+        if (deleted > 0) {
+            log.info("Deleted {} orphaned spool files from {}", deleted, spoolDirectory);
+        }
+    }
+
+    private static boolean isOlderThan(Path file, FileTime time) {
+        try {
+            return Files.getLastModifiedTime(file).compareTo(time) < 0;
+        } catch (IOException e) {
+            return false;
+        }
+    }
+}
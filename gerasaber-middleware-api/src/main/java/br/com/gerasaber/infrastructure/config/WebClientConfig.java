@@ -0,0 +1,62 @@
+package br.com.gerasaber.infrastructure.config;
+
+import io.netty.channel.ChannelOption;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.netty.http.HttpProtocol;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+
+import java.time.Duration;
+
+/**
+ * Configuration class for the reactive n8n client used when {@code n8n.engine} is {@code web-client}.
+ * Shares the {@code n8n.http.*} pool settings with the blocking client.
+ */
+@Configuration
+@ConditionalOnProperty(name = "n8n.engine", havingValue = "web-client")
+public class WebClientConfig {
+    
+    @Value("${n8n.http.connect-timeout:30s}")
+    private Duration connectTimeout;
+    
+    @Value("${n8n.http.read-timeout:5m}")
+    private Duration readTimeout;
+    
+    @Value("${n8n.http.max-connections:50}")
+    private int maxConnections;
+    
+    @Value("${n8n.http.idle-timeout:30s}")
+    private Duration idleTimeout;
+    
+    @Value("${n8n.http.h2c:false}")
+    private boolean h2c;
+    
+    @Value("${n8n.web-client.max-pending-acquires:10000}")
+    private int maxPendingAcquires;
+    
+    @Bean
+    public WebClient n8nWebClient(WebClient.Builder webClientBuilder) {
+        ConnectionProvider connectionProvider = ConnectionProvider.builder("n8n")
+                .maxConnections(maxConnections)
+                .pendingAcquireMaxCount(maxPendingAcquires)
+                .maxIdleTime(idleTimeout)
+                .metrics(true)
+                .build();
+        
+        HttpClient httpClient = HttpClient.create(connectionProvider)
+                .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, (int) connectTimeout.toMillis())
+                .responseTimeout(readTimeout);
+        if (h2c) {
+            httpClient = httpClient.protocol(HttpProtocol.H2C, HttpProtocol.HTTP11);
+        }
+        
+        return webClientBuilder
+                .clientConnector(new ReactorClientHttpConnector(httpClient))
+                .build();
+    }
+}
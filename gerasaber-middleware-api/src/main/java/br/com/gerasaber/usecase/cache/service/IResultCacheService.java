@@ -0,0 +1,31 @@
+package br.com.gerasaber.usecase.cache.service;
+
+import br.com.gerasaber.domain.entity.StoredFile;
+import br.com.gerasaber.domain.entity.UploadRequest;
+
+import java.util.Optional;
+
+/**
+ * Interface for the result cache service following Clean Architecture principles.
+ * Reuses the PDF generated for an earlier upload of the same files with the same prompt.
+ */
+public interface IResultCacheService {
+    
+    /**
+     * Looks up a previously generated result for the files and prompt of an upload request.
+     * On a hit the cached file is linked to the request ID of the upload; on a miss the request is remembered
+     * so that its result can be cached once it arrives.
+     * 
+     * @param uploadRequest the upload request about to be forwarded
+     * @return Optional containing the stored result linked to the upload request, empty on a miss
+     */
+    Optional<StoredFile> findCachedResult(UploadRequest uploadRequest);
+    
+    /**
+     * Caches the result received for a request, if the request was looked up before being forwarded.
+     * 
+     * @param requestId the request ID the result was received for
+     * @param storedFile the stored result
+     */
+    void cacheResult(String requestId, StoredFile storedFile);
+}
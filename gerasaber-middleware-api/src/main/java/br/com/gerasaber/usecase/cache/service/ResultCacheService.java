@@ -0,0 +1,208 @@
+package br.com.gerasaber.usecase.cache.service;
+
+import br.com.gerasaber.domain.entity.StoredFile;
+import br.com.gerasaber.domain.entity.UploadRequest;
+import br.com.gerasaber.domain.port.IFileStoragePort;
+import br.com.gerasaber.domain.port.IPipelineMetricsPort;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.text.Normalizer;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.regex.Pattern;
+
+/**
+ * Result cache keyed by the content hashes of the uploaded files and the normalized prompt.
+ * Entries map a cache key to the request whose generated PDF is in storage, and are evicted by Caffeine's
+ * size-bounded W-TinyLFU policy, which keeps frequently repeated uploads over one-off ones.
+ * The cache is snapshotted to disk periodically and on shutdown, hottest entries last, and reloaded on startup.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ResultCacheService implements IResultCacheService {
+    
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+    private static final int HASH_BUFFER_SIZE = 64 * 1024;
+    
+    private final IFileStoragePort fileStoragePort;
+    private final IPipelineMetricsPort pipelineMetricsPort;
+    
+    @Value("${result-cache.enabled:true}")
+    private boolean enabled;
+    
+    @Value("${result-cache.maximum-size:10000}")
+    private long maximumSize;
+    
+    @Value("${result-cache.snapshot-path:/var/app/cache/result-cache.snapshot}")
+    private String snapshotPath;
+    
+    @Value("${jobs.ttl:1h}")
+    private Duration pendingTtl;
+    
+    // Cache key -> request ID whose stored result answers it
+    private Cache<String, String> results;
+    // Request ID -> cache key, for requests forwarded to n8n whose result has not arrived yet
+    private Cache<String, String> pending;
+    
+    @PostConstruct
+    void load() {
+        results = Caffeine.newBuilder().maximumSize(maximumSize).build();
+        pending = Caffeine.newBuilder().maximumSize(maximumSize).expireAfterWrite(pendingTtl).build();
+        
+        Path snapshot = Paths.get(snapshotPath);
+        if (!enabled || !Files.exists(snapshot)) {
+            return;
+        }
+        try {
+            for (String line : Files.readAllLines(snapshot, StandardCharsets.UTF_8)) {
+                String[] entry = line.split(" ", 2);
+                if (entry.length == 2) {
+                    results.put(entry[0], entry[1]);
+                }
+            }
+            log.info("Result cache loaded with {} entries", results.estimatedSize());
+        } catch (IOException e) {
+            log.warn("Failed to load result cache snapshot: {}", snapshot, e);
+        }
+    }
+    
+    @PreDestroy
+    @Scheduled(fixedDelayString = "${result-cache.snapshot-interval:PT5M}", initialDelayString = "${result-cache.snapshot-interval:PT5M}")
+    void snapshot() {
+        if (!enabled) {
+            return;
+        }
+        
+        // Written coldest first, so reloading them in order leaves the hottest entries most recent
+        List<Map.Entry<String, String>> entries = new ArrayList<>(results.policy().eviction()
+                .map(eviction -> eviction.hottest((int) Math.min(maximumSize, Integer.MAX_VALUE)))
+                .orElse(Map.copyOf(results.asMap()))
+                .entrySet());
+        Collections.reverse(entries);
+        
+        Path snapshot = Paths.get(snapshotPath);
+        try {
+            Files.createDirectories(snapshot.toAbsolutePath().getParent());
+            Path temp = Files.createTempFile(snapshot.toAbsolutePath().getParent(), "result-cache-", ".tmp");
+            try (BufferedWriter writer = Files.newBufferedWriter(temp, StandardCharsets.UTF_8)) {
+                for (Map.Entry<String, String> entry : entries) {
+                    writer.write(entry.getKey() + " " + entry.getValue());
+                    writer.newLine();
+                }
+            }
+            Files.move(temp, snapshot, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            log.debug("Result cache snapshot written with {} entries", entries.size());
+        } catch (IOException e) {
+            log.warn("Failed to write result cache snapshot: {}", snapshot, e);
+        }
+    }
+    
+    @Override
+    public Optional<StoredFile> findCachedResult(UploadRequest uploadRequest) {
+        if (!enabled) {
+            return Optional.empty();
+        }
+        
+        String key;
+        try {
+            key = cacheKey(uploadRequest);
+        } catch (IOException e) {
+            log.warn("Failed to hash upload request {}, skipping the result cache", uploadRequest.getRequestId(), e);
+            return Optional.empty();
+        }
+        
+        Optional<StoredFile> cached = Optional.ofNullable(results.getIfPresent(key))
+                .flatMap(fileStoragePort::findByRequestId)
+                .filter(storedFile -> Files.isRegularFile(storedFile.getPath()));
+        pipelineMetricsPort.recordCacheLookup(cached.isPresent());
+        
+        if (cached.isEmpty()) {
+            results.invalidate(key);
+            pending.put(uploadRequest.getRequestId(), key);
+            return Optional.empty();
+        }
+        
+        log.info("Result cache hit for upload request {}, reusing {}", uploadRequest.getRequestId(), cached.get().getPath());
+        return Optional.of(fileStoragePort.linkFile(uploadRequest.getRequestId(), cached.get()));
+    }
+    
+    @Override
+    public void cacheResult(String requestId, StoredFile storedFile) {
+        if (!enabled || requestId == null) {
+            return;
+        }
+        
+        String key = pending.getIfPresent(requestId);
+        if (key != null) {
+            pending.invalidate(requestId);
+            results.put(key, requestId);
+        }
+    }
+    
+    private String cacheKey(UploadRequest uploadRequest) throws IOException {
+        // File order does not change the result, so the hashes are sorted before being combined
+        List<String> fileHashes = new ArrayList<>();
+        for (UploadRequest.FilePart filePart : uploadRequest.getFiles()) {
+            fileHashes.add(hash(filePart));
+        }
+        fileHashes.sort(null);
+        
+        MessageDigest digest = sha256();
+        for (String fileHash : fileHashes) {
+            digest.update(HexFormat.of().parseHex(fileHash));
+        }
+        digest.update((byte) 0);
+        digest.update(normalize(uploadRequest.getPromptDescription()).getBytes(StandardCharsets.UTF_8));
+        return HexFormat.of().formatHex(digest.digest());
+    }
+    
+    private String hash(UploadRequest.FilePart filePart) throws IOException {
+        MessageDigest digest = sha256();
+        byte[] buffer = new byte[HASH_BUFFER_SIZE];
+        try (InputStream content = filePart.openStream()) {
+            int read;
+            while ((read = content.read(buffer)) > 0) {
+                digest.update(buffer, 0, read);
+            }
+        }
+        return HexFormat.of().formatHex(digest.digest());
+    }
+    
+    private static String normalize(String promptDescription) {
+        String normalized = Normalizer.normalize(promptDescription == null ? "" : promptDescription, Normalizer.Form.NFC);
+        return WHITESPACE.matcher(normalized.trim()).replaceAll(" ").toLowerCase(Locale.ROOT);
+    }
+    
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+}
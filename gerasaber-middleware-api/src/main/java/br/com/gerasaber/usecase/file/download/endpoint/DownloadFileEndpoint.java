@@ -0,0 +1,121 @@
+package br.com.gerasaber.usecase.file.download.endpoint;
+
+import br.com.gerasaber.domain.entity.StoredFile;
+import br.com.gerasaber.usecase.file.download.service.IFileDownloadService;
+import jakarta.servlet.http.HttpServletRequest;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.http.CacheControl;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.MediaTypeFactory;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.ZoneId;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * REST endpoint for downloading stored PDF files.
+ * Full responses are handed to the container's sendfile support when available so the JVM never copies the bytes;
+ * range requests are served as resource regions, and conditional requests are answered with content-hash ETags.
+ * Files packed into a segment are served as their region of the segment.
+ */
+@Slf4j
+@RestController
+@RequestMapping("/api/files")
+@RequiredArgsConstructor
+public class DownloadFileEndpoint {
+    
+    private static final String SENDFILE_SUPPORT_ATTRIBUTE = "org.apache.tomcat.sendfile.support";
+    private static final String SENDFILE_FILENAME_ATTRIBUTE = "org.apache.tomcat.sendfile.filename";
+    private static final String SENDFILE_START_ATTRIBUTE = "org.apache.tomcat.sendfile.start";
+    private static final String SENDFILE_END_ATTRIBUTE = "org.apache.tomcat.sendfile.end";
+    
+    private final IFileDownloadService fileDownloadService;
+    
+    @Value("${download.cache-max-age:30d}")
+    private Duration cacheMaxAge;
+    
+    @GetMapping("/{requestId}")
+    public ResponseEntity<?> downloadByRequestId(@PathVariable String requestId,
+                                                 HttpServletRequest request, WebRequest webRequest) {
+        log.info("Received download request for request: {}", requestId);
+        return serve(fileDownloadService.findByRequestId(requestId), request, webRequest);
+    }
+    
+    @GetMapping("/by-path/{*path}")
+    public ResponseEntity<?> downloadByPath(@PathVariable String path,
+                                            HttpServletRequest request, WebRequest webRequest) {
+        String relativePath = path.startsWith("/") ? path.substring(1) : path;
+        log.info("Received download request for path: {}", relativePath);
+        return serve(fileDownloadService.findByPath(relativePath), request, webRequest);
+    }
+    
+    private ResponseEntity<?> serve(Optional<StoredFile> found, HttpServletRequest request, WebRequest webRequest) {
+        if (found.isEmpty()) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND)
+                    .body(Map.of("errors", List.of("File not found")));
+        }
+        
+        StoredFile storedFile = found.get();
+        String etag = etagOf(storedFile);
+        long lastModified = storedFile.getStoredAt().atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+        
+        if (webRequest.checkNotModified(etag, lastModified)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).build();
+        }
+        
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .eTag(etag)
+                .lastModified(lastModified)
+                .cacheControl(CacheControl.maxAge(cacheMaxAge).cachePrivate())
+                .contentType(contentTypeOf(storedFile))
+                .header(HttpHeaders.ACCEPT_RANGES, "bytes")
+                .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.inline()
+                        .filename(storedFile.getFilename(), StandardCharsets.UTF_8)
+                        .build()
+                        .toString());
+        
+        // Let the container write the whole file with sendfile; ranges fall back to resource regions
+        if (request.getHeader(HttpHeaders.RANGE) == null && Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORT_ATTRIBUTE))) {
+            request.setAttribute(SENDFILE_FILENAME_ATTRIBUTE, storedFile.getPath().toAbsolutePath().toString());
+            request.setAttribute(SENDFILE_START_ATTRIBUTE, storedFile.getOffset());
+            request.setAttribute(SENDFILE_END_ATTRIBUTE, storedFile.getOffset() + storedFile.getSize());
+            return response.contentLength(storedFile.getSize()).build();
+        }
+        
+        return response.body(resourceOf(storedFile));
+    }
+    
+    private Resource resourceOf(StoredFile storedFile) {
+        if (storedFile.getOffset() == 0 && storedFile.getPath().toFile().length() == storedFile.getSize()) {
+            return new FileSystemResource(storedFile.getPath());
+        }
+        return new FileRegionResource(storedFile.getPath(), storedFile.getOffset(), storedFile.getSize(), storedFile.getFilename());
+    }
+    
+    private String etagOf(StoredFile storedFile) {
+        if (storedFile.getContentHash() != null) {
+            return "\"" + storedFile.getContentHash() + "\"";
+        }
+        return "W/\"" + Long.toHexString(storedFile.getSize()) + "-" + storedFile.getStoredAt().hashCode() + "\"";
+    }
+    
+    private MediaType contentTypeOf(StoredFile storedFile) {
+        return MediaTypeFactory.getMediaType(storedFile.getFilename()).orElse(MediaType.APPLICATION_PDF);
+    }
+}
@@ -0,0 +1,95 @@
+package br.com.gerasaber.usecase.file.download.endpoint;
+
+import org.springframework.core.io.AbstractResource;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Resource exposing a byte range of a file as if it were a whole file, used for files packed into a segment.
+ * Range requests are resolved against the region, so clients never see the rest of the segment.
+ */
+class FileRegionResource extends AbstractResource {
+    
+    private final Path path;
+    private final long offset;
+    private final long length;
+    private final String filename;
+    
+    FileRegionResource(Path path, long offset, long length, String filename) {
+        this.path = path;
+        this.offset = offset;
+        this.length = length;
+        this.filename = filename;
+    }
+    
+    @Override
+    public InputStream getInputStream() throws IOException {
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.READ);
+        channel.position(offset);
+        return new FilterInputStream(Channels.newInputStream(channel)) {
+            private long remaining = length;
+            
+            @Override
+            public int read() throws IOException {
+                if (remaining <= 0) {
+                    return -1;
+                }
+                int value = super.read();
+                if (value >= 0) {
+                    remaining--;
+                }
+                return value;
+            }
+            
+            @Override
+            public int read(byte[] buffer, int off, int len) throws IOException {
+                if (remaining <= 0) {
+                    return -1;
+                }
+                int read = super.read(buffer, off, (int) Math.min(len, remaining));
+                if (read > 0) {
+                    remaining -= read;
+                }
+                return read;
+            }
+            
+            @Override
+            public long skip(long n) throws IOException {
+                long skipped = super.skip(Math.min(n, remaining));
+                remaining -= skipped;
+                return skipped;
+            }
+            
+            @Override
+            public int available() throws IOException {
+                return (int) Math.min(super.available(), remaining);
+            }
+        };
+    }
+    
+    @Override
+    public long contentLength() {
+        return length;
+    }
+    
+    @Override
+    public boolean exists() {
+        return path.toFile().isFile();
+    }
+    
+    @Override
+    public String getFilename() {
+        return filename;
+    }
+    
+    @Override
+    public String getDescription() {
+        return "region [" + offset + ", " + (offset + length) + ") of file [" + path + "]";
+    }
+}
@@ -0,0 +1,42 @@
+package br.com.gerasaber.usecase.file.download.service;
+
+import br.com.gerasaber.domain.entity.StoredFile;
+import br.com.gerasaber.domain.port.IFileStoragePort;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import java.nio.file.Files;
+import java.util.Optional;
+
+/**
+ * Service responsible for resolving stored files for download.
+ * Looks files up through the file storage port and skips index entries whose file is gone.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class FileDownloadService implements IFileDownloadService {
+    
+    private final IFileStoragePort fileStoragePort;
+    
+    @Override
+    public Optional<StoredFile> findByRequestId(String requestId) {
+        log.debug("Looking up stored file for request: {}", requestId);
+        return fileStoragePort.findByRequestId(requestId).filter(this::isAvailable);
+    }
+    
+    @Override
+    public Optional<StoredFile> findByPath(String relativePath) {
+        log.debug("Looking up stored file by path: {}", relativePath);
+        return fileStoragePort.findByPath(relativePath).filter(this::isAvailable);
+    }
+    
+    private boolean isAvailable(StoredFile storedFile) {
+        if (Files.isRegularFile(storedFile.getPath())) {
+            return true;
+        }
+        log.warn("Indexed file is missing from storage: {}", storedFile.getPath());
+        return false;
+    }
+}
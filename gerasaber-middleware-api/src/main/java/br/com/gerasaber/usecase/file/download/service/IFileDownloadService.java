@@ -0,0 +1,27 @@
+package br.com.gerasaber.usecase.file.download.service;
+
+import br.com.gerasaber.domain.entity.StoredFile;
+
+import java.util.Optional;
+
+/**
+ * Interface for file download service following Clean Architecture principles.
+ */
+public interface IFileDownloadService {
+    
+    /**
+     * Finds the stored PDF generated for an upload request.
+     * 
+     * @param requestId the request ID of the original upload
+     * @return Optional containing the stored file if it is still available, empty otherwise
+     */
+    Optional<StoredFile> findByRequestId(String requestId);
+    
+    /**
+     * Finds a stored file by its path relative to the storage root.
+     * 
+     * @param relativePath the path of the file relative to the storage root
+     * @return Optional containing the stored file if it is still available, empty otherwise
+     */
+    Optional<StoredFile> findByPath(String relativePath);
+}
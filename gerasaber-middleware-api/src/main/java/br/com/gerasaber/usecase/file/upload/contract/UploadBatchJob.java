@@ -0,0 +1,19 @@
+package br.com.gerasaber.usecase.file.upload.contract;
+
+import lombok.Builder;
+import lombok.Data;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.util.List;
+
+/**
+ * Request object for one job of a batch upload, read from the {@code jobs[N].*} parts of the multipart request.
+ */
+@Data
+@Builder
+public class UploadBatchJob {
+    
+    private final int index;
+    private final List<MultipartFile> files;
+    private final String promptDescription;
+}
@@ -0,0 +1,29 @@
+package br.com.gerasaber.usecase.file.upload.contract;
+
+import lombok.Builder;
+import lombok.Data;
+
+/**
+ * DTO for the outcome of one job of a batch upload.
+ */
+@Data
+@Builder
+public class UploadBatchJobDto {
+    
+    /**
+     * Outcome of a job of a batch upload.
+     */
+    public enum Status {
+        ACCEPTED,
+        INVALID,
+        RATE_LIMITED,
+        QUEUE_FULL,
+        FAILED
+    }
+    
+    private int index;
+    private Status status;
+    private String requestId;
+    private String error;
+    private Long retryAfterSeconds;
+}
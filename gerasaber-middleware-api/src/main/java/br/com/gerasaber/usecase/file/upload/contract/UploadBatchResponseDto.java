@@ -0,0 +1,20 @@
+package br.com.gerasaber.usecase.file.upload.contract;
+
+import lombok.Builder;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * DTO for batch upload response following the standard API response format.
+ */
+@Data
+@Builder
+public class UploadBatchResponseDto {
+    
+    private String message;
+    private LocalDateTime timestamp;
+    private int accepted;
+    private List<UploadBatchJobDto> jobs;
+}
@@ -0,0 +1,75 @@
+package br.com.gerasaber.usecase.file.upload.endpoint;
+
+import br.com.gerasaber.usecase.file.upload.service.IClientRateLimitService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.security.Principal;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Admits upload submissions against the client's rate limit before the multipart body is read.
+ * Filters run ahead of the dispatcher servlet's multipart resolution, so a rejected upload is answered without its
+ * files being parsed or spooled. The resolved client ID is passed on to {@link UploadFileEndpoint} as a request
+ * attribute; for batch uploads the token taken here pays for the first valid job.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class UploadAdmissionFilter extends OncePerRequestFilter {
+    
+    static final String CLIENT_ID_ATTRIBUTE = UploadAdmissionFilter.class.getName() + ".clientId";
+    
+    private static final Set<String> UPLOAD_PATHS = Set.of("/api/upload", "/api/upload/batch");
+    
+    private final IClientRateLimitService clientRateLimitService;
+    private final ObjectMapper objectMapper;
+    
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !"POST".equals(request.getMethod())
+                || !UPLOAD_PATHS.contains(request.getRequestURI().substring(request.getContextPath().length()));
+    }
+    
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        
+        // Only headers and the connection are read here; touching parameters would parse the multipart body
+        Principal principal = request.getUserPrincipal();
+        String clientId = clientRateLimitService.resolveClientId(principal != null ? principal.getName() : null,
+                request.getHeader(clientRateLimitService.identityHeader()), request.getRemoteAddr());
+        
+        IClientRateLimitService.Decision decision = clientRateLimitService.tryAcquire(clientId);
+        if (!decision.admitted()) {
+            log.warn("Rate limit exceeded for client {}", clientId);
+            response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+            response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(toRetryAfterSeconds(decision.retryAfter())));
+            response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+            objectMapper.writeValue(response.getOutputStream(),
+                    Map.of("errors", List.of("Rate limit exceeded. Please retry later.")));
+            return;
+        }
+        
+        request.setAttribute(CLIENT_ID_ATTRIBUTE, clientId);
+        filterChain.doFilter(request, response);
+    }
+    
+    static long toRetryAfterSeconds(Duration retryAfter) {
+        return Math.max(1, (retryAfter.toMillis() + 999) / 1000);
+    }
+}
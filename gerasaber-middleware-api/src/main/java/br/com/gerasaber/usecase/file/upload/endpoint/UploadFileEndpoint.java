@@ -1,22 +1,34 @@
 package br.com.gerasaber.usecase.file.upload.endpoint;
 
 import br.com.gerasaber.domain.entity.UploadRequest;
+import br.com.gerasaber.usecase.file.upload.contract.UploadBatchJob;
+import br.com.gerasaber.usecase.file.upload.contract.UploadBatchJobDto;
 import br.com.gerasaber.usecase.file.upload.contract.UploadResponseDto;
+import br.com.gerasaber.usecase.file.upload.mapping.UploadBatchRequestReader;
 import br.com.gerasaber.usecase.file.upload.mapping.UploadRequestMapper;
-import br.com.gerasaber.usecase.file.upload.service.IFileUploadService;
+import br.com.gerasaber.usecase.file.upload.service.IClientRateLimitService;
+import br.com.gerasaber.usecase.file.upload.service.IUploadDispatchService;
+import jakarta.servlet.http.HttpServletRequest;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.multipart.MultipartHttpServletRequest;
 
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
 
 /**
  * REST endpoint for handling file upload requests.
  * Accepts multipart form data and forwards it to the n8n workflow.
+ * Batch uploads carry many independent jobs in one request and report the outcome of each job.
  */
 @Slf4j
 @RestController
@@ -24,13 +36,19 @@ import java.util.Map;
 @RequiredArgsConstructor
 public class UploadFileEndpoint {
     
-    private final IFileUploadService fileUploadService;
+    private final IUploadDispatchService uploadDispatchService;
+    private final IClientRateLimitService clientRateLimitService;
     private final UploadRequestMapper uploadRequestMapper;
+    private final UploadBatchRequestReader uploadBatchRequestReader;
+    
+    @Value("${upload.dispatch.retry-after-seconds:30}")
+    private long retryAfterSeconds;
     
     @PostMapping("/upload")
     public ResponseEntity<Map<String, Object>> uploadFiles(
             @RequestParam(value = "files", required = false) List<MultipartFile> files,
-            @RequestParam(value = "promptDescription", required = false) String promptDescription) {
+            @RequestParam(value = "promptDescription", required = false) String promptDescription,
+            HttpServletRequest request) {
         
         log.info("Received upload request with {} files", files != null ? files.size() : 0);
         
@@ -46,16 +64,21 @@ public class UploadFileEndpoint {
                         .body(Map.of("errors", List.of("Prompt description is required")));
             }
             
-            // Convert to domain object
-            UploadRequest uploadRequest = uploadRequestMapper.toDomain(files, promptDescription);
+            // Convert to domain object; the client was admitted by UploadAdmissionFilter before the body was parsed
+            UploadRequest uploadRequest = uploadRequestMapper.toDomain(files, promptDescription,
+                    (String) request.getAttribute(UploadAdmissionFilter.CLIENT_ID_ATTRIBUTE));
             
-            // Process the request asynchronously
-            fileUploadService.processUploadRequest(uploadRequest);
+            // Enqueue the request for asynchronous forwarding to n8n
+            if (!uploadDispatchService.tryDispatch(uploadRequest)) {
+                return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                        .header(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfterSeconds))
+                        .body(Map.of("errors", List.of("Upload queue is full. Please retry later.")));
+            }
             
             // Return acknowledgment response
             UploadResponseDto responseDto = uploadRequestMapper.toResponseDto(uploadRequest);
             
-            log.info("Upload request processed successfully for request: {}", uploadRequest.getRequestId());
+            log.info("Upload request accepted for request: {}", uploadRequest.getRequestId());
             
             return ResponseEntity.status(HttpStatus.ACCEPTED)
                     .body(Map.of("data", responseDto));
@@ -66,4 +89,95 @@ public class UploadFileEndpoint {
                     .body(Map.of("errors", List.of("Failed to process upload request: " + e.getMessage())));
         }
     }
+    
+    @PostMapping("/upload/batch")
+    public ResponseEntity<Map<String, Object>> uploadBatch(MultipartHttpServletRequest request) {
+        
+        try {
+            List<UploadBatchJob> jobs = uploadBatchRequestReader.read(request);
+            log.info("Received batch upload request with {} jobs", jobs.size());
+            
+            if (jobs.isEmpty()) {
+                return ResponseEntity.badRequest()
+                        .body(Map.of("errors", List.of("At least one job is required")));
+            }
+            
+            String clientId = (String) request.getAttribute(UploadAdmissionFilter.CLIENT_ID_ATTRIBUTE);
+            
+            // Validate, admit and spool each job in order; every job takes its own token from the client's rate limit,
+            // and the first valid job uses the token UploadAdmissionFilter took for the request
+            boolean prepaid = true;
+            UploadBatchJobDto[] results = new UploadBatchJobDto[jobs.size()];
+            List<UploadRequest> admitted = new ArrayList<>();
+            List<Integer> admittedPositions = new ArrayList<>();
+            for (int position = 0; position < jobs.size(); position++) {
+                UploadBatchJob job = jobs.get(position);
+                if (job.getFiles().isEmpty()) {
+                    results[position] = rejectedJob(job, UploadBatchJobDto.Status.INVALID, "At least one file is required", null);
+                    continue;
+                }
+                if (job.getPromptDescription() == null || job.getPromptDescription().trim().isEmpty()) {
+                    results[position] = rejectedJob(job, UploadBatchJobDto.Status.INVALID, "Prompt description is required", null);
+                    continue;
+                }
+                
+                IClientRateLimitService.Decision decision = prepaid
+                        ? new IClientRateLimitService.Decision(true, Duration.ZERO)
+                        : clientRateLimitService.tryAcquire(clientId);
+                prepaid = false;
+                if (!decision.admitted()) {
+                    results[position] = rejectedJob(job, UploadBatchJobDto.Status.RATE_LIMITED,
+                            "Rate limit exceeded. Please retry later.",
+                            UploadAdmissionFilter.toRetryAfterSeconds(decision.retryAfter()));
+                    continue;
+                }
+                
+                try {
+                    admitted.add(uploadRequestMapper.toDomain(job.getFiles(), job.getPromptDescription(), clientId));
+                    admittedPositions.add(position);
+                } catch (RuntimeException e) {
+                    log.error("Failed to process job {} of batch upload request", job.getIndex(), e);
+                    results[position] = rejectedJob(job, UploadBatchJobDto.Status.FAILED, e.getMessage(), null);
+                }
+            }
+            
+            // Enqueue the admitted jobs together, so their forwarding to n8n is pipelined by the dispatcher
+            List<IUploadDispatchService.Admission> admissions = uploadDispatchService.tryDispatchAll(admitted);
+            for (int i = 0; i < admitted.size(); i++) {
+                int position = admittedPositions.get(i);
+                UploadBatchJob job = jobs.get(position);
+                results[position] = switch (admissions.get(i)) {
+                    case ACCEPTED -> uploadRequestMapper.toAcceptedJobDto(job.getIndex(), admitted.get(i));
+                    case QUEUE_FULL -> rejectedJob(job, UploadBatchJobDto.Status.QUEUE_FULL,
+                            "Upload queue is full. Please retry later.", retryAfterSeconds);
+                    case FAILED -> rejectedJob(job, UploadBatchJobDto.Status.FAILED, "Failed to enqueue upload request", null);
+                };
+            }
+            
+            log.info("Batch upload request processed: {} of {} jobs accepted", admissions.stream()
+                    .filter(admission -> admission == IUploadDispatchService.Admission.ACCEPTED).count(), jobs.size());
+            
+            return ResponseEntity.status(HttpStatus.ACCEPTED)
+                    .body(Map.of("data", uploadRequestMapper.toBatchResponseDto(Arrays.asList(results))));
+            
+        } catch (IllegalArgumentException e) {
+            log.warn("Invalid batch upload request: {}", e.getMessage());
+            return ResponseEntity.badRequest()
+                    .body(Map.of("errors", List.of(e.getMessage())));
+        } catch (Exception e) {
+            log.error("Failed to process batch upload request", e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(Map.of("errors", List.of("Failed to process batch upload request: " + e.getMessage())));
+        }
+    }
+    
+    private UploadBatchJobDto rejectedJob(UploadBatchJob job, UploadBatchJobDto.Status status, String error,
+                                          Long retryAfterSeconds) {
+        return UploadBatchJobDto.builder()
+                .index(job.getIndex())
+                .status(status)
+                .error(error)
+                .retryAfterSeconds(retryAfterSeconds)
+                .build();
+    }
 }
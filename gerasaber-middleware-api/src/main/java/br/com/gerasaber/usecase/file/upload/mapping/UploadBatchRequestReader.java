@@ -0,0 +1,78 @@
+package br.com.gerasaber.usecase.file.upload.mapping;
+
+import br.com.gerasaber.usecase.file.upload.contract.UploadBatchJob;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.multipart.MultipartHttpServletRequest;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.SortedSet;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Reader for batch upload requests.
+ * Groups the {@code jobs[N].files} and {@code jobs[N].promptDescription} parts of a multipart request by job index;
+ * the file parts themselves stay where the container spooled them.
+ * <p>
+ * The request is read through the container's multipart support rather than as a stream of parts, so the whole body
+ * has been received before the first job is looked at. Memory stays bounded all the same: parts above
+ * {@code spring.servlet.multipart.file-size-threshold} are written to {@code storage.temp-path} while the body
+ * arrives, which is also where dispatch spools them, and the body is capped by
+ * {@code spring.servlet.multipart.max-request-size}.
+ */
+@Component
+public class UploadBatchRequestReader {
+    
+    private static final Pattern JOB_FILES = Pattern.compile("jobs\\[(\\d{1,9})]\\.files");
+    private static final Pattern JOB_PROMPT = Pattern.compile("jobs\\[(\\d{1,9})]\\.promptDescription");
+    
+    @Value("${upload.batch.max-jobs:50}")
+    private int maxJobs;
+    
+    /**
+     * @param request the multipart batch request
+     * @return the jobs of the batch ordered by index, each with the files and prompt description it was sent with
+     * @throws IllegalArgumentException if the batch has more than {@code upload.batch.max-jobs} jobs
+     */
+    public List<UploadBatchJob> read(MultipartHttpServletRequest request) {
+        SortedMap<Integer, List<MultipartFile>> files = new TreeMap<>();
+        SortedMap<Integer, String> prompts = new TreeMap<>();
+        
+        for (Map.Entry<String, List<MultipartFile>> part : request.getMultiFileMap().entrySet()) {
+            Matcher matcher = JOB_FILES.matcher(part.getKey());
+            if (matcher.matches()) {
+                files.computeIfAbsent(Integer.parseInt(matcher.group(1)), index -> new ArrayList<>())
+                        .addAll(part.getValue());
+            }
+        }
+        for (Map.Entry<String, String[]> parameter : request.getParameterMap().entrySet()) {
+            Matcher matcher = JOB_PROMPT.matcher(parameter.getKey());
+            if (matcher.matches() && parameter.getValue().length > 0) {
+                prompts.put(Integer.parseInt(matcher.group(1)), parameter.getValue()[0]);
+            }
+        }
+        
+        SortedSet<Integer> indexes = new TreeSet<>(files.keySet());
+        indexes.addAll(prompts.keySet());
+        if (indexes.size() > maxJobs) {
+            throw new IllegalArgumentException("A batch may contain at most " + maxJobs + " jobs");
+        }
+        
+        List<UploadBatchJob> batch = new ArrayList<>(indexes.size());
+        for (Integer index : indexes) {
+            batch.add(UploadBatchJob.builder()
+                    .index(index)
+                    .files(files.getOrDefault(index, List.of()))
+                    .promptDescription(prompts.get(index))
+                    .build());
+        }
+        return batch;
+    }
+}
@@ -1,10 +1,20 @@
 package br.com.gerasaber.usecase.file.upload.mapping;
 
 import br.com.gerasaber.domain.entity.UploadRequest;
+import br.com.gerasaber.domain.port.IPipelineMetricsPort;
+import br.com.gerasaber.usecase.file.upload.contract.UploadBatchJobDto;
+import br.com.gerasaber.usecase.file.upload.contract.UploadBatchResponseDto;
 import br.com.gerasaber.usecase.file.upload.contract.UploadResponseDto;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 import org.springframework.web.multipart.MultipartFile;
 
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
@@ -12,32 +22,48 @@ import java.util.UUID;
 
 /**
  * Mapper for converting between domain objects and DTOs in the upload use case.
+ * File contents are spooled to the temporary storage path instead of being read into memory.
  */
+@Slf4j
 @Component
+@RequiredArgsConstructor
 public class UploadRequestMapper {
     
-    public UploadRequest toDomain(List<MultipartFile> files, String promptDescription) {
+    private final IPipelineMetricsPort pipelineMetricsPort;
+    
+    @Value("${storage.temp-path:/tmp/middleware/files}")
+    private String tempStoragePath;
+    
+    public UploadRequest toDomain(List<MultipartFile> files, String promptDescription, String clientId) {
+        String requestId = UUID.randomUUID().toString();
         List<UploadRequest.FilePart> fileParts = new ArrayList<>();
+        long start = pipelineMetricsPort.start(IPipelineMetricsPort.Stage.CONVERSION);
         
         for (MultipartFile file : files) {
             try {
                 UploadRequest.FilePart filePart = UploadRequest.FilePart.builder()
                         .originalFilename(file.getOriginalFilename())
                         .contentType(file.getContentType())
-                        .content(file.getBytes())
+                        .contentPath(spool(file, requestId))
                         .size(file.getSize())
                         .build();
                 fileParts.add(filePart);
             } catch (Exception e) {
+                discardSpooledFiles(fileParts);
+                pipelineMetricsPort.stop(IPipelineMetricsPort.Stage.CONVERSION, start, IPipelineMetricsPort.Outcome.FAILURE);
                 throw new RuntimeException("Failed to process file: " + file.getOriginalFilename(), e);
             }
         }
         
+        pipelineMetricsPort.stop(IPipelineMetricsPort.Stage.CONVERSION, start, IPipelineMetricsPort.Outcome.SUCCESS);
+        fileParts.forEach(filePart -> pipelineMetricsPort.recordBytesIn(filePart.getOriginalFilename(), filePart.getSize()));
+        
         return UploadRequest.builder()
                 .files(fileParts)
                 .promptDescription(promptDescription)
                 .timestamp(LocalDateTime.now())
-                .requestId(UUID.randomUUID().toString())
+                .requestId(requestId)
+                .clientId(clientId)
                 .build();
     }
     
@@ -48,4 +74,43 @@ public class UploadRequestMapper {
                 .requestId(uploadRequest.getRequestId())
                 .build();
     }
+    
+    public UploadBatchJobDto toAcceptedJobDto(int index, UploadRequest uploadRequest) {
+        return UploadBatchJobDto.builder()
+                .index(index)
+                .status(UploadBatchJobDto.Status.ACCEPTED)
+                .requestId(uploadRequest.getRequestId())
+                .build();
+    }
+    
+    public UploadBatchResponseDto toBatchResponseDto(List<UploadBatchJobDto> jobs) {
+        int accepted = (int) jobs.stream().filter(job -> job.getStatus() == UploadBatchJobDto.Status.ACCEPTED).count();
+        return UploadBatchResponseDto.builder()
+                .message(accepted + " of " + jobs.size() + " jobs accepted for processing")
+                .timestamp(LocalDateTime.now())
+                .accepted(accepted)
+                .jobs(jobs)
+                .build();
+    }
+    
+    private Path spool(MultipartFile file, String requestId) throws IOException {
+        Path spoolDirectory = Paths.get(tempStoragePath);
+        Files.createDirectories(spoolDirectory);
+        
+        // Parts above the multipart threshold already sit in the same directory, so this is a rename;
+        // smaller parts are held in memory by the container and written out here
+        Path spoolFile = Files.createTempFile(spoolDirectory, requestId + "-", ".part");
+        file.transferTo(spoolFile.toFile());
+        return spoolFile;
+    }
+    
+    private void discardSpooledFiles(List<UploadRequest.FilePart> fileParts) {
+        for (UploadRequest.FilePart filePart : fileParts) {
+            try {
+                Files.deleteIfExists(filePart.getContentPath());
+            } catch (IOException e) {
+                log.warn("Failed to delete spooled file: {}", filePart.getContentPath(), e);
+            }
+        }
+    }
 }
@@ -0,0 +1,137 @@
+package br.com.gerasaber.usecase.file.upload.service;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.time.Duration;
+
+/**
+ * Count-based circuit breaker over the outcomes of the most recent calls.
+ * The breaker opens when the failure rate of the window reaches the threshold, rejects calls for the open
+ * duration, and then lets a few probe calls through; it closes once they all succeed and reopens on a failure.
+ */
+@Slf4j
+final class CircuitBreaker {
+    
+    enum State {
+        CLOSED,
+        OPEN,
+        HALF_OPEN
+    }
+    
+    enum Admission {
+        ADMITTED,
+        PROBE,
+        REJECTED
+    }
+    
+    private final String name;
+    private final double failureRateThreshold;
+    private final int minimumCalls;
+    private final long openDurationNanos;
+    private final int halfOpenCalls;
+    private final boolean[] outcomes;
+    
+    private State state = State.CLOSED;
+    private int recorded;
+    private int next;
+    private int failures;
+    private long openUntilNanos;
+    private int probesInFlight;
+    private int probeSuccesses;
+    
+    CircuitBreaker(String name, int windowSize, int minimumCalls, double failureRateThreshold,
+                   Duration openDuration, int halfOpenCalls) {
+        this.name = name;
+        this.outcomes = new boolean[windowSize];
+        this.minimumCalls = minimumCalls;
+        this.failureRateThreshold = failureRateThreshold;
+        this.openDurationNanos = openDuration.toNanos();
+        this.halfOpenCalls = halfOpenCalls;
+    }
+    
+    synchronized Admission tryAcquire() {
+        if (state == State.OPEN) {
+            if (System.nanoTime() - openUntilNanos < 0) {
+                return Admission.REJECTED;
+            }
+            transitionTo(State.HALF_OPEN);
+        }
+        if (state == State.HALF_OPEN) {
+            if (probesInFlight >= halfOpenCalls) {
+                return Admission.REJECTED;
+            }
+            probesInFlight++;
+            return Admission.PROBE;
+        }
+        return Admission.ADMITTED;
+    }
+    
+    synchronized void onResult(Admission admission, boolean failure) {
+        if (admission == Admission.PROBE) {
+            if (state != State.HALF_OPEN) {
+                return;
+            }
+            probesInFlight--;
+            if (failure) {
+                open();
+            } else if (++probeSuccesses >= halfOpenCalls) {
+                transitionTo(State.CLOSED);
+            }
+            return;
+        }
+        
+        // Calls admitted before the breaker opened no longer count
+        if (state != State.CLOSED) {
+            return;
+        }
+        if (recorded == outcomes.length && outcomes[next]) {
+            failures--;
+        }
+        outcomes[next] = failure;
+        if (failure) {
+            failures++;
+        }
+        next = (next + 1) % outcomes.length;
+        recorded = Math.min(recorded + 1, outcomes.length);
+        
+        if (recorded >= minimumCalls && getFailureRate() >= failureRateThreshold) {
+            open();
+        }
+    }
+    
+    synchronized void cancel(Admission admission) {
+        if (admission == Admission.PROBE && state == State.HALF_OPEN) {
+            probesInFlight--;
+        }
+    }
+    
+    synchronized State getState() {
+        return state;
+    }
+    
+    synchronized double getFailureRate() {
+        return recorded == 0 ? 0 : 100.0 * failures / recorded;
+    }
+    
+    synchronized long nanosUntilHalfOpen() {
+        return state == State.OPEN ? Math.max(0, openUntilNanos - System.nanoTime()) : 0;
+    }
+    
+    private void open() {
+        openUntilNanos = System.nanoTime() + openDurationNanos;
+        transitionTo(State.OPEN);
+    }
+    
+    private void transitionTo(State target) {
+        log.warn("Circuit breaker '{}' changed from {} to {} (failure rate {}%)",
+                name, state, target, String.format("%.1f", getFailureRate()));
+        state = target;
+        probesInFlight = 0;
+        probeSuccesses = 0;
+        if (target == State.CLOSED) {
+            recorded = 0;
+            next = 0;
+            failures = 0;
+        }
+    }
+}
@@ -0,0 +1,101 @@
+package br.com.gerasaber.usecase.file.upload.service;
+
+import br.com.gerasaber.domain.port.IPipelineMetricsPort;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+
+/**
+ * Token-bucket rate limiting keyed by client identity.
+ * Buckets are lock-free and created on first use; buckets of clients that stay idle longer than
+ * {@code upload.clients.idle-expiry} are dropped, which is safe because an idle bucket is full anyway.
+ * At most {@code upload.clients.max-clients} buckets are kept, so spoofed identities cannot grow the cache.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ClientRateLimitService implements IClientRateLimitService {
+    
+    private final UploadClientProperties properties;
+    private final IPipelineMetricsPort pipelineMetricsPort;
+    
+    private Cache<String, TokenBucket> buckets;
+    
+    @PostConstruct
+    void init() {
+        requireValid("defaults", properties.getDefaults());
+        properties.getTenants().forEach((tenant, limit) -> requireValid("tenants." + tenant, limit));
+        
+        buckets = Caffeine.newBuilder()
+                .maximumSize(properties.getMaxClients())
+                .expireAfterAccess(properties.getIdleExpiry())
+                .build();
+        log.info("Client rate limiting {} with {} configured tenants and {} trusted proxies",
+                properties.isEnabled() ? "enabled" : "disabled", properties.getTenants().size(),
+                properties.getTrustedProxies().size());
+    }
+    
+    @Override
+    public String resolveClientId(String principalName, String identityHeader, String remoteAddress) {
+        if (principalName != null && !principalName.isBlank()) {
+            return principalName;
+        }
+        if (identityHeader != null && !identityHeader.isBlank() && properties.getTrustedProxies().contains(remoteAddress)) {
+            return identityHeader.trim();
+        }
+        return remoteAddress;
+    }
+    
+    @Override
+    public String identityHeader() {
+        return properties.getIdentityHeader();
+    }
+    
+    @Override
+    public Decision tryAcquire(String clientId) {
+        if (!properties.isEnabled()) {
+            return Decision.admit();
+        }
+        
+        TokenBucket bucket = buckets.get(clientId, id -> {
+            UploadClientProperties.Limit limit = limitOf(id);
+            return new TokenBucket(limit.getRequestsPerSecond(), limit.getBurst(), System.nanoTime());
+        });
+        long waitNanos = bucket.tryAcquire(System.nanoTime());
+        if (waitNanos == 0) {
+            return Decision.admit();
+        }
+        
+        pipelineMetricsPort.recordRejection(tenantOf(clientId), IPipelineMetricsPort.Rejection.RATE_LIMITED);
+        return new Decision(false, Duration.ofNanos(waitNanos));
+    }
+    
+    @Override
+    public String tenantOf(String clientId) {
+        return clientId != null && properties.getTenants().containsKey(clientId)
+                ? clientId
+                : UploadClientProperties.DEFAULT_TENANT;
+    }
+    
+    @Override
+    public int weightOf(String clientId) {
+        return limitOf(clientId).getWeight();
+    }
+    
+    private static void requireValid(String name, UploadClientProperties.Limit limit) {
+        if (!(limit.getRequestsPerSecond() > 0) || limit.getBurst() < 1 || limit.getWeight() < 1) {
+            throw new IllegalStateException("upload.clients." + name
+                    + " needs requests-per-second > 0, burst >= 1 and weight >= 1");
+        }
+    }
+    
+    private UploadClientProperties.Limit limitOf(String clientId) {
+        UploadClientProperties.Limit limit = clientId != null ? properties.getTenants().get(clientId) : null;
+        return limit != null ? limit : properties.getDefaults();
+    }
+}
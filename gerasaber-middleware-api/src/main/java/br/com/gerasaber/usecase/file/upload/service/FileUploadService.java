@@ -4,12 +4,13 @@ import br.com.gerasaber.domain.entity.UploadRequest;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.http.*;
 import org.springframework.stereotype.Service;
 import org.springframework.util.LinkedMultiValueMap;
 import org.springframework.util.MultiValueMap;
 import org.springframework.web.client.RestTemplate;
-import org.springframework.core.io.ByteArrayResource;
+import org.springframework.core.io.FileSystemResource;
 
 import java.util.List;
 
@@ -20,6 +21,7 @@ import java.util.List;
 @Slf4j
 @Service
 @RequiredArgsConstructor
+@ConditionalOnProperty(name = "n8n.engine", havingValue = "rest-template", matchIfMissing = true)
 public class FileUploadService implements IFileUploadService {
     
     private final RestTemplate restTemplate;
@@ -62,12 +64,12 @@ public class FileUploadService implements IFileUploadService {
         }
     }
     
-    private MultiValueMap<String, Object> buildFormData(UploadRequest uploadRequest) {
+    MultiValueMap<String, Object> buildFormData(UploadRequest uploadRequest) {
         MultiValueMap<String, Object> formData = new LinkedMultiValueMap<>();
         
-        // Add files using ByteArrayResource
+        // Add files as spooled resources so they are streamed to n8n instead of buffered
         for (UploadRequest.FilePart file : uploadRequest.getFiles()) {
-            ByteArrayResource fileResource = new ByteArrayResource(file.getContent()) {
+            FileSystemResource fileResource = new FileSystemResource(file.getContentPath()) {
                 @Override
                 public String getFilename() {
                     return file.getOriginalFilename();
@@ -0,0 +1,93 @@
+package br.com.gerasaber.usecase.file.upload.service;
+
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Service guarding calls to n8n with a circuit breaker and an adaptive concurrency limiter.
+ * While n8n is unhealthy the breaker holds callers back instead of letting them wait out the read timeout;
+ * the jobs stay in the dispatch queue and the outbox until probe calls show that n8n has recovered.
+ * Calls slower than the slow-call threshold count as failures for the breaker.
+ */
+@Slf4j
+@Service
+public class ForwardGuardService implements IForwardGuardService {
+    
+    private static final long MAX_REJECTED_WAIT_NANOS = TimeUnit.SECONDS.toNanos(1);
+    
+    @Value("${upload.dispatch.concurrency:8}")
+    private int maxLimit;
+    
+    @Value("${n8n.limiter.min-limit:1}")
+    private int minLimit;
+    
+    @Value("${n8n.limiter.smoothing:0.2}")
+    private double smoothing;
+    
+    @Value("${n8n.limiter.tolerance:1.5}")
+    private double tolerance;
+    
+    @Value("${n8n.breaker.window-size:20}")
+    private int windowSize;
+    
+    @Value("${n8n.breaker.minimum-calls:10}")
+    private int minimumCalls;
+    
+    @Value("${n8n.breaker.failure-rate-threshold:50}")
+    private double failureRateThreshold;
+    
+    @Value("${n8n.breaker.slow-call-threshold:30s}")
+    private Duration slowCallThreshold;
+    
+    @Value("${n8n.breaker.open-duration:30s}")
+    private Duration openDuration;
+    
+    @Value("${n8n.breaker.half-open-calls:2}")
+    private int halfOpenCalls;
+    
+    private GradientConcurrencyLimiter limiter;
+    private CircuitBreaker breaker;
+    
+    @PostConstruct
+    void init() {
+        limiter = new GradientConcurrencyLimiter(minLimit, maxLimit, maxLimit, smoothing, tolerance);
+        breaker = new CircuitBreaker("n8n", windowSize, minimumCalls, failureRateThreshold, openDuration, halfOpenCalls);
+    }
+    
+    @Override
+    public ForwardPermit acquire() throws InterruptedException {
+        CircuitBreaker.Admission admission;
+        while ((admission = breaker.tryAcquire()) == CircuitBreaker.Admission.REJECTED) {
+            TimeUnit.NANOSECONDS.sleep(Math.max(1, Math.min(breaker.nanosUntilHalfOpen(), MAX_REJECTED_WAIT_NANOS)));
+        }
+        
+        try {
+            limiter.acquire();
+        } catch (InterruptedException e) {
+            breaker.cancel(admission);
+            throw e;
+        }
+        return new Permit(admission, System.nanoTime());
+    }
+    
+    @Override
+    public void release(ForwardPermit forwardPermit, boolean success) {
+        Permit permit = (Permit) forwardPermit;
+        long rttNanos = System.nanoTime() - permit.startNanos();
+        limiter.release(rttNanos, !success);
+        breaker.onResult(permit.admission(), !success || rttNanos > slowCallThreshold.toNanos());
+    }
+    
+    @Override
+    public Snapshot snapshot() {
+        return new Snapshot(limiter.getLimit(), limiter.getInFlight(), breaker.getState().name(), breaker.getFailureRate());
+    }
+    
+    private record Permit(CircuitBreaker.Admission admission, long startNanos) implements ForwardPermit {
+    }
+}
@@ -0,0 +1,97 @@
+package br.com.gerasaber.usecase.file.upload.service;
+
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Adaptive concurrency limit derived from observed round-trip times, after the gradient algorithm of
+ * Netflix's concurrency-limits library.
+ * <p>
+ * A long-term average RTT tracks the latency n8n normally has; each sample compares it with the latest RTT.
+ * While latency stays within the tolerance the limit grows by roughly its square root, and as latency rises
+ * above the long-term average the limit shrinks in proportion. Failed calls cut the limit multiplicatively.
+ */
+final class GradientConcurrencyLimiter {
+    
+    private static final double BACKOFF_RATIO = 0.9;
+    private static final double LONG_RTT_WINDOW = 600;
+    
+    private final int minLimit;
+    private final int maxLimit;
+    private final double smoothing;
+    private final double tolerance;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition available = lock.newCondition();
+    
+    private double limit;
+    private int inFlight;
+    private double longRttNanos;
+    
+    GradientConcurrencyLimiter(int minLimit, int maxLimit, int initialLimit, double smoothing, double tolerance) {
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.smoothing = smoothing;
+        this.tolerance = tolerance;
+        this.limit = Math.max(minLimit, Math.min(maxLimit, initialLimit));
+    }
+    
+    void acquire() throws InterruptedException {
+        lock.lock();
+        try {
+            while (inFlight >= (int) limit) {
+                available.await();
+            }
+            inFlight++;
+        } finally {
+            lock.unlock();
+        }
+    }
+    
+    void release(long rttNanos, boolean dropped) {
+        lock.lock();
+        try {
+            int inFlightAtSample = inFlight;
+            inFlight--;
+            onSample(rttNanos, inFlightAtSample, dropped);
+            available.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+    
+    int getLimit() {
+        lock.lock();
+        try {
+            return (int) limit;
+        } finally {
+            lock.unlock();
+        }
+    }
+    
+    int getInFlight() {
+        lock.lock();
+        try {
+            return inFlight;
+        } finally {
+            lock.unlock();
+        }
+    }
+    
+    private void onSample(long rttNanos, int inFlightAtSample, boolean dropped) {
+        if (dropped) {
+            limit = Math.max(minLimit, limit * BACKOFF_RATIO);
+            return;
+        }
+        
+        longRttNanos = longRttNanos == 0 ? rttNanos : longRttNanos + (rttNanos - longRttNanos) / LONG_RTT_WINDOW;
+        
+        // A limit that is far from being used says nothing about how much more n8n can take
+        if (inFlightAtSample < limit / 2) {
+            return;
+        }
+        
+        double gradient = Math.max(0.5, Math.min(1.0, tolerance * longRttNanos / rttNanos));
+        double newLimit = limit * gradient + Math.sqrt(limit);
+        limit = Math.max(minLimit, Math.min(maxLimit, limit * (1 - smoothing) + newLimit * smoothing));
+    }
+}
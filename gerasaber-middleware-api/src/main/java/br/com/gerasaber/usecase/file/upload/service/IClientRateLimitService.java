@@ -0,0 +1,59 @@
+package br.com.gerasaber.usecase.file.upload.service;
+
+import java.time.Duration;
+
+/**
+ * Interface for per-client admission control of upload submissions following Clean Architecture principles.
+ * Each client has its own token bucket and a weight that sets its share of dispatch capacity.
+ */
+public interface IClientRateLimitService {
+    
+    /**
+     * Resolves the identity of the client submitting a request.
+     * The identity header is only honoured on requests from a configured trusted proxy.
+     * 
+     * @param principalName the name of the authenticated principal, may be null
+     * @param identityHeader the value of the configured identity header, may be null
+     * @param remoteAddress the remote address of the request
+     * @return the client ID
+     */
+    String resolveClientId(String principalName, String identityHeader, String remoteAddress);
+    
+    /**
+     * @return the name of the request header that trusted proxies use to pass the client identity
+     */
+    String identityHeader();
+    
+    /**
+     * Takes a token from the client's bucket. Rejections are counted in the upload rejection metrics.
+     * 
+     * @param clientId the client submitting an upload
+     * @return the admission decision
+     */
+    Decision tryAcquire(String clientId);
+    
+    /**
+     * @param clientId the client ID, may be null for requests recorded before client IDs existed
+     * @return the configured tenant name of the client, or the default tenant
+     */
+    String tenantOf(String clientId);
+    
+    /**
+     * @param clientId the client ID, may be null
+     * @return the weight of the client in the dispatch scheduler
+     */
+    int weightOf(String clientId);
+    
+    /**
+     * Outcome of an admission attempt.
+     * 
+     * @param admitted true if the upload may be accepted
+     * @param retryAfter how long the client should wait before retrying when not admitted
+     */
+    record Decision(boolean admitted, Duration retryAfter) {
+        
+        static Decision admit() {
+            return new Decision(true, Duration.ZERO);
+        }
+    }
+}
@@ -2,6 +2,8 @@ package br.com.gerasaber.usecase.file.upload.service;
 
 import br.com.gerasaber.domain.entity.UploadRequest;
 
+import java.util.concurrent.CompletableFuture;
+
 /**
  * Interface for file upload service following Clean Architecture principles.
  */
@@ -13,4 +15,20 @@ public interface IFileUploadService {
      * @param uploadRequest the upload request containing files and prompt description
      */
     void processUploadRequest(UploadRequest uploadRequest);
+    
+    /**
+     * Forwards an upload request to the n8n workflow without requiring the caller to wait for the round trip.
+     * Blocking implementations complete the returned future before returning it.
+     * 
+     * @param uploadRequest the upload request containing files and prompt description
+     * @return a future completed once n8n has acknowledged the request
+     */
+    default CompletableFuture<Void> forwardUploadRequest(UploadRequest uploadRequest) {
+        try {
+            processUploadRequest(uploadRequest);
+            return CompletableFuture.completedFuture(null);
+        } catch (RuntimeException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
 }
@@ -0,0 +1,65 @@
+package br.com.gerasaber.usecase.file.upload.service;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Supplier;
+
+/**
+ * Interface for the guard protecting the n8n forward path following Clean Architecture principles.
+ * Every call to n8n must hold a permit, which is granted only while the circuit breaker lets calls through
+ * and the adaptive concurrency limit has room.
+ */
+public interface IForwardGuardService {
+    
+    /**
+     * Waits until a call to n8n may be made.
+     * 
+     * @return the permit for the call, to be passed to {@link #release(ForwardPermit, boolean)}
+     * @throws InterruptedException if the thread is interrupted while waiting
+     */
+    ForwardPermit acquire() throws InterruptedException;
+    
+    /**
+     * Releases a permit and feeds the outcome and latency of the call back to the limiter and the breaker.
+     * 
+     * @param permit the permit returned by {@link #acquire()}
+     * @param success whether n8n accepted the call
+     */
+    void release(ForwardPermit permit, boolean success);
+    
+    /**
+     * Makes a call to n8n while holding a permit, releasing it once the call completes.
+     * 
+     * @param call the call to make
+     * @return the future of the call
+     * @throws InterruptedException if the thread is interrupted while waiting for a permit
+     */
+    default CompletableFuture<Void> guard(Supplier<CompletableFuture<Void>> call) throws InterruptedException {
+        ForwardPermit permit = acquire();
+        CompletableFuture<Void> result;
+        try {
+            result = call.get();
+        } catch (RuntimeException e) {
+            result = CompletableFuture.failedFuture(e);
+        }
+        return result.whenComplete((ignored, error) -> release(permit, error == null));
+    }
+    
+    /**
+     * Returns the current state of the limiter and the breaker.
+     * 
+     * @return a snapshot of the guard state
+     */
+    Snapshot snapshot();
+    
+    /**
+     * Permit for one call to n8n.
+     */
+    interface ForwardPermit {
+    }
+    
+    /**
+     * State of the limiter and the breaker at one point in time; the failure rate is a percentage.
+     */
+    record Snapshot(int limit, int inFlight, String breakerState, double failureRate) {
+    }
+}
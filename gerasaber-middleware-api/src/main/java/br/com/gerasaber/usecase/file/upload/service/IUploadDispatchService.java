@@ -0,0 +1,38 @@
+package br.com.gerasaber.usecase.file.upload.service;
+
+import br.com.gerasaber.domain.entity.UploadRequest;
+
+import java.util.List;
+
+/**
+ * Interface for the upload dispatch service following Clean Architecture principles.
+ * Decouples request acceptance from the forwarding of upload requests to n8n.
+ */
+public interface IUploadDispatchService {
+
+    /**
+     * Enqueues an upload request for asynchronous forwarding to the n8n workflow.
+     *
+     * @param uploadRequest the upload request containing files and prompt description
+     * @return true if the request was accepted, false if the dispatch queue is full
+     */
+    boolean tryDispatch(UploadRequest uploadRequest);
+
+    /**
+     * Enqueues several independent upload requests, as {@link #tryDispatch(UploadRequest)} does for each.
+     * The requests are written to the outbox together, so they share a single durable commit.
+     *
+     * @param uploadRequests the upload requests to enqueue
+     * @return the admission of each request, in the order of the given requests
+     */
+    List<Admission> tryDispatchAll(List<UploadRequest> uploadRequests);
+
+    /**
+     * Outcome of enqueueing one request of a batch.
+     */
+    enum Admission {
+        ACCEPTED,
+        QUEUE_FULL,
+        FAILED
+    }
+}
@@ -0,0 +1,29 @@
+package br.com.gerasaber.usecase.file.upload.service;
+
+import br.com.gerasaber.domain.entity.UploadRequest;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Interface for the upload fan-out service following Clean Architecture principles.
+ * Multi-file uploads are forwarded to n8n as one sub-job per file instead of a single multipart call.
+ */
+public interface IUploadFanOutService {
+    
+    /**
+     * Tells whether an upload request should be fanned out.
+     * 
+     * @param uploadRequest the upload request to forward
+     * @return true if fan-out is enabled and the request has more than one file
+     */
+    boolean appliesTo(UploadRequest uploadRequest);
+    
+    /**
+     * Forwards every file of an upload request as its own sub-job.
+     * Parts already forwarded by a previous attempt are not sent again.
+     * 
+     * @param uploadRequest the upload request to forward
+     * @return a future completed once every part has been acknowledged by n8n, or failed if any part was not
+     */
+    CompletableFuture<Void> forward(UploadRequest uploadRequest);
+}
@@ -0,0 +1,20 @@
+package br.com.gerasaber.usecase.file.upload.service;
+
+import br.com.gerasaber.domain.entity.UploadRequest;
+
+/**
+ * Interface for the upload preprocessing service following Clean Architecture principles.
+ * Shrinks the files of an upload request before they are forwarded to n8n.
+ */
+public interface IUploadPreprocessingService {
+    
+    /**
+     * Replaces the files of an upload request with their extracted text or compressed form, depending on the
+     * configured mode. The spooled originals of replaced files are deleted; files that cannot be
+     * preprocessed are kept as they are.
+     * 
+     * @param uploadRequest the upload request to preprocess
+     * @return the upload request to forward, which is the given request when nothing was replaced
+     */
+    UploadRequest preprocess(UploadRequest uploadRequest);
+}
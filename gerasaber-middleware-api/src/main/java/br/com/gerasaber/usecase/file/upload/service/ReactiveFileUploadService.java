@@ -0,0 +1,102 @@
+package br.com.gerasaber.usecase.file.upload.service;
+
+import br.com.gerasaber.domain.entity.UploadRequest;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.MediaType;
+import org.springframework.http.client.MultipartBodyBuilder;
+import org.springframework.stereotype.Service;
+import org.springframework.util.MultiValueMap;
+import org.springframework.web.reactive.function.BodyInserters;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Flux;
+import reactor.core.scheduler.Schedulers;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Non-blocking implementation of the upload use case built on WebClient and Reactor Netty.
+ * Spooled files are streamed to n8n as DataBuffer chunks on demand, so an in-flight forward holds no thread.
+ * The returned future completes on a bounded elastic thread rather than the Netty event loop, since callers
+ * continue with blocking work such as outbox acknowledgments and spool cleanup.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "n8n.engine", havingValue = "web-client")
+public class ReactiveFileUploadService implements IFileUploadService {
+    
+    private final WebClient n8nWebClient;
+    
+    @Value("${n8n.base-url}")
+    private String n8nBaseUrl;
+    
+    @Value("${n8n.upload-endpoint}")
+    private String n8nUploadEndpoint;
+    
+    @Value("${n8n.auth-token:}")
+    private String n8nAuthToken;
+    
+    @Value("${n8n.web-client.buffer-size:65536}")
+    private int bufferSize;
+    
+    @Override
+    public void processUploadRequest(UploadRequest uploadRequest) {
+        forwardUploadRequest(uploadRequest).join();
+    }
+    
+    @Override
+    public CompletableFuture<Void> forwardUploadRequest(UploadRequest uploadRequest) {
+        log.info("Processing upload request with {} files", uploadRequest.getFiles().size());
+        
+        return n8nWebClient.post()
+                .uri(n8nBaseUrl + n8nUploadEndpoint)
+                .headers(headers -> {
+                    // Add authorization header if token is provided
+                    if (!n8nAuthToken.isEmpty()) {
+                        headers.setBearerAuth(n8nAuthToken);
+                    }
+                })
+                .contentType(MediaType.MULTIPART_FORM_DATA)
+                .body(BodyInserters.fromMultipartData(buildMultipartBody(uploadRequest)))
+                .retrieve()
+                .toEntity(String.class)
+                .doOnNext(response -> log.info("Successfully forwarded request to n8n. Response status: {}, Body: {}",
+                        response.getStatusCode(), response.getBody()))
+                .doOnError(e -> log.error("Failed to forward request to n8n", e))
+                .onErrorMap(e -> new RuntimeException("Failed to process upload request", e))
+                .publishOn(Schedulers.boundedElastic())
+                .then()
+                .toFuture();
+    }
+    
+    private MultiValueMap<String, HttpEntity<?>> buildMultipartBody(UploadRequest uploadRequest) {
+        MultipartBodyBuilder builder = new MultipartBodyBuilder();
+        
+        // Add files as lazily read DataBuffer streams over the spooled content
+        for (UploadRequest.FilePart file : uploadRequest.getFiles()) {
+            Flux<DataBuffer> content = DataBufferUtils.read(
+                    file.getContentPath(), DefaultDataBufferFactory.sharedInstance, bufferSize);
+            MultipartBodyBuilder.PartBuilder part = builder.asyncPart("files", content, DataBuffer.class)
+                    .filename(file.getOriginalFilename());
+            if (file.getContentType() != null) {
+                part.contentType(MediaType.parseMediaType(file.getContentType()));
+            }
+        }
+        
+        // Add prompt description
+        builder.part("promptDescription", uploadRequest.getPromptDescription());
+        
+        // Add metadata
+        builder.part("requestId", uploadRequest.getRequestId());
+        builder.part("timestamp", uploadRequest.getTimestamp().toString());
+        
+        return builder.build();
+    }
+}
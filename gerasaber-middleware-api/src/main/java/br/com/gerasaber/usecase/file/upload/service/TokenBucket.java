@@ -0,0 +1,49 @@
+package br.com.gerasaber.usecase.file.upload.service;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Lock-free token bucket implemented with the generic cell rate algorithm.
+ * <p>
+ * Instead of a token count the bucket keeps the theoretical arrival time of the next request: each admitted
+ * request pushes it one emission interval further, and a request is admitted while the arrival time is no more
+ * than {@code burst - 1} intervals ahead of now. The whole state is a single long updated by compare-and-set.
+ */
+final class TokenBucket {
+    
+    private final long intervalNanos;
+    private final long toleranceNanos;
+    private final AtomicLong theoreticalArrival;
+    
+    TokenBucket(double requestsPerSecond, int burst, long nowNanos) {
+        if (!(requestsPerSecond > 0) || Double.isInfinite(requestsPerSecond)) {
+            throw new IllegalArgumentException("requestsPerSecond must be a positive number: " + requestsPerSecond);
+        }
+        if (burst < 1) {
+            throw new IllegalArgumentException("burst must be at least 1: " + burst);
+        }
+        this.intervalNanos = (long) (1_000_000_000L / requestsPerSecond);
+        this.toleranceNanos = intervalNanos * (burst - 1);
+        this.theoreticalArrival = new AtomicLong(nowNanos);
+    }
+    
+    /**
+     * Takes a token if one is available.
+     * 
+     * @param nowNanos the current {@link System#nanoTime()}
+     * @return zero if the request is admitted, otherwise the nanoseconds until a token becomes available
+     */
+    long tryAcquire(long nowNanos) {
+        while (true) {
+            long arrival = theoreticalArrival.get();
+            long start = arrival - nowNanos > 0 ? arrival : nowNanos;
+            long wait = start - nowNanos - toleranceNanos;
+            if (wait > 0) {
+                return wait;
+            }
+            if (theoreticalArrival.compareAndSet(arrival, start + intervalNanos)) {
+                return 0;
+            }
+        }
+    }
+}
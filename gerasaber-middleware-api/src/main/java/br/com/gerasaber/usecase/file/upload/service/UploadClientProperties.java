@@ -0,0 +1,49 @@
+package br.com.gerasaber.usecase.file.upload.service;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Per-client admission limits for upload submissions, bound from {@code upload.clients}.
+ * Clients are identified by their authenticated principal, by the {@link #identityHeader} value when the request
+ * comes from one of the {@link #trustedProxies}, or otherwise by their remote address.
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "upload.clients")
+public class UploadClientProperties {
+    
+    public static final String DEFAULT_TENANT = "default";
+    
+    private boolean enabled = false;
+    private String identityHeader = "X-Client-Id";
+    
+    /**
+     * Remote addresses allowed to set {@link #identityHeader}, e.g. the reverse proxy that authenticates clients.
+     * The header is ignored on requests from any other address, so clients cannot pick their own bucket.
+     */
+    private List<String> trustedProxies = new ArrayList<>();
+    
+    private Duration idleExpiry = Duration.ofMinutes(10);
+    private long maxClients = 100_000;
+    private Limit defaults = new Limit();
+    
+    /**
+     * Limits for named clients, keyed by client identity. Clients not listed here get {@link #defaults}.
+     */
+    private Map<String, Limit> tenants = new HashMap<>();
+    
+    @Data
+    public static class Limit {
+        private double requestsPerSecond = 5;
+        private int burst = 20;
+        private int weight = 1;
+    }
+}
@@ -0,0 +1,313 @@
+package br.com.gerasaber.usecase.file.upload.service;
+
+import br.com.gerasaber.domain.entity.StoredFile;
+import br.com.gerasaber.domain.entity.UploadRequest;
+import br.com.gerasaber.domain.port.IPipelineMetricsPort;
+import br.com.gerasaber.domain.port.IUploadOutboxPort;
+import br.com.gerasaber.usecase.cache.service.IResultCacheService;
+import br.com.gerasaber.usecase.job.service.IJobStateService;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Service responsible for dispatching accepted upload requests to n8n in the background.
+ * Requests are written to the outbox, held in a bounded queue and forwarded by a limited number of
+ * concurrent workers, so the upload endpoint can acknowledge a request without waiting for the n8n round trip.
+ * The queue is shared fairly between clients in proportion to their configured weights.
+ * Failed forwards are re-queued after an exponential backoff, without holding a worker in the meantime; requests
+ * that still fail after the last attempt are moved to the outbox dead letters. Requests left in the outbox are
+ * replayed on startup.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class UploadDispatchService implements IUploadDispatchService {
+
+    private final IFileUploadService fileUploadService;
+    private final IUploadFanOutService uploadFanOutService;
+    private final IForwardGuardService forwardGuardService;
+    private final IUploadPreprocessingService uploadPreprocessingService;
+    private final IResultCacheService resultCacheService;
+    private final IClientRateLimitService clientRateLimitService;
+    private final IUploadOutboxPort uploadOutboxPort;
+    private final IJobStateService jobStateService;
+    private final IPipelineMetricsPort pipelineMetricsPort;
+
+    @Qualifier("uploadDispatchExecutor")
+    private final ThreadPoolTaskExecutor uploadDispatchExecutor;
+
+    @Value("${upload.dispatch.queue-capacity:100}")
+    private int queueCapacity;
+
+    @Value("${upload.dispatch.concurrency:8}")
+    private int concurrency;
+
+    @Value("${upload.dispatch.retry.max-attempts:5}")
+    private int maxAttempts;
+
+    @Value("${upload.dispatch.retry.initial-backoff:1s}")
+    private Duration initialBackoff;
+
+    @Value("${upload.dispatch.retry.max-backoff:1m}")
+    private Duration maxBackoff;
+
+    private final WeightedFairQueue<QueuedUpload> queue = new WeightedFairQueue<>();
+    private Semaphore queueSlots;
+    private Semaphore workerPermits;
+    private Future<?> dispatchLoop;
+
+    @PostConstruct
+    void start() {
+        queueSlots = new Semaphore(queueCapacity);
+        workerPermits = new Semaphore(concurrency);
+        dispatchLoop = uploadDispatchExecutor.submit(this::dispatchLoop);
+        uploadDispatchExecutor.execute(this::replayOutbox);
+        log.info("Upload dispatcher started with queue capacity {} and concurrency {}", queueCapacity, concurrency);
+    }
+
+    @PreDestroy
+    void stop() {
+        dispatchLoop.cancel(true);
+        log.info("Upload dispatcher stopped with {} requests still queued", queue.size());
+    }
+
+    @Override
+    public boolean tryDispatch(UploadRequest uploadRequest) {
+        if (!queueSlots.tryAcquire()) {
+            rejectQueueFull(uploadRequest);
+            return false;
+        }
+
+        try {
+            uploadOutboxPort.append(uploadRequest);
+        } catch (RuntimeException e) {
+            queueSlots.release();
+            discardFiles(uploadRequest);
+            throw e;
+        }
+
+        jobStateService.accept(uploadRequest.getRequestId());
+        enqueue(new QueuedUpload(uploadRequest, true, 1));
+        log.debug("Upload request {} queued for dispatch. Queue depth: {}", uploadRequest.getRequestId(), queue.size());
+        return true;
+    }
+
+    @Override
+    public List<Admission> tryDispatchAll(List<UploadRequest> uploadRequests) {
+        Admission[] admissions = new Admission[uploadRequests.size()];
+        List<UploadRequest> reserved = new ArrayList<>(uploadRequests.size());
+        for (int i = 0; i < uploadRequests.size(); i++) {
+            UploadRequest uploadRequest = uploadRequests.get(i);
+            if (!queueSlots.tryAcquire()) {
+                rejectQueueFull(uploadRequest);
+                admissions[i] = Admission.QUEUE_FULL;
+                continue;
+            }
+            reserved.add(uploadRequest);
+        }
+
+        // Written on the calling thread and committed together, so the batch costs one force instead of one each
+        Set<String> recorded = new HashSet<>();
+        try {
+            uploadOutboxPort.appendAll(reserved).forEach(uploadRequest -> recorded.add(uploadRequest.getRequestId()));
+        } catch (RuntimeException e) {
+            log.error("Failed to write batch of {} upload requests to the outbox", reserved.size(), e);
+        }
+
+        for (int i = 0; i < uploadRequests.size(); i++) {
+            UploadRequest uploadRequest = uploadRequests.get(i);
+            if (admissions[i] != null) {
+                continue;
+            }
+            if (!recorded.contains(uploadRequest.getRequestId())) {
+                queueSlots.release();
+                discardFiles(uploadRequest);
+                admissions[i] = Admission.FAILED;
+                continue;
+            }
+            jobStateService.accept(uploadRequest.getRequestId());
+            enqueue(new QueuedUpload(uploadRequest, true, 1));
+            admissions[i] = Admission.ACCEPTED;
+        }
+        log.debug("{} upload requests of a batch queued for dispatch. Queue depth: {}", recorded.size(), queue.size());
+        return List.of(admissions);
+    }
+
+    private void rejectQueueFull(UploadRequest uploadRequest) {
+        log.warn("Dispatch queue is full, rejecting upload request {}", uploadRequest.getRequestId());
+        pipelineMetricsPort.recordRejection(clientRateLimitService.tenantOf(uploadRequest.getClientId()),
+                IPipelineMetricsPort.Rejection.QUEUE_FULL);
+        discardFiles(uploadRequest);
+    }
+
+    private void replayOutbox() {
+        List<UploadRequest> unacknowledged = uploadOutboxPort.recover();
+        if (unacknowledged.isEmpty()) {
+            return;
+        }
+
+        // Replayed requests were already accepted, so they bypass the admission limit
+        log.info("Replaying {} upload requests from the outbox", unacknowledged.size());
+        for (UploadRequest uploadRequest : unacknowledged) {
+            jobStateService.accept(uploadRequest.getRequestId());
+            enqueue(new QueuedUpload(uploadRequest, false, 1));
+        }
+    }
+
+    private void enqueue(QueuedUpload queued) {
+        String clientId = queued.uploadRequest().getClientId();
+        queue.add(Objects.requireNonNullElse(clientId, UploadClientProperties.DEFAULT_TENANT),
+                clientRateLimitService.weightOf(clientId), queued);
+    }
+
+    private void dispatchLoop() {
+        try {
+            while (!Thread.currentThread().isInterrupted()) {
+                workerPermits.acquire();
+                QueuedUpload queued;
+                try {
+                    queued = queue.take();
+                } catch (InterruptedException e) {
+                    workerPermits.release();
+                    throw e;
+                }
+                if (queued.holdsSlot()) {
+                    queueSlots.release();
+                }
+                uploadDispatchExecutor.execute(() -> dispatch(queued));
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void dispatch(QueuedUpload queued) {
+        UploadRequest uploadRequest = queued.uploadRequest();
+        UploadRequest prepared = null;
+        try {
+            // Retries were already looked up and preprocessed before their first attempt
+            prepared = queued.attempt() > 1 ? uploadRequest : prepare(uploadRequest);
+        } catch (RuntimeException e) {
+            // Preparing again on replay would fail the same way, so the request is set aside
+            log.error("Failed to prepare upload request {}, moving it to the dead letters",
+                    uploadRequest.getRequestId(), e);
+            uploadOutboxPort.deadLetter(uploadRequest.getRequestId(), "Failed to prepare request: " + e.getMessage());
+            jobStateService.markFailed(uploadRequest.getRequestId(), "Failed to prepare request");
+        } finally {
+            // Only a forwarded request keeps its worker until n8n answers
+            if (prepared == null) {
+                complete(uploadRequest);
+            }
+        }
+
+        if (prepared != null) {
+            forward(prepared, queued.attempt());
+        }
+    }
+
+    /**
+     * @return the request to forward, or {@code null} if it was answered from the result cache
+     */
+    private UploadRequest prepare(UploadRequest uploadRequest) {
+        // Fanned-out requests produce one result per part, so only single-result requests are looked up
+        if (!uploadFanOutService.appliesTo(uploadRequest)) {
+            Optional<StoredFile> cached = resultCacheService.findCachedResult(uploadRequest);
+            if (cached.isPresent()) {
+                uploadOutboxPort.acknowledge(uploadRequest.getRequestId());
+                jobStateService.markCompleted(uploadRequest.getRequestId(), cached.get().getPath());
+                return null;
+            }
+        }
+        return uploadPreprocessingService.preprocess(uploadRequest);
+    }
+
+    private void forward(UploadRequest uploadRequest, int attempt) {
+        long start = pipelineMetricsPort.start(IPipelineMetricsPort.Stage.FORWARD);
+        CompletableFuture<Void> forwarding;
+        try {
+            forwarding = uploadFanOutService.appliesTo(uploadRequest)
+                    ? uploadFanOutService.forward(uploadRequest)
+                    : forwardGuardService.guard(() -> fileUploadService.forwardUploadRequest(uploadRequest));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            forwarding = CompletableFuture.failedFuture(e);
+        } catch (Exception e) {
+            forwarding = CompletableFuture.failedFuture(e);
+        }
+
+        // Non-blocking engines complete later, so the worker permit is only released once n8n has answered
+        forwarding.whenComplete((ignored, error) -> {
+            pipelineMetricsPort.stop(IPipelineMetricsPort.Stage.FORWARD, start,
+                    error == null ? IPipelineMetricsPort.Outcome.SUCCESS : IPipelineMetricsPort.Outcome.FAILURE);
+            if (error == null) {
+                uploadRequest.getFiles().forEach(filePart ->
+                        pipelineMetricsPort.recordBytesOut(filePart.getOriginalFilename(), filePart.getSize()));
+                uploadOutboxPort.acknowledge(uploadRequest.getRequestId());
+                jobStateService.markForwarded(uploadRequest.getRequestId());
+                complete(uploadRequest);
+                return;
+            }
+
+            if (attempt < maxAttempts) {
+                Duration backoff = backoff(attempt);
+                log.warn("Forward attempt {} for upload request {} failed, retrying in {}",
+                        attempt, uploadRequest.getRequestId(), backoff);
+                // The worker is freed for other requests during the backoff; adding to the queue never blocks
+                workerPermits.release();
+                CompletableFuture.delayedExecutor(backoff.toMillis(), TimeUnit.MILLISECONDS, Runnable::run)
+                        .execute(() -> enqueue(new QueuedUpload(uploadRequest, false, attempt + 1)));
+                return;
+            }
+
+            log.error("Failed to dispatch upload request {} after {} attempts, moving it to the dead letters",
+                    uploadRequest.getRequestId(), attempt, error);
+            uploadOutboxPort.deadLetter(uploadRequest.getRequestId(), "Failed to forward request to n8n after " + attempt
+                    + " attempts: " + error.getMessage());
+            jobStateService.markFailed(uploadRequest.getRequestId(), "Failed to forward request to n8n");
+            complete(uploadRequest);
+        });
+    }
+
+    private Duration backoff(int attempt) {
+        long millis = initialBackoff.toMillis() << Math.min(attempt - 1, 20);
+        return Duration.ofMillis(Math.min(millis, maxBackoff.toMillis()));
+    }
+
+    private void complete(UploadRequest uploadRequest) {
+        discardFiles(uploadRequest);
+        workerPermits.release();
+    }
+
+    private void discardFiles(UploadRequest uploadRequest) {
+        for (UploadRequest.FilePart filePart : uploadRequest.getFiles()) {
+            try {
+                Files.deleteIfExists(filePart.getContentPath());
+            } catch (IOException e) {
+                log.warn("Failed to delete spooled file: {}", filePart.getContentPath(), e);
+            }
+        }
+    }
+
+    private record QueuedUpload(UploadRequest uploadRequest, boolean holdsSlot, int attempt) {
+    }
+}
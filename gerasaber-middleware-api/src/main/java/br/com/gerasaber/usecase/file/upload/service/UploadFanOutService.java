@@ -0,0 +1,128 @@
+package br.com.gerasaber.usecase.file.upload.service;
+
+import br.com.gerasaber.domain.entity.JobState;
+import br.com.gerasaber.domain.entity.JobStatus;
+import br.com.gerasaber.domain.entity.UploadRequest;
+import br.com.gerasaber.usecase.job.service.IJobStateService;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Semaphore;
+
+/**
+ * Service responsible for fanning multi-file uploads out into one n8n call per file.
+ * Each part runs as a task on the upload part executor, bounded by a per-request and a global parallelism limit.
+ * The dispatch worker takes both permits before it submits a part, so part tasks never wait on them while holding
+ * a pool thread, and the parent completes only when all of its parts have been forwarded. Part results arrive through the
+ * webhook under the part request IDs and are aggregated under the parent job by the job state service.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class UploadFanOutService implements IUploadFanOutService {
+    
+    private static final String PART_SEPARATOR = "-part-";
+    
+    private final IFileUploadService fileUploadService;
+    private final IJobStateService jobStateService;
+    private final IForwardGuardService forwardGuardService;
+    
+    @Qualifier("uploadPartExecutor")
+    private final ThreadPoolTaskExecutor uploadPartExecutor;
+    
+    @Value("${upload.fan-out.enabled:false}")
+    private boolean enabled;
+    
+    @Value("${upload.fan-out.per-request-parallelism:4}")
+    private int perRequestParallelism;
+    
+    @Value("${upload.fan-out.global-parallelism:32}")
+    private int globalParallelism;
+    
+    private Semaphore globalPermits;
+    
+    @PostConstruct
+    void init() {
+        globalPermits = new Semaphore(globalParallelism);
+    }
+    
+    @Override
+    public boolean appliesTo(UploadRequest uploadRequest) {
+        return enabled && uploadRequest.getFiles().size() > 1;
+    }
+    
+    @Override
+    public CompletableFuture<Void> forward(UploadRequest uploadRequest) {
+        List<UploadRequest> parts = split(uploadRequest);
+        jobStateService.fanOut(uploadRequest.getRequestId(), parts.stream().map(UploadRequest::getRequestId).toList());
+        Map<String, JobState> partStates = jobStateService.find(uploadRequest.getRequestId())
+                .map(JobState::getParts)
+                .orElse(Map.of());
+        
+        Semaphore requestPermits = new Semaphore(perRequestParallelism);
+        List<CompletableFuture<Void>> forwarding = new ArrayList<>();
+        for (UploadRequest part : parts) {
+            JobState partState = partStates.get(part.getRequestId());
+            if (partState != null && partState.getStatus() != JobStatus.ACCEPTED) {
+                continue;
+            }
+            forwarding.add(submitPart(part, requestPermits));
+        }
+        
+        log.debug("Fanned out upload request {} into {} parts ({} to forward)",
+                uploadRequest.getRequestId(), parts.size(), forwarding.size());
+        return CompletableFuture.allOf(forwarding.toArray(CompletableFuture[]::new));
+    }
+    
+    private CompletableFuture<Void> submitPart(UploadRequest part, Semaphore requestPermits) {
+        // Waits on the dispatch worker, which is already committed to this request
+        requestPermits.acquireUninterruptibly();
+        globalPermits.acquireUninterruptibly();
+        try {
+            return CompletableFuture.runAsync(() -> forwardPart(part), uploadPartExecutor)
+                    .whenComplete((ignored, error) -> {
+                        globalPermits.release();
+                        requestPermits.release();
+                    });
+        } catch (RuntimeException e) {
+            globalPermits.release();
+            requestPermits.release();
+            throw e;
+        }
+    }
+    
+    private void forwardPart(UploadRequest part) {
+        try {
+            forwardGuardService.guard(() -> fileUploadService.forwardUploadRequest(part)).join();
+            jobStateService.markForwarded(part.getRequestId());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new CompletionException(e);
+        }
+    }
+    
+    private List<UploadRequest> split(UploadRequest uploadRequest) {
+        List<UploadRequest> parts = new ArrayList<>();
+        List<UploadRequest.FilePart> files = uploadRequest.getFiles();
+        for (int i = 0; i < files.size(); i++) {
+            parts.add(UploadRequest.builder()
+                    .files(List.of(files.get(i)))
+                    .promptDescription(uploadRequest.getPromptDescription())
+                    .timestamp(uploadRequest.getTimestamp())
+                    .requestId(uploadRequest.getRequestId() + PART_SEPARATOR + (i + 1))
+                    .clientId(uploadRequest.getClientId())
+                    .build());
+        }
+        return parts;
+    }
+}
@@ -0,0 +1,165 @@
+package br.com.gerasaber.usecase.file.upload.service;
+
+import br.com.gerasaber.domain.entity.UploadRequest;
+import br.com.gerasaber.domain.port.IPipelineMetricsPort;
+import br.com.gerasaber.domain.port.ITextExtractionPort;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.zip.Deflater;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Service responsible for shrinking uploads before they are forwarded to n8n.
+ * In {@code text} mode PDF and DOCX files are replaced by their plain text, since the workflows only use the text;
+ * in {@code gzip} mode every file is sent gzip-compressed. Files of a request are processed in parallel on the
+ * upload part executor, and a file that cannot be processed (e.g. a scanned PDF without text) is forwarded unchanged.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class UploadPreprocessingService implements IUploadPreprocessingService {
+    
+    private static final String TEXT_CONTENT_TYPE = "text/plain";
+    private static final String GZIP_CONTENT_TYPE = "application/gzip";
+    private static final int GZIP_BUFFER_SIZE = 64 * 1024;
+    
+    private final List<ITextExtractionPort> textExtractionPorts;
+    private final IPipelineMetricsPort pipelineMetricsPort;
+    
+    @Qualifier("uploadPartExecutor")
+    private final ThreadPoolTaskExecutor uploadPartExecutor;
+    
+    @Value("${upload.preprocessing.mode:none}")
+    private String mode;
+    
+    @Value("${storage.temp-path:/tmp/middleware/files}")
+    private String tempStoragePath;
+    
+    @Override
+    public UploadRequest preprocess(UploadRequest uploadRequest) {
+        if (!"text".equals(mode) && !"gzip".equals(mode)) {
+            return uploadRequest;
+        }
+        
+        long start = pipelineMetricsPort.start(IPipelineMetricsPort.Stage.PREPROCESSING);
+        List<CompletableFuture<UploadRequest.FilePart>> processing = uploadRequest.getFiles().stream()
+                .map(filePart -> CompletableFuture.supplyAsync(
+                        () -> preprocess(filePart, uploadRequest.getRequestId()), uploadPartExecutor))
+                .toList();
+        List<UploadRequest.FilePart> files = processing.stream().map(CompletableFuture::join).toList();
+        pipelineMetricsPort.stop(IPipelineMetricsPort.Stage.PREPROCESSING, start, IPipelineMetricsPort.Outcome.SUCCESS);
+        
+        if (files.equals(uploadRequest.getFiles())) {
+            return uploadRequest;
+        }
+        return UploadRequest.builder()
+                .files(files)
+                .promptDescription(uploadRequest.getPromptDescription())
+                .timestamp(uploadRequest.getTimestamp())
+                .requestId(uploadRequest.getRequestId())
+                .clientId(uploadRequest.getClientId())
+                .build();
+    }
+    
+    private UploadRequest.FilePart preprocess(UploadRequest.FilePart filePart, String requestId) {
+        Path processed = null;
+        try {
+            Optional<UploadRequest.FilePart> replacement;
+            if ("gzip".equals(mode)) {
+                processed = createTempFile(requestId, ".gz");
+                replacement = Optional.of(compress(filePart, processed));
+            } else {
+                Optional<ITextExtractionPort> extractor = textExtractionPorts.stream()
+                        .filter(port -> port.supports(filePart.getOriginalFilename(), filePart.getContentType()))
+                        .findFirst();
+                if (extractor.isEmpty()) {
+                    return filePart;
+                }
+                processed = createTempFile(requestId, ".txt");
+                replacement = extractText(extractor.get(), filePart, processed);
+            }
+            
+            if (replacement.isEmpty()) {
+                Files.deleteIfExists(processed);
+                return filePart;
+            }
+            
+            log.debug("Preprocessed {} from {} to {} bytes", filePart.getOriginalFilename(),
+                    filePart.getSize(), replacement.get().getSize());
+            Files.deleteIfExists(filePart.getContentPath());
+            return replacement.get();
+        } catch (IOException | RuntimeException e) {
+            log.warn("Failed to preprocess {}, forwarding it unchanged: {}", filePart.getOriginalFilename(), e.getMessage());
+            deleteQuietly(processed);
+            return filePart;
+        }
+    }
+    
+    private Optional<UploadRequest.FilePart> extractText(ITextExtractionPort extractor, UploadRequest.FilePart filePart,
+                                                         Path target) throws IOException {
+        try (Writer writer = Files.newBufferedWriter(target, StandardCharsets.UTF_8)) {
+            extractor.extractText(filePart.getContentPath(), writer);
+        }
+        
+        // Documents without a text layer are left for n8n to handle
+        long size = Files.size(target);
+        if (size == 0) {
+            return Optional.empty();
+        }
+        return Optional.of(UploadRequest.FilePart.builder()
+                .originalFilename(filePart.getOriginalFilename() + ".txt")
+                .contentType(TEXT_CONTENT_TYPE)
+                .contentPath(target)
+                .size(size)
+                .build());
+    }
+    
+    private UploadRequest.FilePart compress(UploadRequest.FilePart filePart, Path target) throws IOException {
+        try (InputStream in = filePart.openStream();
+             OutputStream out = new GZIPOutputStream(Files.newOutputStream(target), GZIP_BUFFER_SIZE) {
+                 {
+                     def.setLevel(Deflater.BEST_SPEED);
+                 }
+             }) {
+            in.transferTo(out);
+        }
+        return UploadRequest.FilePart.builder()
+                .originalFilename(filePart.getOriginalFilename() + ".gz")
+                .contentType(GZIP_CONTENT_TYPE)
+                .contentPath(target)
+                .size(Files.size(target))
+                .build();
+    }
+    
+    private Path createTempFile(String requestId, String suffix) throws IOException {
+        Path tempDirectory = Files.createDirectories(Paths.get(tempStoragePath));
+        return Files.createTempFile(tempDirectory, requestId + "-", suffix);
+    }
+    
+    private void deleteQuietly(Path path) {
+        if (path == null) {
+            return;
+        }
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException e) {
+            log.warn("Failed to delete preprocessed file: {}", path, e);
+        }
+    }
+}
@@ -0,0 +1,79 @@
+package br.com.gerasaber.usecase.file.upload.service;
+
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Blocking queue that shares its output between flows in proportion to their weights, using start-time fair queuing.
+ * <p>
+ * Each item is tagged with a virtual start time: the later of the queue's virtual time and the finish time of the
+ * previous item of its flow, where an item of a flow with weight {@code w} lasts {@code 1 / w}. Items are taken in
+ * start-time order, so a flow that floods the queue only pushes its own items further back, and a flow with
+ * weight 2 is served twice as often as a flow with weight 1 while both have items queued.
+ */
+final class WeightedFairQueue<T> {
+    
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition notEmpty = lock.newCondition();
+    private final PriorityQueue<Entry<T>> entries = new PriorityQueue<>(
+            Comparator.<Entry<T>>comparingDouble(Entry::start).thenComparingLong(Entry::sequence));
+    private final Map<String, Flow> flows = new HashMap<>();
+    
+    private double virtualTime;
+    private long sequence;
+    
+    void add(String flowId, int weight, T item) {
+        lock.lock();
+        try {
+            Flow flow = flows.computeIfAbsent(flowId, id -> new Flow());
+            double start = Math.max(virtualTime, flow.finish);
+            flow.finish = start + 1.0 / Math.max(weight, 1);
+            flow.queued++;
+            entries.add(new Entry<>(flowId, start, sequence++, item));
+            notEmpty.signal();
+        } finally {
+            lock.unlock();
+        }
+    }
+    
+    T take() throws InterruptedException {
+        lock.lockInterruptibly();
+        try {
+            while (entries.isEmpty()) {
+                notEmpty.await();
+            }
+            Entry<T> entry = entries.poll();
+            virtualTime = entry.start();
+            
+            // Idle flows are forgotten, so the map only holds flows with queued items
+            Flow flow = flows.get(entry.flowId());
+            if (--flow.queued == 0) {
+                flows.remove(entry.flowId());
+            }
+            return entry.item();
+        } finally {
+            lock.unlock();
+        }
+    }
+    
+    int size() {
+        lock.lock();
+        try {
+            return entries.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+    
+    private static final class Flow {
+        private double finish;
+        private int queued;
+    }
+    
+    private record Entry<T>(String flowId, double start, long sequence, T item) {
+    }
+}
@@ -0,0 +1,23 @@
+package br.com.gerasaber.usecase.job.contract;
+
+import lombok.Builder;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * DTO for job status responses following the standard API response format.
+ */
+@Data
+@Builder
+public class JobStatusDto {
+    
+    private String requestId;
+    private String status;
+    private LocalDateTime acceptedAt;
+    private LocalDateTime updatedAt;
+    private String downloadUrl;
+    private String error;
+    private List<JobStatusDto> parts;
+}
@@ -0,0 +1,126 @@
+package br.com.gerasaber.usecase.job.endpoint;
+
+import br.com.gerasaber.domain.entity.JobState;
+import br.com.gerasaber.usecase.job.mapping.JobStateMapper;
+import br.com.gerasaber.usecase.job.service.IJobStateService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.async.DeferredResult;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Consumer;
+
+/**
+ * REST endpoint for querying the status of upload jobs.
+ * Clients can long-poll until the job finishes or subscribe to server-sent events,
+ * instead of repeatedly polling for the generated PDF. Both are served asynchronously from job completion
+ * listeners, so waiting clients do not hold request threads.
+ */
+@Slf4j
+@RestController
+@RequestMapping("/api/jobs")
+@RequiredArgsConstructor
+public class JobStatusEndpoint {
+    
+    private static final String STATUS_EVENT = "status";
+    
+    private final IJobStateService jobStateService;
+    private final JobStateMapper jobStateMapper;
+    
+    @Value("${jobs.long-poll-max-wait:60s}")
+    private Duration longPollMaxWait;
+    
+    @Value("${jobs.sse-timeout:5m}")
+    private Duration sseTimeout;
+    
+    @GetMapping("/{requestId}")
+    public DeferredResult<ResponseEntity<Map<String, Object>>> getStatus(
+            @PathVariable String requestId,
+            @RequestParam(value = "waitSeconds", defaultValue = "0") long waitSeconds) {
+        
+        Duration wait = Duration.ofSeconds(Math.max(0, waitSeconds));
+        if (wait.compareTo(longPollMaxWait) > 0) {
+            wait = longPollMaxWait;
+        }
+        
+        Optional<JobState> current = jobStateService.find(requestId);
+        if (wait.isZero() || current.isEmpty() || current.get().getStatus().isFinal()) {
+            DeferredResult<ResponseEntity<Map<String, Object>>> result = new DeferredResult<>();
+            result.setResult(toResponse(current));
+            return result;
+        }
+        
+        // Long-polling is asynchronous, so a waiting client holds no request thread until the job finishes
+        DeferredResult<ResponseEntity<Map<String, Object>>> result = new DeferredResult<>(wait.toMillis());
+        Consumer<JobState> listener = state -> result.setResult(toResponse(Optional.of(state)));
+        result.onTimeout(() -> result.setResult(toResponse(jobStateService.find(requestId))));
+        result.onCompletion(() -> jobStateService.removeCompletionListener(requestId, listener));
+        if (!jobStateService.onCompletion(requestId, listener)) {
+            result.setResult(toResponse(Optional.empty()));
+        }
+        return result;
+    }
+    
+    @GetMapping("/{requestId}/events")
+    public ResponseEntity<?> streamStatus(@PathVariable String requestId) {
+        Optional<JobState> current = jobStateService.find(requestId);
+        if (current.isEmpty()) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND)
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .body(Map.of("errors", List.of("Job not found")));
+        }
+        
+        SseEmitter emitter = new SseEmitter(sseTimeout.toMillis());
+        send(emitter, current.get());
+        
+        if (current.get().getStatus().isFinal()) {
+            emitter.complete();
+            return ResponseEntity.ok(emitter);
+        }
+        
+        Consumer<JobState> listener = state -> {
+            send(emitter, state);
+            emitter.complete();
+        };
+        // Disconnected or timed out clients must not keep their listener until the job finishes
+        emitter.onTimeout(() -> jobStateService.removeCompletionListener(requestId, listener));
+        emitter.onError(error -> jobStateService.removeCompletionListener(requestId, listener));
+        emitter.onCompletion(() -> jobStateService.removeCompletionListener(requestId, listener));
+        if (!jobStateService.onCompletion(requestId, listener)) {
+            emitter.complete();
+        }
+        return ResponseEntity.ok(emitter);
+    }
+    
+    private ResponseEntity<Map<String, Object>> toResponse(Optional<JobState> jobState) {
+        return jobState
+                .<ResponseEntity<Map<String, Object>>>map(state -> ResponseEntity.ok(Map.of("data", jobStateMapper.toDto(state))))
+                .orElseGet(() -> ResponseEntity.status(HttpStatus.NOT_FOUND)
+                        .body(Map.of("errors", List.of("Job not found"))));
+    }
+    
+    private void send(SseEmitter emitter, JobState state) {
+        try {
+            emitter.send(SseEmitter.event()
+                    .id(state.getStatus().name())
+                    .name(STATUS_EVENT)
+                    .data(jobStateMapper.toDto(state), MediaType.APPLICATION_JSON));
+        } catch (IOException | IllegalStateException e) {
+            log.debug("Client stopped listening for job {}", state.getRequestId(), e);
+        }
+    }
+}
@@ -0,0 +1,26 @@
+package br.com.gerasaber.usecase.job.mapping;
+
+import br.com.gerasaber.domain.entity.JobState;
+import br.com.gerasaber.domain.entity.JobStatus;
+import br.com.gerasaber.usecase.job.contract.JobStatusDto;
+import org.springframework.stereotype.Component;
+
+/**
+ * Mapper for converting between domain objects and DTOs in the job use case.
+ */
+@Component
+public class JobStateMapper {
+    
+    public JobStatusDto toDto(JobState jobState) {
+        return JobStatusDto.builder()
+                .requestId(jobState.getRequestId())
+                .status(jobState.getStatus().name())
+                .acceptedAt(jobState.getAcceptedAt())
+                .updatedAt(jobState.getUpdatedAt())
+                .downloadUrl(jobState.getStatus() == JobStatus.COMPLETED && !jobState.isFannedOut()
+                        ? "/api/files/" + jobState.getRequestId() : null)
+                .error(jobState.getFailureReason())
+                .parts(jobState.getParts().values().stream().map(this::toDto).toList())
+                .build();
+    }
+}
@@ -0,0 +1,82 @@
+package br.com.gerasaber.usecase.job.service;
+
+import br.com.gerasaber.domain.entity.JobState;
+
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Consumer;
+
+/**
+ * Interface for the job state service following Clean Architecture principles.
+ * Correlates accepted uploads with the webhook results n8n sends back for them.
+ */
+public interface IJobStateService {
+    
+    /**
+     * Registers a newly accepted upload request.
+     * 
+     * @param requestId the request ID of the accepted upload
+     */
+    void accept(String requestId);
+    
+    /**
+     * Splits an accepted job into parts that are processed as sub-jobs of their own.
+     * The job finishes once every part has finished; updates for a part ID are aggregated into the job.
+     * Calling it again for a job that is already fanned out has no effect.
+     * 
+     * @param requestId the request ID of the accepted upload
+     * @param partIds the request IDs of the sub-jobs
+     */
+    void fanOut(String requestId, List<String> partIds);
+    
+    /**
+     * Records that an upload request was delivered to n8n.
+     * 
+     * @param requestId the request ID of the forwarded upload
+     */
+    void markForwarded(String requestId);
+    
+    /**
+     * Records that the PDF for an upload request was received and stored.
+     * Results for request IDs that were never accepted, or for jobs that already finished, are ignored.
+     * 
+     * @param requestId the request ID of the completed upload
+     * @param resultPath the path where the generated PDF was stored
+     */
+    void markCompleted(String requestId, Path resultPath);
+    
+    /**
+     * Records that an upload request could not be processed.
+     * 
+     * @param requestId the request ID of the failed upload
+     * @param reason a short description of the failure
+     */
+    void markFailed(String requestId, String reason);
+    
+    /**
+     * Returns the current state of a job.
+     * 
+     * @param requestId the request ID of the job
+     * @return Optional containing the job state if it is known, empty otherwise
+     */
+    Optional<JobState> find(String requestId);
+    
+    /**
+     * Registers a callback invoked once when the job reaches a final state or stops being tracked.
+     * The callback runs on the thread that finished the job, or right away if the job has already finished.
+     * 
+     * @param requestId the request ID of the job
+     * @param listener the callback receiving the final state
+     * @return true if the job is known and the callback was registered, false otherwise
+     */
+    boolean onCompletion(String requestId, Consumer<JobState> listener);
+    
+    /**
+     * Removes a callback registered with {@link #onCompletion(String, Consumer)}, e.g. when its client went away.
+     * 
+     * @param requestId the request ID of the job
+     * @param listener the callback to remove
+     */
+    void removeCompletionListener(String requestId, Consumer<JobState> listener);
+}
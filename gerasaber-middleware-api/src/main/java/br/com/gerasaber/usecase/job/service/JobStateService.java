@@ -0,0 +1,213 @@
+package br.com.gerasaber.usecase.job.service;
+
+import br.com.gerasaber.domain.entity.JobState;
+import br.com.gerasaber.domain.entity.JobStatus;
+import br.com.gerasaber.domain.port.IPipelineMetricsPort;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.function.Consumer;
+import java.util.function.UnaryOperator;
+
+/**
+ * In-memory job state store keyed by request ID.
+ * Jobs are kept in acceptance order and evicted from the oldest end once they outlive the TTL or the store
+ * exceeds its maximum size, checked on every acceptance and periodically so idle instances shrink too.
+ * Waiting clients register a completion listener instead of holding a thread; listeners run once when the job
+ * reaches a final state or is evicted, and can be removed when their client goes away.
+ * Final states are never left again, and updates for jobs that were never accepted are ignored.
+ * The time from acceptance to the final state is recorded as the end-to-end pipeline latency.
+ * Updates for the parts of a fanned-out job are routed to the job that owns them.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class JobStateService implements IJobStateService {
+    
+    private final IPipelineMetricsPort pipelineMetricsPort;
+    
+    @Value("${jobs.max-entries:10000}")
+    private int maxEntries;
+    
+    @Value("${jobs.ttl:1h}")
+    private Duration ttl;
+    
+    private final Map<String, JobEntry> jobs = new ConcurrentHashMap<>();
+    private final Queue<JobEntry> acceptanceOrder = new ConcurrentLinkedQueue<>();
+    private final Map<String, String> jobByPart = new ConcurrentHashMap<>();
+    
+    @Override
+    public void accept(String requestId) {
+        jobs.computeIfAbsent(requestId, id -> {
+            JobEntry entry = new JobEntry(JobState.accepted(id), System.nanoTime(),
+                    pipelineMetricsPort.start(IPipelineMetricsPort.Stage.END_TO_END));
+            acceptanceOrder.add(entry);
+            return entry;
+        });
+        evictExpired();
+    }
+    
+    @Override
+    public void fanOut(String requestId, List<String> partIds) {
+        JobEntry entry = jobs.get(requestId);
+        if (entry == null) {
+            return;
+        }
+        
+        synchronized (entry) {
+            if (entry.state.isFannedOut()) {
+                return;
+            }
+            partIds.forEach(partId -> jobByPart.put(partId, requestId));
+            entry.state = entry.state.fannedOut(partIds);
+        }
+    }
+    
+    @Override
+    public void markForwarded(String requestId) {
+        update(requestId, JobState::forwarded);
+    }
+    
+    @Override
+    public void markCompleted(String requestId, Path resultPath) {
+        update(requestId, state -> state.completed(resultPath));
+    }
+    
+    @Override
+    public void markFailed(String requestId, String reason) {
+        update(requestId, state -> state.failed(reason));
+    }
+    
+    @Override
+    public Optional<JobState> find(String requestId) {
+        return Optional.ofNullable(jobs.get(requestId)).map(JobEntry::getState);
+    }
+    
+    @Override
+    public boolean onCompletion(String requestId, Consumer<JobState> listener) {
+        JobEntry entry = jobs.get(requestId);
+        if (entry == null) {
+            return false;
+        }
+        
+        JobState finalState;
+        synchronized (entry) {
+            finalState = entry.finalState;
+            if (finalState == null) {
+                entry.listeners.add(listener);
+                return true;
+            }
+        }
+        listener.accept(finalState);
+        return true;
+    }
+    
+    @Override
+    public void removeCompletionListener(String requestId, Consumer<JobState> listener) {
+        JobEntry entry = jobs.get(requestId);
+        if (entry != null) {
+            synchronized (entry) {
+                entry.listeners.remove(listener);
+            }
+        }
+    }
+    
+    private void update(String requestId, UnaryOperator<JobState> transition) {
+        if (requestId == null) {
+            return;
+        }
+        
+        String partOf = jobByPart.get(requestId);
+        JobEntry entry = jobs.get(partOf != null ? partOf : requestId);
+        if (entry == null) {
+            log.debug("Ignoring state update for unknown job: {}", requestId);
+            return;
+        }
+        
+        JobState state;
+        synchronized (entry) {
+            // A late webhook or retry must not reopen a job that already finished
+            if (entry.state.getStatus().isFinal()) {
+                log.debug("Ignoring state update for finished job: {}", requestId);
+                return;
+            }
+            state = partOf != null ? entry.state.withPart(requestId, transition) : transition.apply(entry.state);
+            entry.state = state;
+        }
+        if (state.getStatus().isFinal()) {
+            finish(entry, state, state.getStatus() == JobStatus.COMPLETED
+                    ? IPipelineMetricsPort.Outcome.SUCCESS : IPipelineMetricsPort.Outcome.FAILURE);
+        }
+        log.debug("Job {} is now {}", requestId, state.getStatus());
+    }
+    
+    @Scheduled(fixedDelayString = "${jobs.eviction-interval:PT1M}", initialDelayString = "${jobs.eviction-interval:PT1M}")
+    void evictExpired() {
+        long now = System.nanoTime();
+        JobEntry oldest;
+        while ((oldest = acceptanceOrder.peek()) != null
+                && (jobs.size() > maxEntries || now - oldest.acceptedAtNanos > ttl.toNanos())) {
+            if (acceptanceOrder.remove(oldest)) {
+                jobs.remove(oldest.state.getRequestId(), oldest);
+                oldest.state.getParts().keySet().forEach(jobByPart::remove);
+                // Release anyone still waiting on a job that will no longer be tracked
+                finish(oldest, oldest.getState(), IPipelineMetricsPort.Outcome.EXPIRED);
+            }
+        }
+    }
+    
+    private void finish(JobEntry entry, JobState state, IPipelineMetricsPort.Outcome outcome) {
+        List<Consumer<JobState>> listeners;
+        synchronized (entry) {
+            if (entry.finalState != null) {
+                return;
+            }
+            entry.finalState = state;
+            listeners = new ArrayList<>(entry.listeners);
+            entry.listeners.clear();
+        }
+        
+        pipelineMetricsPort.stop(IPipelineMetricsPort.Stage.END_TO_END, entry.endToEndStart, outcome);
+        for (Consumer<JobState> listener : listeners) {
+            try {
+                listener.accept(state);
+            } catch (RuntimeException e) {
+                log.warn("Completion listener for job {} failed", state.getRequestId(), e);
+            }
+        }
+    }
+    
+    private static final class JobEntry {
+        
+        private final long acceptedAtNanos;
+        private final long endToEndStart;
+        // Guarded by the entry itself
+        private final Set<Consumer<JobState>> listeners = new LinkedHashSet<>();
+        private JobState finalState;
+        private volatile JobState state;
+        
+        private JobEntry(JobState state, long acceptedAtNanos, long endToEndStart) {
+            this.state = state;
+            this.acceptedAtNanos = acceptedAtNanos;
+            this.endToEndStart = endToEndStart;
+        }
+        
+        private JobState getState() {
+            return state;
+        }
+    }
+}
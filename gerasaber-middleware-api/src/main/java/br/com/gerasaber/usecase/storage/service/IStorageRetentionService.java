@@ -0,0 +1,14 @@
+package br.com.gerasaber.usecase.storage.service;
+
+/**
+ * Interface for the storage retention service following Clean Architecture principles.
+ * Keeps the stored PDFs within the configured age, size and partition count limits.
+ */
+public interface IStorageRetentionService {
+    
+    /**
+     * Applies the retention policies once: expired partitions are deleted or archived, and the small files
+     * of the remaining old partitions are packed into segments.
+     */
+    void applyRetention();
+}
@@ -0,0 +1,132 @@
+package br.com.gerasaber.usecase.storage.service;
+
+import br.com.gerasaber.domain.entity.StoragePartition;
+import br.com.gerasaber.domain.port.IFileStoragePort;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.util.unit.DataSize;
+
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * Scheduled retention of stored PDFs, applied to whole date partitions.
+ * A partition expires when it is older than {@code max-age}, when more than {@code max-partitions} are kept,
+ * or when it would take the total size over {@code max-total-size}; expired partitions are deleted or archived.
+ * Today's partition is never touched. Partitions older than {@code compaction.min-age} have their small files
+ * packed into a single segment, which keeps inode counts and directory sizes low.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class StorageRetentionService implements IStorageRetentionService {
+    
+    private final IFileStoragePort fileStoragePort;
+    
+    @Value("${storage.retention.enabled:false}")
+    private boolean enabled;
+    
+    @Value("${storage.retention.max-age:}")
+    private Duration maxAge;
+    
+    @Value("${storage.retention.max-total-size:}")
+    private DataSize maxTotalSize;
+    
+    @Value("${storage.retention.max-partitions:0}")
+    private int maxPartitions;
+    
+    @Value("${storage.retention.action:delete}")
+    private String action;
+    
+    @Value("${storage.retention.archive-path:/var/app/archive}")
+    private String archivePath;
+    
+    @Value("${storage.retention.compaction.enabled:false}")
+    private boolean compactionEnabled;
+    
+    @Value("${storage.retention.compaction.min-age:7d}")
+    private Duration compactionMinAge;
+    
+    @Value("${storage.retention.compaction.max-file-size:256KB}")
+    private DataSize compactionMaxFileSize;
+    
+    @Scheduled(fixedDelayString = "${storage.retention.interval:PT6H}", initialDelayString = "${storage.retention.initial-delay:PT5M}")
+    void scheduledRetention() {
+        if (enabled) {
+            applyRetention();
+        }
+    }
+    
+    @Override
+    public void applyRetention() {
+        LocalDate today = LocalDate.now();
+        List<StoragePartition> partitions = fileStoragePort.listPartitions();
+        Set<LocalDate> expired = expiredPartitions(partitions, today);
+        
+        for (LocalDate date : expired) {
+            try {
+                if ("archive".equalsIgnoreCase(action)) {
+                    fileStoragePort.archivePartition(date, Paths.get(archivePath));
+                } else {
+                    fileStoragePort.deletePartition(date);
+                }
+            } catch (RuntimeException e) {
+                log.error("Failed to apply retention to partition {}", date, e);
+            }
+        }
+        
+        int packed = 0;
+        if (compactionEnabled) {
+            LocalDate compactBefore = today.minusDays(compactionMinAge.toDays());
+            for (StoragePartition partition : partitions) {
+                if (expired.contains(partition.getDate()) || !partition.getDate().isBefore(compactBefore)) {
+                    continue;
+                }
+                try {
+                    packed += fileStoragePort.compactPartition(partition.getDate(), compactionMaxFileSize.toBytes());
+                } catch (RuntimeException e) {
+                    log.error("Failed to compact partition {}", partition.getDate(), e);
+                }
+            }
+        }
+        
+        log.info("Storage retention {} {} of {} partitions and packed {} small files",
+                "archive".equalsIgnoreCase(action) ? "archived" : "deleted", expired.size(), partitions.size(), packed);
+    }
+    
+    private Set<LocalDate> expiredPartitions(List<StoragePartition> partitions, LocalDate today) {
+        Set<LocalDate> expired = new TreeSet<>();
+        
+        if (maxAge != null) {
+            LocalDate oldestKept = today.minusDays(maxAge.toDays());
+            partitions.stream()
+                    .map(StoragePartition::getDate)
+                    .filter(date -> date.isBefore(oldestKept))
+                    .forEach(expired::add);
+        }
+        
+        // Partitions are listed oldest first, so the count and size limits are applied from the newest end
+        int kept = 0;
+        long keptSize = 0;
+        for (int i = partitions.size() - 1; i >= 0; i--) {
+            StoragePartition partition = partitions.get(i);
+            kept++;
+            keptSize += partition.getSize();
+            boolean overCount = maxPartitions > 0 && kept > maxPartitions;
+            boolean overSize = maxTotalSize != null && keptSize > maxTotalSize.toBytes();
+            if (overCount || overSize) {
+                expired.add(partition.getDate());
+            }
+        }
+        
+        expired.removeIf(date -> !date.isBefore(today));
+        return expired;
+    }
+}
@@ -0,0 +1,35 @@
+package br.com.gerasaber.usecase.webhook.contract;
+
+import lombok.Builder;
+import lombok.Data;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Request object for a JSON webhook payload whose Base64 PDF has already been decoded to a temporary file.
+ * Closing the payload deletes the temporary file.
+ */
+@Data
+@Builder
+public class WebhookJsonPayload implements AutoCloseable {
+    
+    private final String requestId;
+    private final String filename;
+    private final Path pdfFile;
+    private final long pdfSize;
+    // Hex encoded SHA-256 hash of the decoded PDF
+    private final String pdfHash;
+    
+    public boolean hasPdfContent() {
+        return pdfFile != null && pdfSize > 0;
+    }
+    
+    @Override
+    public void close() throws IOException {
+        if (pdfFile != null) {
+            Files.deleteIfExists(pdfFile);
+        }
+    }
+}
@@ -1,9 +1,13 @@
 package br.com.gerasaber.usecase.webhook.endpoint;
 
 import br.com.gerasaber.domain.entity.WebhookResponse;
+import br.com.gerasaber.usecase.webhook.contract.WebhookJsonPayload;
 import br.com.gerasaber.usecase.webhook.contract.WebhookResponseDto;
+import br.com.gerasaber.usecase.webhook.mapping.WebhookJsonPayloadReader;
 import br.com.gerasaber.usecase.webhook.mapping.WebhookResponseMapper;
+import br.com.gerasaber.usecase.webhook.service.IWebhookIdempotencyService;
 import br.com.gerasaber.usecase.webhook.service.IWebhookService;
+import com.fasterxml.jackson.core.JsonProcessingException;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.HttpStatus;
@@ -12,13 +16,15 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
 
-import java.util.Base64;
+import java.io.FileInputStream;
+import java.io.InputStream;
 import java.util.List;
 import java.util.Map;
 
 /**
  * REST endpoint for handling webhook responses from n8n.
  * Receives processed PDF files and stores them locally.
+ * Retried deliveries of the same PDF are answered with the original response without storing it again.
  */
 @Slf4j
 @RestController
@@ -26,50 +32,62 @@ import java.util.Map;
 @RequiredArgsConstructor
 public class HandleWebhookEndpoint {
 
+    static final String IDEMPOTENCY_KEY_HEADER = "Idempotency-Key";
+    static final String REPLAYED_HEADER = "Idempotent-Replayed";
+
     private final IWebhookService webhookService;
+    private final IWebhookIdempotencyService webhookIdempotencyService;
     private final WebhookResponseMapper webhookResponseMapper;
+    private final WebhookJsonPayloadReader webhookJsonPayloadReader;
 
     @PostMapping(value = "/n8n-response")
     public ResponseEntity<Map<String, Object>> handleWebhookResponseMultipart(
             @RequestParam(value = "file", required = false) MultipartFile file,
             @RequestParam(value = "requestId", required = false) String requestId,
-            @RequestParam(value = "filename", required = false) String filename) {
+            @RequestParam(value = "filename", required = false) String filename,
+            @RequestHeader(value = IDEMPOTENCY_KEY_HEADER, required = false) String idempotencyKey) {
 
         log.info("Received multipart webhook response for request: {}", requestId);
 
         try {
-            byte[] pdfContent = null;
             String finalFilename = filename;
 
             if (file != null && !file.isEmpty()) {
-                pdfContent = file.getBytes();
                 if (finalFilename == null) {
                     finalFilename = file.getOriginalFilename();
                 }
-                log.info("Received multipart file: {}", finalFilename);
+                log.info("Received multipart file: {} ({} bytes)", finalFilename, file.getSize());
             } else {
                 log.warn("No file provided in multipart webhook response");
                 return ResponseEntity.badRequest()
                         .body(Map.of("errors", List.of("No file provided in webhook response")));
             }
 
-            if (pdfContent == null || pdfContent.length == 0) {
-                log.warn("No valid PDF content found in webhook response");
-                return ResponseEntity.badRequest()
-                        .body(Map.of("errors", List.of("No valid PDF content found")));
+            // The spooled part is hashed first, so a retried delivery is recognised before anything is stored
+            String contentHash = null;
+            if (webhookIdempotencyService.isEnabled()) {
+                try (InputStream pdfContent = file.getInputStream()) {
+                    contentHash = webhookIdempotencyService.contentHash(pdfContent);
+                }
             }
 
-            // Process the webhook response
-            WebhookResponse webhookResponse = webhookService.processWebhookResponse(
-                    pdfContent, finalFilename, requestId);
+            String storedFilename = finalFilename;
+            IWebhookIdempotencyService.Result result = webhookIdempotencyService.deduplicate(
+                    webhookIdempotencyService.key(requestId, idempotencyKey, contentHash), () -> {
+                        // Stream the uploaded part to storage instead of loading it into memory
+                        WebhookResponse webhookResponse;
+                        try (InputStream pdfContent = file.getInputStream()) {
+                            webhookResponse = webhookService.processWebhookResponse(pdfContent, storedFilename, requestId);
+                        }
 
-            // Convert to response DTO
-            WebhookResponseDto responseDto = webhookResponseMapper.toResponseDto(webhookResponse);
+                        log.info("Multipart webhook response processed successfully. File saved at: {}",
+                                webhookResponse.getSavedPath());
 
-            log.info("Multipart webhook response processed successfully. File saved at: {}",
-                    webhookResponse.getSavedPath());
+                        // Convert to response DTO
+                        return webhookResponseMapper.toResponseDto(webhookResponse);
+                    });
 
-            return ResponseEntity.ok(Map.of("data", responseDto));
+            return respond(result);
 
         } catch (Exception e) {
             log.error("Failed to process multipart webhook response for request: {}", requestId, e);
@@ -80,33 +98,40 @@ public class HandleWebhookEndpoint {
 
     @PostMapping(value = "/n8n-response", consumes = MediaType.APPLICATION_JSON_VALUE)
     public ResponseEntity<Map<String, Object>> handleWebhookResponseJson(
-            @RequestBody Map<String, Object> jsonPayload) {
+            InputStream jsonPayload,
+            @RequestHeader(value = IDEMPOTENCY_KEY_HEADER, required = false) String idempotencyKey) {
 
         log.info("Received JSON webhook response");
 
-        try {
-            byte[] pdfContent = extractPdfFromJsonPayload(jsonPayload);
-            String finalFilename = (String) jsonPayload.getOrDefault("filename", "generated-summary.pdf");
-            String requestId = (String) jsonPayload.get("requestId");
-
-            if (pdfContent == null || pdfContent.length == 0) {
+        try (WebhookJsonPayload payload = webhookJsonPayloadReader.read(jsonPayload)) {
+            if (!payload.hasPdfContent()) {
                 log.warn("No valid PDF content found in JSON webhook response");
                 return ResponseEntity.badRequest()
                         .body(Map.of("errors", List.of("No valid PDF content found in JSON payload")));
             }
 
-            // Process the webhook response
-            WebhookResponse webhookResponse = webhookService.processWebhookResponse(
-                    pdfContent, finalFilename, requestId);
+            IWebhookIdempotencyService.Result result = webhookIdempotencyService.deduplicate(
+                    webhookIdempotencyService.key(payload.getRequestId(), idempotencyKey, payload.getPdfHash()), () -> {
+                        // Process the webhook response from the decoded temporary file
+                        WebhookResponse webhookResponse;
+                        try (InputStream pdfContent = new FileInputStream(payload.getPdfFile().toFile())) {
+                            webhookResponse = webhookService.processWebhookResponse(
+                                    pdfContent, payload.getFilename(), payload.getRequestId());
+                        }
 
-            // Convert to response DTO
-            WebhookResponseDto responseDto = webhookResponseMapper.toResponseDto(webhookResponse);
+                        log.info("JSON webhook response processed successfully. File saved at: {}",
+                                webhookResponse.getSavedPath());
 
-            log.info("JSON webhook response processed successfully. File saved at: {}",
-                    webhookResponse.getSavedPath());
+                        // Convert to response DTO
+                        return webhookResponseMapper.toResponseDto(webhookResponse);
+                    });
 
-            return ResponseEntity.ok(Map.of("data", responseDto));
+            return respond(result);
 
+        } catch (JsonProcessingException | IllegalArgumentException e) {
+            log.warn("Malformed JSON webhook response: {}", e.getMessage());
+            return ResponseEntity.badRequest()
+                    .body(Map.of("errors", List.of("Malformed JSON payload")));
         } catch (Exception e) {
             log.error("Failed to process JSON webhook response", e);
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
@@ -114,30 +139,10 @@ public class HandleWebhookEndpoint {
         }
     }
 
-    private byte[] extractPdfFromJsonPayload(Map<String, Object> jsonPayload) {
-        try {
-            // Try to get PDF content from various possible fields
-            String pdfData = null;
-
-            if (jsonPayload.containsKey("pdfContent")) {
-                pdfData = (String) jsonPayload.get("pdfContent");
-            } else if (jsonPayload.containsKey("pdf")) {
-                pdfData = (String) jsonPayload.get("pdf");
-            } else if (jsonPayload.containsKey("file")) {
-                pdfData = (String) jsonPayload.get("file");
-            } else if (jsonPayload.containsKey("data")) {
-                pdfData = (String) jsonPayload.get("data");
-            }
-
-            if (pdfData != null && !pdfData.isEmpty()) {
-                // Decode Base64 encoded PDF
-                return Base64.getDecoder().decode(pdfData);
-            }
-
-            return null;
-        } catch (Exception e) {
-            log.error("Failed to extract PDF from JSON payload", e);
-            return null;
-        }
+    private ResponseEntity<Map<String, Object>> respond(IWebhookIdempotencyService.Result result) {
+        WebhookResponseDto responseDto = result.response();
+        return ResponseEntity.ok()
+                .header(REPLAYED_HEADER, Boolean.toString(result.replayed()))
+                .body(Map.of("data", responseDto));
     }
 }
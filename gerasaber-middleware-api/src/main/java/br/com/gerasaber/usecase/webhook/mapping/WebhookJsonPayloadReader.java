@@ -0,0 +1,131 @@
+package br.com.gerasaber.usecase.webhook.mapping;
+
+import br.com.gerasaber.usecase.webhook.contract.WebhookJsonPayload;
+import com.fasterxml.jackson.core.Base64Variant;
+import com.fasterxml.jackson.core.Base64Variants;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.security.DigestOutputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.List;
+
+/**
+ * Streaming reader for JSON webhook payloads sent by n8n.
+ * The Base64 PDF value is decoded by the Jackson parser straight from its input buffer into a temporary file,
+ * so neither the JSON text, the encoded string nor the decoded PDF is ever held in memory as a whole.
+ * The decoded PDF is hashed with SHA-256 on the way, for webhook deduplication.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class WebhookJsonPayloadReader {
+    
+    // Fields that may carry the Base64 PDF, in order of precedence
+    private static final List<String> PDF_FIELDS = List.of("pdfContent", "pdf", "file", "data");
+    private static final String DEFAULT_FILENAME = "generated-summary.pdf";
+    private static final Base64Variant BASE64 = Base64Variants.MIME_NO_LINEFEEDS
+            .withReadPadding(Base64Variant.PaddingReadBehaviour.PADDING_ALLOWED);
+    
+    private final ObjectMapper objectMapper;
+    
+    @Value("${storage.temp-path:/tmp/middleware/files}")
+    private String tempStoragePath;
+    
+    public WebhookJsonPayload read(InputStream body) throws IOException {
+        String requestId = null;
+        String filename = DEFAULT_FILENAME;
+        Path pdfFile = null;
+        long pdfSize = 0;
+        String pdfHash = null;
+        int pdfFieldRank = PDF_FIELDS.size();
+        
+        try (JsonParser parser = objectMapper.getFactory().createParser(body)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                throw new IllegalArgumentException("Webhook JSON payload must be an object");
+            }
+            
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.getCurrentName();
+                JsonToken value = parser.nextToken();
+                int rank = PDF_FIELDS.indexOf(field);
+                
+                if (rank >= 0 && rank < pdfFieldRank && value == JsonToken.VALUE_STRING) {
+                    Path decoded = Files.createTempFile(tempDirectory(), "webhook-", ".pdf");
+                    MessageDigest digest = sha256();
+                    long decodedSize;
+                    try {
+                        decodedSize = decodeTo(parser, decoded, digest);
+                    } catch (JsonProcessingException e) {
+                        log.error("Failed to decode Base64 PDF from field '{}' of JSON payload", field, e);
+                        Files.deleteIfExists(decoded);
+                        break;
+                    }
+                    if (decodedSize > 0) {
+                        if (pdfFile != null) {
+                            Files.deleteIfExists(pdfFile);
+                        }
+                        pdfFile = decoded;
+                        pdfSize = decodedSize;
+                        pdfHash = HexFormat.of().formatHex(digest.digest());
+                        pdfFieldRank = rank;
+                    } else {
+                        Files.deleteIfExists(decoded);
+                    }
+                } else if ("requestId".equals(field) && value == JsonToken.VALUE_STRING) {
+                    requestId = parser.getText();
+                } else if ("filename".equals(field) && value == JsonToken.VALUE_STRING) {
+                    filename = parser.getText();
+                } else {
+                    parser.skipChildren();
+                }
+            }
+        } catch (IOException | RuntimeException e) {
+            if (pdfFile != null) {
+                Files.deleteIfExists(pdfFile);
+            }
+            throw e;
+        }
+        
+        return WebhookJsonPayload.builder()
+                .requestId(requestId)
+                .filename(filename)
+                .pdfFile(pdfFile)
+                .pdfSize(pdfSize)
+                .pdfHash(pdfHash)
+                .build();
+    }
+    
+    private long decodeTo(JsonParser parser, Path target, MessageDigest digest) throws IOException {
+        try (OutputStream out = new DigestOutputStream(new BufferedOutputStream(Files.newOutputStream(target)), digest)) {
+            return parser.readBinaryValue(BASE64, out);
+        }
+    }
+    
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+    
+    private Path tempDirectory() throws IOException {
+        return Files.createDirectories(Paths.get(tempStoragePath));
+    }
+}
@@ -0,0 +1,57 @@
+package br.com.gerasaber.usecase.webhook.service;
+
+import br.com.gerasaber.usecase.webhook.contract.WebhookResponseDto;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.concurrent.Callable;
+
+/**
+ * Interface for deduplicating retried webhook responses following Clean Architecture principles.
+ * A webhook is identified by its request ID, the optional {@code Idempotency-Key} header and the hash of its PDF.
+ */
+public interface IWebhookIdempotencyService {
+    
+    /**
+     * @return false when deduplication is disabled and every webhook is processed
+     */
+    boolean isEnabled();
+    
+    /**
+     * Computes the SHA-256 hash of a webhook PDF.
+     * 
+     * @param content the PDF content, read to the end and not closed
+     * @return the hex encoded hash
+     */
+    String contentHash(InputStream content) throws IOException;
+    
+    /**
+     * Builds the idempotency key of a webhook.
+     * 
+     * @param requestId the original request ID, may be null
+     * @param idempotencyKey the {@code Idempotency-Key} header, may be null
+     * @param contentHash the hex encoded SHA-256 hash of the PDF
+     * @return the key to pass to {@link #deduplicate(String, Callable)}
+     */
+    String key(String requestId, String idempotencyKey, String contentHash);
+    
+    /**
+     * Answers a webhook with the response of an earlier one with the same key, or processes it.
+     * Concurrent webhooks with the same key wait for the first one instead of processing it again.
+     * 
+     * @param key the idempotency key of the webhook
+     * @param handler stores the webhook PDF and returns its response, called only if the key was not seen recently
+     * @return the response and whether it was replayed
+     * @throws Exception when the handler fails; failed webhooks are not remembered
+     */
+    Result deduplicate(String key, Callable<WebhookResponseDto> handler) throws Exception;
+    
+    /**
+     * Response to a webhook.
+     * 
+     * @param response the response DTO
+     * @param replayed true if the response belongs to an earlier webhook with the same key and nothing was stored
+     */
+    record Result(WebhookResponseDto response, boolean replayed) {
+    }
+}
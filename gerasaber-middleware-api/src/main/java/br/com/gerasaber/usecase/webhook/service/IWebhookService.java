@@ -2,6 +2,8 @@ package br.com.gerasaber.usecase.webhook.service;
 
 import br.com.gerasaber.domain.entity.WebhookResponse;
 
+import java.io.InputStream;
+
 /**
  * Interface for webhook service following Clean Architecture principles.
  */
@@ -10,10 +12,10 @@ public interface IWebhookService {
     /**
      * Processes a webhook response from n8n containing a generated PDF file.
      * 
-     * @param pdfContent the PDF file content
+     * @param pdfContent the PDF file content, streamed to storage and not closed
      * @param filename the filename of the PDF
      * @param requestId the original request ID
      * @return the processed webhook response with storage information
      */
-    WebhookResponse processWebhookResponse(byte[] pdfContent, String filename, String requestId);
+    WebhookResponse processWebhookResponse(InputStream pdfContent, String filename, String requestId);
 }
@@ -0,0 +1,116 @@
+package br.com.gerasaber.usecase.webhook.service;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Lock-free Bloom filter over a sliding time window.
+ * <p>
+ * The window is split into a ring of buckets, each a Bloom filter covering {@code window / buckets} of time.
+ * Keys are added to the bucket of the current period and looked up in every bucket still inside the window,
+ * and a bucket is replaced by an empty one by compare-and-set when its slot comes round again, so memory stays
+ * fixed however many keys are seen. Keys are expected to be hex digests, whose first 32 hex digits supply
+ * the two hashes combined into the bit positions.
+ */
+final class TimeBucketedBloomFilter {
+    
+    private final long bucketMillis;
+    private final int bitCount;
+    private final int hashCount;
+    private final AtomicReferenceArray<Bucket> buckets;
+    
+    TimeBucketedBloomFilter(Duration window, int bucketCount, long expectedInsertionsPerBucket, double falsePositiveRate) {
+        long insertions = Math.max(expectedInsertionsPerBucket, 1);
+        long bits = (long) Math.ceil(-insertions * Math.log(falsePositiveRate) / (Math.log(2) * Math.log(2)));
+        this.bucketMillis = Math.max(window.toMillis() / bucketCount, 1);
+        this.bitCount = (int) Math.min(Math.max(bits, Long.SIZE), Integer.MAX_VALUE - Long.SIZE);
+        this.hashCount = Math.max((int) Math.round((double) bitCount / insertions * Math.log(2)), 1);
+        // One spare bucket, so a key is remembered for at least the whole window after it was added
+        this.buckets = new AtomicReferenceArray<>(bucketCount + 1);
+    }
+    
+    /**
+     * Records a key in the bucket of the current period.
+     * 
+     * @param key a hex digest of at least 32 characters
+     * @param nowMillis the current {@link System#currentTimeMillis()}
+     */
+    void add(String key, long nowMillis) {
+        long period = nowMillis / bucketMillis;
+        Bucket bucket = current(period);
+        long h1 = Long.parseUnsignedLong(key, 0, 16, 16);
+        long h2 = Long.parseUnsignedLong(key, 16, 32, 16);
+        for (int i = 0; i < hashCount; i++) {
+            bucket.set(index(h1, h2, i));
+        }
+    }
+    
+    /**
+     * @param key a hex digest of at least 32 characters
+     * @param nowMillis the current {@link System#currentTimeMillis()}
+     * @return false if the key was certainly not added within the window, true if it may have been
+     */
+    boolean mightContain(String key, long nowMillis) {
+        long period = nowMillis / bucketMillis;
+        long h1 = Long.parseUnsignedLong(key, 0, 16, 16);
+        long h2 = Long.parseUnsignedLong(key, 16, 32, 16);
+        for (int slot = 0; slot < buckets.length(); slot++) {
+            Bucket bucket = buckets.get(slot);
+            if (bucket != null && period - bucket.period < buckets.length() && bucket.containsAll(h1, h2)) {
+                return true;
+            }
+        }
+        return false;
+    }
+    
+    private Bucket current(long period) {
+        int slot = (int) (period % buckets.length());
+        while (true) {
+            Bucket bucket = buckets.get(slot);
+            if (bucket != null && bucket.period >= period) {
+                return bucket;
+            }
+            Bucket fresh = new Bucket(period, bitCount);
+            if (buckets.compareAndSet(slot, bucket, fresh)) {
+                return fresh;
+            }
+        }
+    }
+    
+    private int index(long h1, long h2, int i) {
+        return (int) Long.remainderUnsigned(h1 + i * h2, bitCount);
+    }
+    
+    private final class Bucket {
+        
+        private final long period;
+        private final AtomicLongArray words;
+        
+        Bucket(long period, int bits) {
+            this.period = period;
+            this.words = new AtomicLongArray((bits + Long.SIZE - 1) / Long.SIZE);
+        }
+        
+        void set(int bit) {
+            long mask = 1L << bit;
+            int word = bit >>> 6;
+            long current;
+            while (((current = words.get(word)) & mask) == 0) {
+                if (words.compareAndSet(word, current, current | mask)) {
+                    return;
+                }
+            }
+        }
+        
+        boolean containsAll(long h1, long h2) {
+            for (int i = 0; i < hashCount; i++) {
+                int bit = index(h1, h2, i);
+                if ((words.get(bit >>> 6) & (1L << bit)) == 0) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+}
@@ -0,0 +1,166 @@
+package br.com.gerasaber.usecase.webhook.service;
+
+import br.com.gerasaber.domain.port.IPipelineMetricsPort;
+import br.com.gerasaber.usecase.webhook.contract.WebhookResponseDto;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Deduplicates webhook responses that n8n retries after a timeout.
+ * Keys seen within the window are tracked in a time-bucketed Bloom filter in front of an exact, size-bounded
+ * Caffeine cache of their responses: the filter rules out first deliveries without touching the cache, and a
+ * filter hit is confirmed against the cache before a response is replayed.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class WebhookIdempotencyService implements IWebhookIdempotencyService {
+    
+    private static final int BLOOM_BUCKETS = 4;
+    private static final double BLOOM_FALSE_POSITIVE_RATE = 0.01;
+    private static final int HASH_BUFFER_SIZE = 64 * 1024;
+    
+    private final IPipelineMetricsPort pipelineMetricsPort;
+    
+    @Value("${webhook.idempotency.enabled:true}")
+    private boolean enabled;
+    
+    @Value("${webhook.idempotency.window:10m}")
+    private Duration window;
+    
+    @Value("${webhook.idempotency.maximum-size:10000}")
+    private long maximumSize;
+    
+    private TimeBucketedBloomFilter recentKeys;
+    private Cache<String, WebhookResponseDto> responses;
+    // Keys whose first webhook is still being stored, so concurrent retries wait for it
+    private final Map<String, CompletableFuture<WebhookResponseDto>> inFlight = new ConcurrentHashMap<>();
+    
+    @PostConstruct
+    void init() {
+        recentKeys = new TimeBucketedBloomFilter(window, BLOOM_BUCKETS, maximumSize, BLOOM_FALSE_POSITIVE_RATE);
+        responses = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(window)
+                .build();
+    }
+    
+    @Override
+    public boolean isEnabled() {
+        return enabled;
+    }
+    
+    @Override
+    public String contentHash(InputStream content) throws IOException {
+        MessageDigest digest = sha256();
+        byte[] buffer = new byte[HASH_BUFFER_SIZE];
+        int read;
+        while ((read = content.read(buffer)) != -1) {
+            digest.update(buffer, 0, read);
+        }
+        return HexFormat.of().formatHex(digest.digest());
+    }
+    
+    @Override
+    public String key(String requestId, String idempotencyKey, String contentHash) {
+        MessageDigest digest = sha256();
+        for (String part : new String[] {requestId, idempotencyKey, contentHash}) {
+            // Length-prefixed so absent and empty parts cannot run into their neighbours
+            byte[] bytes = part != null ? part.getBytes(StandardCharsets.UTF_8) : new byte[0];
+            digest.update(Integer.toString(part != null ? bytes.length : -1).getBytes(StandardCharsets.US_ASCII));
+            digest.update((byte) ':');
+            digest.update(bytes);
+        }
+        return HexFormat.of().formatHex(digest.digest());
+    }
+    
+    @Override
+    public Result deduplicate(String key, Callable<WebhookResponseDto> handler) throws Exception {
+        if (!enabled) {
+            return new Result(handler.call(), false);
+        }
+        
+        while (true) {
+            WebhookResponseDto seen = lookup(key);
+            if (seen != null) {
+                return replay(key, seen);
+            }
+            
+            CompletableFuture<WebhookResponseDto> claim = new CompletableFuture<>();
+            CompletableFuture<WebhookResponseDto> running = inFlight.putIfAbsent(key, claim);
+            if (running == null) {
+                return process(key, claim, handler);
+            }
+            
+            try {
+                return replay(key, running.join());
+            } catch (CompletionException | CancellationException e) {
+                // The first delivery failed and was not remembered, so this one is processed in its place
+                log.debug("Earlier webhook with key {} failed, processing the retry", key);
+            }
+        }
+    }
+    
+    private Result process(String key, CompletableFuture<WebhookResponseDto> claim,
+                           Callable<WebhookResponseDto> handler) throws Exception {
+        try {
+            // Another delivery may have finished between the lookup and the claim
+            WebhookResponseDto seen = lookup(key);
+            if (seen != null) {
+                claim.complete(seen);
+                return replay(key, seen);
+            }
+            
+            WebhookResponseDto response = handler.call();
+            responses.put(key, response);
+            recentKeys.add(key, System.currentTimeMillis());
+            claim.complete(response);
+            return new Result(response, false);
+        } catch (Exception e) {
+            claim.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, claim);
+        }
+    }
+    
+    private WebhookResponseDto lookup(String key) {
+        if (!recentKeys.mightContain(key, System.currentTimeMillis())) {
+            return null;
+        }
+        return responses.getIfPresent(key);
+    }
+    
+    private Result replay(String key, WebhookResponseDto response) {
+        log.info("Duplicate webhook with key {}, answering with the response stored at {}", key, response.getPath());
+        pipelineMetricsPort.recordWebhookDuplicate();
+        return new Result(response, true);
+    }
+    
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+}
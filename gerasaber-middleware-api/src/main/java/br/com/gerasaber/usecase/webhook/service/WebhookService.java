@@ -1,12 +1,16 @@
 package br.com.gerasaber.usecase.webhook.service;
 
+import br.com.gerasaber.domain.entity.StoredFile;
 import br.com.gerasaber.domain.entity.WebhookResponse;
 import br.com.gerasaber.domain.port.IFileStoragePort;
+import br.com.gerasaber.domain.port.IPipelineMetricsPort;
+import br.com.gerasaber.usecase.cache.service.IResultCacheService;
+import br.com.gerasaber.usecase.job.service.IJobStateService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 
-import java.nio.file.Path;
+import java.io.InputStream;
 import java.time.LocalDateTime;
 import java.util.UUID;
 
@@ -20,33 +24,54 @@ import java.util.UUID;
 public class WebhookService implements IWebhookService {
     
     private final IFileStoragePort fileStoragePort;
+    private final IJobStateService jobStateService;
+    private final IResultCacheService resultCacheService;
+    private final IPipelineMetricsPort pipelineMetricsPort;
     
     @Override
-    public WebhookResponse processWebhookResponse(byte[] pdfContent, String filename, String requestId) {
+    public WebhookResponse processWebhookResponse(InputStream pdfContent, String filename, String requestId) {
         log.info("Processing webhook response for request: {}", requestId);
+        long start = pipelineMetricsPort.start(IPipelineMetricsPort.Stage.WEBHOOK);
         
         try {
             // Generate unique filename if not provided
             String finalFilename = filename != null ? filename : "generated-summary-" + UUID.randomUUID() + ".pdf";
             
-            // Save file with timestamp-based directory structure
-            Path savedPath = fileStoragePort.saveFileWithTimestamp(finalFilename, pdfContent);
+            // Save file with timestamp-based directory structure and index it by request
+            StoredFile storedFile = store(requestId, finalFilename, pdfContent);
+            pipelineMetricsPort.recordBytesGenerated(finalFilename, storedFile.getSize());
+            jobStateService.markCompleted(requestId, storedFile.getPath());
+            resultCacheService.cacheResult(requestId, storedFile);
             
             WebhookResponse response = WebhookResponse.builder()
                     .requestId(requestId)
-                    .pdfContent(pdfContent)
                     .filename(finalFilename)
                     .contentType("application/pdf")
                     .timestamp(LocalDateTime.now())
-                    .savedPath(savedPath)
+                    .savedPath(storedFile.getPath())
                     .build();
             
-            log.info("Successfully processed webhook response. File saved at: {}", savedPath);
+            log.info("Successfully processed webhook response. File saved at: {}", storedFile.getPath());
+            pipelineMetricsPort.stop(IPipelineMetricsPort.Stage.WEBHOOK, start, IPipelineMetricsPort.Outcome.SUCCESS);
             return response;
             
         } catch (Exception e) {
             log.error("Failed to process webhook response for request: {}", requestId, e);
+            jobStateService.markFailed(requestId, "Failed to store generated PDF");
+            pipelineMetricsPort.stop(IPipelineMetricsPort.Stage.WEBHOOK, start, IPipelineMetricsPort.Outcome.FAILURE);
             throw new RuntimeException("Failed to process webhook response", e);
         }
     }
+    
+    private StoredFile store(String requestId, String filename, InputStream pdfContent) {
+        long start = pipelineMetricsPort.start(IPipelineMetricsPort.Stage.STORAGE_WRITE);
+        try {
+            StoredFile storedFile = fileStoragePort.storeFile(requestId, filename, pdfContent);
+            pipelineMetricsPort.stop(IPipelineMetricsPort.Stage.STORAGE_WRITE, start, IPipelineMetricsPort.Outcome.SUCCESS);
+            return storedFile;
+        } catch (RuntimeException e) {
+            pipelineMetricsPort.stop(IPipelineMetricsPort.Stage.STORAGE_WRITE, start, IPipelineMetricsPort.Outcome.FAILURE);
+            throw e;
+        }
+    }
 }
@@ -0,0 +1,80 @@
+package br.com.gerasaber.infrastructure.adapter;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class DocxTextExtractionAdapterTest {
+    
+    private static final String DOCUMENT = "<w:document xmlns:w=\"http://schemas.openxmlformats.org/wordprocessingml/2006/main\">"
+            + "<w:body><w:p><w:r><w:t>Hello</w:t><w:tab/><w:t>world</w:t></w:r></w:p></w:body></w:document>";
+    
+    @TempDir
+    Path tempDir;
+    
+    private final DocxTextExtractionAdapter adapter = new DocxTextExtractionAdapter();
+    
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(adapter, "maxEntries", 10);
+        ReflectionTestUtils.setField(adapter, "maxInflatedSize", DataSize.ofKilobytes(64));
+    }
+    
+    @Test
+    void extractsTheTextOfTheDocumentPart() throws IOException {
+        Path docx = writeDocx(DOCUMENT, 0);
+        
+        StringWriter text = new StringWriter();
+        adapter.extractText(docx, text);
+        
+        assertThat(text.toString()).isEqualTo("Hello\tworld\n");
+    }
+    
+    @Test
+    void refusesArchivesWithTooManyEntries() throws IOException {
+        Path docx = writeDocx(DOCUMENT, 10);
+        
+        assertThatThrownBy(() -> adapter.extractText(docx, new StringWriter()))
+                .isInstanceOf(IOException.class)
+                .hasMessageContaining("entries");
+    }
+    
+    @Test
+    void stopsInflatingADocumentPartPastTheLimit() throws IOException {
+        // Highly compressible, so the zip itself stays small
+        String padding = " ".repeat(128 * 1024);
+        Path docx = writeDocx(DOCUMENT.replace("<w:body>", "<w:body>" + padding), 0);
+        
+        assertThatThrownBy(() -> adapter.extractText(docx, new StringWriter()))
+                .isInstanceOf(IOException.class)
+                .hasMessageContaining("exceeds");
+    }
+    
+    private Path writeDocx(String document, int extraEntries) throws IOException {
+        Path docx = tempDir.resolve("document.docx");
+        try (OutputStream file = Files.newOutputStream(docx); ZipOutputStream zip = new ZipOutputStream(file)) {
+            zip.putNextEntry(new ZipEntry("word/document.xml"));
+            zip.write(document.getBytes(StandardCharsets.UTF_8));
+            zip.closeEntry();
+            for (int i = 0; i < extraEntries; i++) {
+                zip.putNextEntry(new ZipEntry("word/media/image" + i + ".png"));
+                zip.closeEntry();
+            }
+        }
+        return docx;
+    }
+}
@@ -0,0 +1,182 @@
+package br.com.gerasaber.infrastructure.adapter;
+
+import br.com.gerasaber.domain.entity.UploadRequest;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class FileChannelUploadOutboxAdapterTest {
+    
+    @TempDir
+    Path tempDir;
+    
+    @Test
+    void recoversRecordsAroundATornHeader() throws IOException {
+        writeRecords("first", "second", "third");
+        
+        // A crash before the header of the middle record reached the disk leaves zeros in its place
+        overwrite(recordPosition(1), new byte[24]);
+        
+        assertThat(recoveredRequestIds()).containsExactly("first", "third");
+    }
+    
+    @Test
+    void recoversRecordsAroundTornContents() throws IOException {
+        writeRecords("first", "second", "third");
+        
+        long second = recordPosition(1);
+        overwrite(second + (recordPosition(2) - second) / 2, new byte[] {0, 0, 0, 0});
+        
+        assertThat(recoveredRequestIds()).containsExactly("first", "third");
+    }
+    
+    @Test
+    void recoversRecordsBeforeATornTail() throws IOException {
+        writeRecords("first", "second", "third");
+        
+        try (FileChannel channel = FileChannel.open(segmentPath(), StandardOpenOption.WRITE)) {
+            channel.truncate(channel.size() - 8);
+        }
+        
+        assertThat(recoveredRequestIds()).containsExactly("first", "second");
+    }
+    
+    @Test
+    void doesNotReplayAcknowledgedRecords() throws IOException {
+        FileChannelUploadOutboxAdapter adapter = openAdapter();
+        for (String requestId : List.of("first", "second", "third")) {
+            adapter.append(uploadRequest(requestId));
+        }
+        adapter.acknowledge("first");
+        adapter.close();
+        
+        assertThat(recoveredRequestIds()).containsExactly("second", "third");
+    }
+    
+    @Test
+    void deadLettersTheRecordedFiles() throws IOException {
+        FileChannelUploadOutboxAdapter adapter = openAdapter();
+        UploadRequest undeliverable = uploadRequest("first");
+        adapter.append(undeliverable);
+        adapter.append(uploadRequest("second"));
+        // Preprocessing replaces the spooled original, which then only survives in the record
+        Files.writeString(undeliverable.getFiles().get(0).getContentPath(), "extracted text");
+        adapter.deadLetter("first", "n8n unavailable");
+        adapter.close();
+        
+        Path deadLetter = tempDir.resolve("outbox").resolve("dead-letter").resolve("first");
+        assertThat(Files.readString(deadLetter.resolve("file-0"))).isEqualTo(content("first"));
+        assertThat(Files.readString(deadLetter.resolve("request.properties"))).contains("reason=n8n unavailable");
+        assertThat(recoveredRequestIds()).containsExactly("second");
+    }
+    
+    @Test
+    void restoresFileContents() throws IOException {
+        writeRecords("first");
+        
+        FileChannelUploadOutboxAdapter adapter = openAdapter();
+        UploadRequest.FilePart filePart = adapter.recover().get(0).getFiles().get(0);
+        adapter.close();
+        
+        assertThat(Files.readString(filePart.getContentPath())).isEqualTo(content("first"));
+        assertThat(filePart.getOriginalFilename()).isEqualTo("first.pdf");
+    }
+    
+    @Test
+    void appendsABatchLeavingOutRequestsThatCannotBeWritten() throws IOException {
+        UploadRequest missingFile = uploadRequest("second");
+        Files.delete(missingFile.getFiles().get(0).getContentPath());
+        
+        FileChannelUploadOutboxAdapter adapter = openAdapter();
+        List<UploadRequest> recorded = adapter.appendAll(List.of(uploadRequest("first"), missingFile, uploadRequest("third")));
+        adapter.close();
+        
+        assertThat(recorded).extracting(UploadRequest::getRequestId).containsExactly("first", "third");
+        assertThat(recoveredRequestIds()).containsExactly("first", "third");
+    }
+    
+    private void writeRecords(String... requestIds) throws IOException {
+        FileChannelUploadOutboxAdapter adapter = openAdapter();
+        for (String requestId : requestIds) {
+            adapter.append(uploadRequest(requestId));
+        }
+        adapter.close();
+    }
+    
+    private List<String> recoveredRequestIds() throws IOException {
+        FileChannelUploadOutboxAdapter adapter = openAdapter();
+        List<String> requestIds = adapter.recover().stream().map(UploadRequest::getRequestId).toList();
+        adapter.close();
+        return requestIds;
+    }
+    
+    private FileChannelUploadOutboxAdapter openAdapter() throws IOException {
+        FileChannelUploadOutboxAdapter adapter = new FileChannelUploadOutboxAdapter();
+        ReflectionTestUtils.setField(adapter, "outboxPath", tempDir.resolve("outbox").toString());
+        ReflectionTestUtils.setField(adapter, "segmentSize", DataSize.ofMegabytes(1));
+        ReflectionTestUtils.setField(adapter, "tempStoragePath", tempDir.resolve("spool").toString());
+        adapter.open();
+        return adapter;
+    }
+    
+    private UploadRequest uploadRequest(String requestId) throws IOException {
+        Path spoolFile = Files.createDirectories(tempDir.resolve("spool")).resolve(requestId + ".part");
+        Files.writeString(spoolFile, content(requestId));
+        return UploadRequest.builder()
+                .requestId(requestId)
+                .promptDescription("prompt for " + requestId)
+                .timestamp(LocalDateTime.now())
+                .clientId("client")
+                .files(List.of(UploadRequest.FilePart.builder()
+                        .originalFilename(requestId + ".pdf")
+                        .contentType("application/pdf")
+                        .contentPath(spoolFile)
+                        .size(Files.size(spoolFile))
+                        .build()))
+                .build();
+    }
+    
+    private static String content(String requestId) {
+        return (requestId + " ").repeat(200);
+    }
+    
+    private Path segmentPath() throws IOException {
+        // Every reopen starts a new segment, so the records live in the largest one
+        try (Stream<Path> files = Files.list(tempDir.resolve("outbox"))) {
+            return files.filter(path -> path.getFileName().toString().endsWith(".log"))
+                    .max((a, b) -> Long.compare(a.toFile().length(), b.toFile().length()))
+                    .orElseThrow();
+        }
+    }
+    
+    private long recordPosition(int index) throws IOException {
+        try (FileChannel channel = FileChannel.open(segmentPath(), StandardOpenOption.READ)) {
+            long position = 0;
+            for (int i = 0; i < index; i++) {
+                ByteBuffer length = ByteBuffer.allocate(Long.BYTES);
+                channel.read(length, position + Integer.BYTES);
+                position += length.flip().getLong();
+            }
+            return position;
+        }
+    }
+    
+    private void overwrite(long position, byte[] bytes) throws IOException {
+        try (FileChannel channel = FileChannel.open(segmentPath(), StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.wrap(bytes), position);
+        }
+    }
+}
@@ -0,0 +1,252 @@
+package br.com.gerasaber.infrastructure.adapter;
+
+import br.com.gerasaber.domain.entity.StoredFile;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class FileStorageIndexTest {
+    
+    private static final int HEADER_BYTES = 2 * Long.BYTES;
+    
+    @TempDir
+    Path tempDir;
+    
+    @Test
+    void replaysRecordsAfterReopening() throws IOException {
+        String longName = "a".repeat(40_000) + ".pdf";
+        writeIndex(storedFile("req-1", "summary.pdf"), storedFile("req-2", longName));
+        
+        FileStorageIndex index = openIndex();
+        
+        assertThat(index.size()).isEqualTo(2);
+        assertThat(index.findByRequestId("req-1")).map(StoredFile::getFilename).contains("summary.pdf");
+        assertThat(index.findByRequestId("req-2")).map(StoredFile::getFilename).contains(longName);
+        assertThat(index.getCheckpoint()).contains(LocalDate.of(2026, 10, 17));
+        index.close();
+    }
+    
+    @Test
+    void truncatesAtARecordWithACorruptLength() throws IOException {
+        int second = writeIndex(storedFile("req-1", "first.pdf"), storedFile("req-2", "second.pdf"),
+                storedFile("req-3", "third.pdf"));
+        
+        overwriteInt(second, 0);
+        FileStorageIndex index = openIndex();
+        
+        assertThat(index.findByRequestId("req-1")).isPresent();
+        assertThat(index.findByRequestId("req-2")).isEmpty();
+        assertThat(index.findByRequestId("req-3")).isEmpty();
+        assertThat(index.getCheckpoint()).isEmpty();
+        index.close();
+    }
+    
+    @Test
+    void truncatesAtARecordLongerThanTheLog() throws IOException {
+        int second = writeIndex(storedFile("req-1", "first.pdf"), storedFile("req-2", "second.pdf"));
+        
+        overwriteInt(second, Integer.MAX_VALUE);
+        FileStorageIndex index = openIndex();
+        
+        assertThat(index.size()).isEqualTo(1);
+        assertThat(index.findByRequestId("req-1")).isPresent();
+        index.close();
+    }
+    
+    @Test
+    void truncatesAtARecordThatFailsItsChecksum() throws IOException {
+        int second = writeIndex(storedFile("req-1", "first.pdf"), storedFile("req-2", "second.pdf"),
+                storedFile("req-3", "third.pdf"));
+        
+        // Flip a byte inside the request ID of the second record
+        overwriteInt(second + 2 * Integer.BYTES + Integer.BYTES, 0x7a7a7a7a);
+        FileStorageIndex index = openIndex();
+        
+        assertThat(index.size()).isEqualTo(1);
+        assertThat(index.findByRequestId("req-2")).isEmpty();
+        index.close();
+    }
+    
+    @Test
+    void appendsOverTheTruncatedTail() throws IOException {
+        int second = writeIndex(storedFile("req-1", "first.pdf"), storedFile("req-2", "second.pdf"));
+        overwriteInt(second, -1);
+        
+        FileStorageIndex index = openIndex();
+        index.add(storedFile("req-4", "fourth.pdf"));
+        index.close();
+        
+        FileStorageIndex reopened = openIndex();
+        assertThat(reopened.size()).isEqualTo(2);
+        assertThat(reopened.findByRequestId("req-4")).map(StoredFile::getFilename).contains("fourth.pdf");
+        reopened.close();
+    }
+    
+    @Test
+    void dropsRemovedFilesAndTheirRequestsAfterReopening() throws IOException {
+        FileStorageIndex index = openIndex();
+        StoredFile removed = storedFile("req-1", "summary.pdf");
+        index.add(removed);
+        index.add(removed.toBuilder().requestId("req-2").build());
+        index.add(storedFile("req-3", "summary.pdf"));
+        index.remove(removed.getPath());
+        index.close();
+        
+        FileStorageIndex reopened = openIndex();
+        assertThat(reopened.size()).isEqualTo(1);
+        assertThat(reopened.findByRequestId("req-1")).isEmpty();
+        assertThat(reopened.findByRequestId("req-2")).isEmpty();
+        assertThat(reopened.findByPath(removed.getPath())).isEmpty();
+        assertThat(reopened.findLatestByFilename("summary.pdf")).map(StoredFile::getRequestId).contains("req-3");
+        reopened.close();
+    }
+    
+    @Test
+    void dropsEveryFileOfARemovedDirectory() throws IOException {
+        FileStorageIndex index = openIndex();
+        Path partition = tempDir.resolve("2026/10/17");
+        index.add(storedFile("req-1", "first.pdf"));
+        index.addPacked(storedFile("req-2", "second.pdf").toBuilder()
+                .path(partition.resolve("pack.seg"))
+                .offset(512)
+                .build(), partition.resolve("req-2"));
+        index.add(storedFile("req-3", "third.pdf").toBuilder().path(tempDir.resolve("2026/10/18/req-3")).build());
+        index.removeDirectory(partition);
+        index.close();
+        
+        FileStorageIndex reopened = openIndex();
+        assertThat(reopened.findByRequestId("req-1")).isEmpty();
+        assertThat(reopened.findByRequestId("req-2")).isEmpty();
+        assertThat(reopened.findByPath(partition.resolve("req-2"))).isEmpty();
+        assertThat(reopened.findByRequestId("req-3")).isPresent();
+        reopened.close();
+    }
+    
+    @Test
+    void relocatesEveryRequestOfAPackedFile() throws IOException {
+        FileStorageIndex index = openIndex();
+        StoredFile packed = storedFile("req-1", "summary.pdf");
+        index.add(packed);
+        index.add(packed.toBuilder().requestId("req-2").build());
+        index.add(storedFile("req-3", "other.pdf"));
+        Path segment = tempDir.resolve("2026/10/17/pack.seg");
+        index.relocate(segment, Map.of(packed.getPath(), 512L));
+        index.close();
+        
+        FileStorageIndex reopened = openIndex();
+        for (String requestId : List.of("req-1", "req-2")) {
+            assertThat(reopened.findByRequestId(requestId)).get()
+                    .satisfies(storedFile -> assertThat(storedFile.getPath()).isEqualTo(segment))
+                    .satisfies(storedFile -> assertThat(storedFile.getOffset()).isEqualTo(512L));
+        }
+        assertThat(reopened.findByPath(packed.getPath())).map(StoredFile::getRequestId).contains("req-2");
+        assertThat(reopened.findByRequestId("req-3")).map(StoredFile::getPath).contains(tempDir.resolve("2026/10/17/req-3"));
+        assertThat(reopened.size()).isEqualTo(2);
+        reopened.close();
+    }
+    
+    @Test
+    void rewritesTheLogWithLiveRecordsOnceMostAreDead() throws IOException {
+        FileStorageIndex index = openIndex();
+        ReflectionTestUtils.setField(index, "compactionMinDeadBytes", 1024);
+        index.setCheckpoint(LocalDate.of(2026, 10, 17));
+        for (int i = 0; i < 100; i++) {
+            index.add(storedFile("req-" + i, "file-" + i + ".pdf"));
+        }
+        long fullLength = readLong(0);
+        for (int i = 0; i < 90; i++) {
+            index.remove(storedFile("req-" + i, "file-" + i + ".pdf").getPath());
+        }
+        index.close();
+        
+        assertThat(readLong(0)).isLessThan(fullLength / 2);
+        assertThat(Files.exists(tempDir.resolve("index/files.idx.compact"))).isFalse();
+        FileStorageIndex reopened = openIndex();
+        assertThat(reopened.size()).isEqualTo(10);
+        assertThat(reopened.findByRequestId("req-5")).isEmpty();
+        assertThat(reopened.findByRequestId("req-95")).map(StoredFile::getFilename).contains("file-95.pdf");
+        assertThat(reopened.findByFilenamePrefix("file-", 100)).hasSize(10);
+        assertThat(reopened.getCheckpoint()).contains(LocalDate.of(2026, 10, 17));
+        reopened.close();
+    }
+    
+    @Test
+    void keepsRecordsThatARequestStillPointsAtWhenCompacting() throws IOException {
+        FileStorageIndex index = openIndex();
+        ReflectionTestUtils.setField(index, "compactionMinDeadBytes", 1);
+        StoredFile shared = storedFile("req-1", "shared.pdf");
+        index.add(shared);
+        index.add(shared.toBuilder().requestId("req-2").build());
+        for (int i = 0; i < 10; i++) {
+            StoredFile scratch = storedFile("scratch-" + i, "scratch.pdf");
+            index.add(scratch);
+            index.remove(scratch.getPath());
+        }
+        
+        assertThat(index.findByRequestId("req-1")).map(StoredFile::getPath).contains(shared.getPath());
+        assertThat(index.findByRequestId("req-2")).map(StoredFile::getPath).contains(shared.getPath());
+        assertThat(index.findLatestByFilename("scratch.pdf")).isEmpty();
+        index.close();
+    }
+    
+    /**
+     * Writes the files to a fresh index and returns the offset of the second record.
+     */
+    private int writeIndex(StoredFile... storedFiles) throws IOException {
+        FileStorageIndex index = openIndex();
+        index.setCheckpoint(LocalDate.of(2026, 10, 17));
+        int second = 0;
+        for (int i = 0; i < storedFiles.length; i++) {
+            index.add(storedFiles[i]);
+            if (i == 0) {
+                second = (int) readLong(0);
+            }
+        }
+        index.close();
+        return second;
+    }
+    
+    private FileStorageIndex openIndex() throws IOException {
+        FileStorageIndex index = new FileStorageIndex(tempDir, tempDir.resolve("index/files.idx"));
+        index.open();
+        return index;
+    }
+    
+    private StoredFile storedFile(String requestId, String filename) {
+        return StoredFile.builder()
+                .requestId(requestId)
+                .filename(filename)
+                .path(tempDir.resolve("2026/10/17").resolve(requestId))
+                .size(42)
+                .storedAt(LocalDateTime.of(2026, 10, 17, 12, 0))
+                .build();
+    }
+    
+    private long readLong(int position) throws IOException {
+        try (FileChannel channel = FileChannel.open(tempDir.resolve("index/files.idx"), StandardOpenOption.READ)) {
+            ByteBuffer value = ByteBuffer.allocate(Long.BYTES);
+            channel.read(value, position);
+            return value.flip().getLong();
+        }
+    }
+    
+    private void overwriteInt(int position, int value) throws IOException {
+        assertThat(position).isGreaterThanOrEqualTo(HEADER_BYTES);
+        try (FileChannel channel = FileChannel.open(tempDir.resolve("index/files.idx"), StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.allocate(Integer.BYTES).putInt(0, value), position);
+        }
+    }
+}
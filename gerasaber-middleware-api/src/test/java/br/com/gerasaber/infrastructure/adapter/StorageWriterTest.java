@@ -0,0 +1,139 @@
+package br.com.gerasaber.infrastructure.adapter;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+
+import java.io.ByteArrayInputStream;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class StorageWriterTest {
+    
+    @TempDir
+    Path tempDir;
+    
+    @ParameterizedTest
+    @EnumSource(StorageWriter.Durability.class)
+    void replacesTheTargetAndLeavesNothingStaged(StorageWriter.Durability durability) throws IOException {
+        StorageWriter writer = openWriter(durability);
+        Path target = tempDir.resolve("2026/10/17/summary.pdf");
+        
+        writer.write(stream("first version"), target);
+        long size = writer.write(stream("second"), target);
+        
+        assertThat(size).isEqualTo(6);
+        assertThat(Files.readString(target)).isEqualTo("second");
+        assertThat(stagedFiles()).isEmpty();
+    }
+    
+    @ParameterizedTest
+    @EnumSource(StorageWriter.Durability.class)
+    void hashesTheContentWhileWritingIt(StorageWriter.Durability durability) throws IOException {
+        StorageWriter writer = openWriter(durability);
+        Path source = Files.writeString(tempDir.resolve("upload.part"), "uploaded content");
+        Path target = tempDir.resolve("2026/10/17/summary.pdf");
+        
+        MessageDigest digest = FileStorageIndex.newDigest();
+        try (InputStream content = new FileInputStream(source.toFile())) {
+            writer.write(content, target, digest);
+        }
+        
+        assertThat(HexFormat.of().formatHex(digest.digest())).isEqualTo(FileStorageIndex.hash(target));
+    }
+    
+    @ParameterizedTest
+    @EnumSource(StorageWriter.Durability.class)
+    void commitsAStagedFileOnceItsTargetIsKnown(StorageWriter.Durability durability) throws IOException {
+        StorageWriter writer = openWriter(durability);
+        
+        StorageWriter.StagedFile staged = writer.stage(stream("blob content"), null);
+        assertThat(staged.size()).isEqualTo(12);
+        assertThat(stagedFiles()).containsExactly(staged.path());
+        
+        Path target = tempDir.resolve("blobs/ab/cd/abcd");
+        writer.commit(staged.path(), target);
+        
+        assertThat(Files.readString(target)).isEqualTo("blob content");
+        assertThat(stagedFiles()).isEmpty();
+    }
+    
+    @ParameterizedTest
+    @EnumSource(StorageWriter.Durability.class)
+    void recreatesADirectoryRemovedBehindTheCache(StorageWriter.Durability durability) throws IOException {
+        StorageWriter writer = openWriter(durability);
+        Path partition = tempDir.resolve("partition");
+        writer.write(stream("kept"), partition.resolve("first.pdf"));
+        
+        Files.delete(partition.resolve("first.pdf"));
+        Files.delete(partition);
+        writer.write(stream("recreated"), partition.resolve("second.pdf"));
+        
+        assertThat(Files.readString(partition.resolve("second.pdf"))).isEqualTo("recreated");
+    }
+    
+    @Test
+    void completesConcurrentSyncedWrites() throws Exception {
+        StorageWriter writer = openWriter(StorageWriter.Durability.FSYNC);
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<Long>> writes = new ArrayList<>();
+            for (int i = 0; i < 64; i++) {
+                Path target = tempDir.resolve("partition-" + (i % 4)).resolve("file-" + i + ".pdf");
+                String content = "content " + i;
+                writes.add(executor.submit(() -> writer.write(stream(content), target)));
+            }
+            for (Future<Long> write : writes) {
+                write.get();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        
+        for (int i = 0; i < 64; i++) {
+            assertThat(Files.readString(tempDir.resolve("partition-" + (i % 4)).resolve("file-" + i + ".pdf")))
+                    .isEqualTo("content " + i);
+        }
+    }
+    
+    @Test
+    void deletesStagedFilesLeftByAnEarlierRun() throws IOException {
+        Path leftover = Files.createDirectories(tempDir.resolve(".staging")).resolve("write-1.tmp");
+        Files.writeString(leftover, "partial");
+        
+        openWriter(StorageWriter.Durability.FLUSH);
+        
+        assertThat(leftover).doesNotExist();
+    }
+    
+    private StorageWriter openWriter(StorageWriter.Durability durability) throws IOException {
+        StorageWriter writer = new StorageWriter(tempDir.resolve(".staging"), durability);
+        writer.open();
+        return writer;
+    }
+    
+    private List<Path> stagedFiles() throws IOException {
+        try (Stream<Path> files = Files.list(tempDir.resolve(".staging"))) {
+            return files.toList();
+        }
+    }
+    
+    private static ByteArrayInputStream stream(String content) {
+        return new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8));
+    }
+}
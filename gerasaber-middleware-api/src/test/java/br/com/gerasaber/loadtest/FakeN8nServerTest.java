@@ -0,0 +1,76 @@
+package br.com.gerasaber.loadtest;
+
+import br.com.gerasaber.domain.entity.UploadRequest;
+import br.com.gerasaber.usecase.file.upload.service.FileUploadService;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.http.HttpMethod;
+import org.springframework.mock.http.client.MockClientHttpRequest;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.test.web.client.MockRestServiceServer;
+import org.springframework.web.client.RestTemplate;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.method;
+import static org.springframework.test.web.client.response.MockRestResponseCreators.withSuccess;
+
+class FakeN8nServerTest {
+    
+    @TempDir
+    Path tempDir;
+    
+    @Test
+    void readsRequestIdFromTheBodySentByFileUploadService() throws IOException {
+        RestTemplate restTemplate = new RestTemplate();
+        AtomicReference<byte[]> body = new AtomicReference<>();
+        MockRestServiceServer.bindTo(restTemplate).build()
+                .expect(method(HttpMethod.POST))
+                .andExpect(request -> body.set(((MockClientHttpRequest) request).getBodyAsBytes()))
+                .andRespond(withSuccess());
+        
+        FileUploadService fileUploadService = new FileUploadService(restTemplate);
+        ReflectionTestUtils.setField(fileUploadService, "n8nBaseUrl", "http://n8n");
+        ReflectionTestUtils.setField(fileUploadService, "n8nUploadEndpoint", FakeN8nServer.UPLOAD_PATH);
+        ReflectionTestUtils.setField(fileUploadService, "n8nAuthToken", "");
+        fileUploadService.processUploadRequest(uploadRequest("0b8d6c1e-2f4a-4c59-9a53-7d0e3c1f5a42", 64 * 1024));
+        
+        assertThat(FakeN8nServer.readRequestId(new ByteArrayInputStream(body.get())))
+                .isEqualTo("0b8d6c1e-2f4a-4c59-9a53-7d0e3c1f5a42");
+    }
+    
+    @Test
+    void readsRequestIdFromABareFormField() throws IOException {
+        String body = "--boundary\r\n"
+                + "Content-Disposition: form-data; name=\"requestId\"\r\n"
+                + "\r\n"
+                + "abc\r\n"
+                + "--boundary--\r\n";
+        
+        assertThat(FakeN8nServer.readRequestId(new ByteArrayInputStream(body.getBytes(StandardCharsets.US_ASCII))))
+                .isEqualTo("abc");
+    }
+    
+    private UploadRequest uploadRequest(String requestId, int fileSize) throws IOException {
+        Path file = Files.write(tempDir.resolve("upload.pdf"), new byte[fileSize]);
+        return UploadRequest.builder()
+                .requestId(requestId)
+                .promptDescription("Summarize")
+                .timestamp(LocalDateTime.now())
+                .files(List.of(UploadRequest.FilePart.builder()
+                        .originalFilename("upload.pdf")
+                        .contentType("application/pdf")
+                        .contentPath(file)
+                        .size(fileSize)
+                        .build()))
+                .build();
+    }
+}
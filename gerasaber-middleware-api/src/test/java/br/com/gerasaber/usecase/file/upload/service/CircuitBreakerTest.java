@@ -0,0 +1,101 @@
+package br.com.gerasaber.usecase.file.upload.service;
+
+import br.com.gerasaber.usecase.file.upload.service.CircuitBreaker.Admission;
+import br.com.gerasaber.usecase.file.upload.service.CircuitBreaker.State;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CircuitBreakerTest {
+    
+    @Test
+    void opensOnceTheFailureRateOfAFullEnoughWindowReachesTheThreshold() {
+        CircuitBreaker breaker = new CircuitBreaker("n8n", 4, 4, 50, Duration.ofMinutes(1), 2);
+        
+        record(breaker, false, false, true);
+        assertThat(breaker.getState()).isEqualTo(State.CLOSED);
+        
+        record(breaker, true);
+        assertThat(breaker.getState()).isEqualTo(State.OPEN);
+        assertThat(breaker.tryAcquire()).isEqualTo(Admission.REJECTED);
+        assertThat(breaker.nanosUntilHalfOpen()).isPositive();
+    }
+    
+    @Test
+    void forgetsOutcomesThatLeftTheWindow() {
+        CircuitBreaker breaker = new CircuitBreaker("n8n", 4, 4, 50, Duration.ofMinutes(1), 2);
+        
+        record(breaker, true, false, false, false);
+        assertThat(breaker.getFailureRate()).isEqualTo(25.0);
+        
+        record(breaker, false);
+        assertThat(breaker.getFailureRate()).isZero();
+        assertThat(breaker.getState()).isEqualTo(State.CLOSED);
+    }
+    
+    @Test
+    void closesOnceAllProbesSucceed() {
+        CircuitBreaker breaker = openBreaker(Duration.ZERO);
+        
+        Admission first = breaker.tryAcquire();
+        Admission second = breaker.tryAcquire();
+        assertThat(first).isEqualTo(Admission.PROBE);
+        assertThat(second).isEqualTo(Admission.PROBE);
+        assertThat(breaker.getState()).isEqualTo(State.HALF_OPEN);
+        assertThat(breaker.tryAcquire()).isEqualTo(Admission.REJECTED);
+        
+        breaker.onResult(first, false);
+        assertThat(breaker.getState()).isEqualTo(State.HALF_OPEN);
+        breaker.onResult(second, false);
+        assertThat(breaker.getState()).isEqualTo(State.CLOSED);
+        assertThat(breaker.getFailureRate()).isZero();
+        assertThat(breaker.tryAcquire()).isEqualTo(Admission.ADMITTED);
+    }
+    
+    @Test
+    void reopensOnAFailedProbe() {
+        CircuitBreaker breaker = openBreaker(Duration.ZERO);
+        
+        Admission probe = breaker.tryAcquire();
+        breaker.onResult(probe, true);
+        
+        assertThat(breaker.getState()).isEqualTo(State.OPEN);
+    }
+    
+    @Test
+    void freesTheSlotOfACancelledProbe() {
+        CircuitBreaker breaker = openBreaker(Duration.ZERO);
+        Admission first = breaker.tryAcquire();
+        breaker.tryAcquire();
+        
+        breaker.cancel(first);
+        
+        assertThat(breaker.tryAcquire()).isEqualTo(Admission.PROBE);
+    }
+    
+    @Test
+    void ignoresCallsAdmittedBeforeItOpened() {
+        CircuitBreaker breaker = new CircuitBreaker("n8n", 2, 2, 50, Duration.ofMinutes(1), 2);
+        Admission late = breaker.tryAcquire();
+        record(breaker, false, true);
+        
+        breaker.onResult(late, false);
+        
+        assertThat(breaker.getState()).isEqualTo(State.OPEN);
+    }
+    
+    private static CircuitBreaker openBreaker(Duration openDuration) {
+        CircuitBreaker breaker = new CircuitBreaker("n8n", 2, 2, 50, openDuration, 2);
+        record(breaker, false, true);
+        assertThat(breaker.getState()).isEqualTo(State.OPEN);
+        return breaker;
+    }
+    
+    private static void record(CircuitBreaker breaker, boolean... failures) {
+        for (boolean failure : failures) {
+            breaker.onResult(breaker.tryAcquire(), failure);
+        }
+    }
+}
@@ -0,0 +1,62 @@
+package br.com.gerasaber.usecase.file.upload.service;
+
+import br.com.gerasaber.domain.port.IPipelineMetricsPort;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalStateException;
+import static org.mockito.Mockito.mock;
+
+class ClientRateLimitServiceTest {
+    
+    @Test
+    void trustsTheIdentityHeaderOnlyFromConfiguredProxies() {
+        UploadClientProperties properties = new UploadClientProperties();
+        properties.setTrustedProxies(List.of("10.0.0.1"));
+        ClientRateLimitService service = service(properties);
+        
+        assertThat(service.resolveClientId(null, "reporting-service", "10.0.0.1")).isEqualTo("reporting-service");
+        assertThat(service.resolveClientId(null, "reporting-service", "203.0.113.7")).isEqualTo("203.0.113.7");
+        assertThat(service.resolveClientId(null, null, "10.0.0.1")).isEqualTo("10.0.0.1");
+        assertThat(service.resolveClientId("alice", "reporting-service", "10.0.0.1")).isEqualTo("alice");
+    }
+    
+    @Test
+    void admitsEveryUploadWhenDisabled() {
+        UploadClientProperties properties = new UploadClientProperties();
+        properties.getDefaults().setBurst(1);
+        ClientRateLimitService service = service(properties);
+        
+        assertThat(service.tryAcquire("client").admitted()).isTrue();
+        assertThat(service.tryAcquire("client").admitted()).isTrue();
+    }
+    
+    @Test
+    void limitsEachClientSeparatelyWhenEnabled() {
+        UploadClientProperties properties = new UploadClientProperties();
+        properties.setEnabled(true);
+        properties.getDefaults().setRequestsPerSecond(0.001);
+        properties.getDefaults().setBurst(1);
+        ClientRateLimitService service = service(properties);
+        
+        assertThat(service.tryAcquire("first").admitted()).isTrue();
+        assertThat(service.tryAcquire("first").admitted()).isFalse();
+        assertThat(service.tryAcquire("second").admitted()).isTrue();
+    }
+    
+    @Test
+    void rejectsLimitsWithoutARate() {
+        UploadClientProperties properties = new UploadClientProperties();
+        properties.getDefaults().setRequestsPerSecond(0);
+        
+        assertThatIllegalStateException().isThrownBy(() -> service(properties));
+    }
+    
+    private static ClientRateLimitService service(UploadClientProperties properties) {
+        ClientRateLimitService service = new ClientRateLimitService(properties, mock(IPipelineMetricsPort.class));
+        service.init();
+        return service;
+    }
+}
@@ -0,0 +1,95 @@
+package br.com.gerasaber.usecase.file.upload.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class GradientConcurrencyLimiterTest {
+    
+    private static final long MILLISECOND = TimeUnit.MILLISECONDS.toNanos(1);
+    
+    @Test
+    void growsTheLimitWhileLatencyStaysFlat() throws InterruptedException {
+        GradientConcurrencyLimiter limiter = new GradientConcurrencyLimiter(1, 100, 10, 0.2, 1.5);
+        
+        for (int i = 0; i < 5; i++) {
+            runAtTheLimit(limiter, 10 * MILLISECOND, false);
+        }
+        
+        assertThat(limiter.getLimit()).isGreaterThan(10);
+    }
+    
+    @Test
+    void shrinksTheLimitWhenLatencyRisesAboveTheLongTermAverage() throws InterruptedException {
+        GradientConcurrencyLimiter limiter = new GradientConcurrencyLimiter(1, 100, 10, 0.2, 1.5);
+        runAtTheLimit(limiter, 10 * MILLISECOND, false);
+        int settled = limiter.getLimit();
+        
+        for (int i = 0; i < 5; i++) {
+            runAtTheLimit(limiter, 200 * MILLISECOND, false);
+        }
+        
+        assertThat(limiter.getLimit()).isLessThan(settled);
+    }
+    
+    @Test
+    void cutsTheLimitForDroppedCallsDownToTheMinimum() throws InterruptedException {
+        GradientConcurrencyLimiter limiter = new GradientConcurrencyLimiter(2, 100, 10, 0.2, 1.5);
+        
+        limiter.acquire();
+        limiter.release(10 * MILLISECOND, true);
+        assertThat(limiter.getLimit()).isEqualTo(9);
+        
+        for (int i = 0; i < 50; i++) {
+            limiter.acquire();
+            limiter.release(10 * MILLISECOND, true);
+        }
+        assertThat(limiter.getLimit()).isEqualTo(2);
+    }
+    
+    @Test
+    void leavesALimitThatIsFarFromUsedAlone() throws InterruptedException {
+        GradientConcurrencyLimiter limiter = new GradientConcurrencyLimiter(1, 100, 10, 0.2, 1.5);
+        
+        for (int i = 0; i < 20; i++) {
+            limiter.acquire();
+            limiter.release(10 * MILLISECOND, false);
+        }
+        
+        assertThat(limiter.getLimit()).isEqualTo(10);
+    }
+    
+    @Test
+    void blocksCallersAtTheLimitUntilACallCompletes() throws Exception {
+        GradientConcurrencyLimiter limiter = new GradientConcurrencyLimiter(1, 1, 1, 0.2, 1.5);
+        limiter.acquire();
+        
+        CompletableFuture<Void> waiting = CompletableFuture.runAsync(() -> {
+            try {
+                limiter.acquire();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        Thread.sleep(100);
+        assertThat(waiting).isNotDone();
+        
+        limiter.release(10 * MILLISECOND, false);
+        waiting.get(5, TimeUnit.SECONDS);
+        assertThat(limiter.getInFlight()).isEqualTo(1);
+    }
+    
+    private static void runAtTheLimit(GradientConcurrencyLimiter limiter, long rttNanos, boolean dropped)
+            throws InterruptedException {
+        int calls = limiter.getLimit();
+        for (int i = 0; i < calls; i++) {
+            limiter.acquire();
+        }
+        for (int i = 0; i < calls; i++) {
+            limiter.release(rttNanos, dropped);
+        }
+    }
+}
@@ -0,0 +1,60 @@
+package br.com.gerasaber.usecase.file.upload.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalArgumentException;
+
+class TokenBucketTest {
+    
+    private static final long SECOND = TimeUnit.SECONDS.toNanos(1);
+    
+    @Test
+    void admitsABurstAndThenTheSustainedRate() {
+        TokenBucket bucket = new TokenBucket(2, 3, 0);
+        
+        assertThat(bucket.tryAcquire(0)).isZero();
+        assertThat(bucket.tryAcquire(0)).isZero();
+        assertThat(bucket.tryAcquire(0)).isZero();
+        
+        // The fourth request has to wait one emission interval of half a second
+        assertThat(bucket.tryAcquire(0)).isEqualTo(SECOND / 2);
+        assertThat(bucket.tryAcquire(SECOND / 4)).isEqualTo(SECOND / 4);
+        assertThat(bucket.tryAcquire(SECOND / 2)).isZero();
+        assertThat(bucket.tryAcquire(SECOND / 2)).isEqualTo(SECOND / 2);
+    }
+    
+    @Test
+    void refillsToTheBurstAfterIdling() {
+        TokenBucket bucket = new TokenBucket(10, 5, 0);
+        for (int i = 0; i < 5; i++) {
+            assertThat(bucket.tryAcquire(0)).isZero();
+        }
+        assertThat(bucket.tryAcquire(0)).isPositive();
+        
+        long later = 60 * SECOND;
+        for (int i = 0; i < 5; i++) {
+            assertThat(bucket.tryAcquire(later)).isZero();
+        }
+        assertThat(bucket.tryAcquire(later)).isEqualTo(SECOND / 10);
+    }
+    
+    @Test
+    void admitsOneRequestPerIntervalWithoutBurst() {
+        TokenBucket bucket = new TokenBucket(1, 1, 0);
+        
+        assertThat(bucket.tryAcquire(0)).isZero();
+        assertThat(bucket.tryAcquire(0)).isEqualTo(SECOND);
+        assertThat(bucket.tryAcquire(SECOND)).isZero();
+    }
+    
+    @Test
+    void rejectsInvalidLimits() {
+        assertThatIllegalArgumentException().isThrownBy(() -> new TokenBucket(0, 1, 0));
+        assertThatIllegalArgumentException().isThrownBy(() -> new TokenBucket(-1, 1, 0));
+        assertThatIllegalArgumentException().isThrownBy(() -> new TokenBucket(Double.NaN, 1, 0));
+        assertThatIllegalArgumentException().isThrownBy(() -> new TokenBucket(1, 0, 0));
+    }
+}
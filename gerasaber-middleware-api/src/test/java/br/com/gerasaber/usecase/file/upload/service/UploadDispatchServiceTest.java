@@ -0,0 +1,170 @@
+package br.com.gerasaber.usecase.file.upload.service;
+
+import br.com.gerasaber.domain.entity.UploadRequest;
+import br.com.gerasaber.domain.port.IPipelineMetricsPort;
+import br.com.gerasaber.domain.port.IUploadOutboxPort;
+import br.com.gerasaber.usecase.cache.service.IResultCacheService;
+import br.com.gerasaber.usecase.job.service.IJobStateService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.contains;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.after;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class UploadDispatchServiceTest {
+
+    private static final long TIMEOUT_MILLIS = 5000;
+    
+    @TempDir
+    Path tempDir;
+    
+    private final IFileUploadService fileUploadService = mock(IFileUploadService.class);
+    private final IUploadFanOutService uploadFanOutService = mock(IUploadFanOutService.class);
+    private final IForwardGuardService forwardGuardService = mock(IForwardGuardService.class);
+    private final IUploadPreprocessingService uploadPreprocessingService = mock(IUploadPreprocessingService.class);
+    private final IResultCacheService resultCacheService = mock(IResultCacheService.class);
+    private final IClientRateLimitService clientRateLimitService = mock(IClientRateLimitService.class);
+    private final IUploadOutboxPort uploadOutboxPort = mock(IUploadOutboxPort.class);
+    private final IJobStateService jobStateService = mock(IJobStateService.class);
+    private final ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+    
+    private UploadDispatchService dispatchService;
+    
+    @BeforeEach
+    void setUp() throws InterruptedException {
+        executor.setCorePoolSize(4);
+        executor.initialize();
+        
+        when(forwardGuardService.guard(any())).thenAnswer(invocation ->
+                invocation.<Supplier<CompletableFuture<Void>>>getArgument(0).get());
+        when(resultCacheService.findCachedResult(any())).thenReturn(Optional.empty());
+        when(uploadPreprocessingService.preprocess(any())).thenAnswer(invocation -> invocation.getArgument(0));
+        when(clientRateLimitService.weightOf(any())).thenReturn(1);
+        when(uploadOutboxPort.recover()).thenReturn(List.of());
+    }
+    
+    @AfterEach
+    void tearDown() {
+        dispatchService.stop();
+        executor.shutdown();
+    }
+    
+    @Test
+    void deadLettersTheRequestAfterTheLastAttempt() throws IOException {
+        start(1, 3, Duration.ofMillis(10));
+        UploadRequest accepted = uploadRequest("job");
+        UploadRequest prepared = uploadRequest("job");
+        when(uploadPreprocessingService.preprocess(accepted)).thenReturn(prepared);
+        when(fileUploadService.forwardUploadRequest(any()))
+                .thenReturn(CompletableFuture.failedFuture(new IllegalStateException("n8n unavailable")));
+        
+        assertThat(dispatchService.tryDispatch(accepted)).isTrue();
+        
+        verify(uploadOutboxPort, timeout(TIMEOUT_MILLIS)).deadLetter(eq("job"), contains("after 3 attempts"));
+        verify(jobStateService, timeout(TIMEOUT_MILLIS)).markFailed(eq("job"), anyString());
+        verify(uploadPreprocessingService, times(1)).preprocess(accepted);
+        verify(fileUploadService, times(3)).forwardUploadRequest(prepared);
+        verify(uploadOutboxPort, never()).acknowledge("job");
+    }
+    
+    @Test
+    void forwardsTheRequestOnARetry() throws IOException {
+        start(1, 3, Duration.ofMillis(10));
+        when(fileUploadService.forwardUploadRequest(any()))
+                .thenReturn(CompletableFuture.failedFuture(new IllegalStateException("n8n unavailable")))
+                .thenReturn(CompletableFuture.completedFuture(null));
+        
+        dispatchService.tryDispatch(uploadRequest("job"));
+        
+        verify(uploadOutboxPort, timeout(TIMEOUT_MILLIS)).acknowledge("job");
+        verify(jobStateService).markForwarded("job");
+        verify(fileUploadService, times(2)).forwardUploadRequest(any());
+        verify(uploadOutboxPort, never()).deadLetter(anyString(), anyString());
+    }
+    
+    @Test
+    void freesTheWorkerDuringTheBackoff() throws IOException {
+        start(1, 2, Duration.ofMinutes(1));
+        UploadRequest failing = uploadRequest("failing");
+        UploadRequest next = uploadRequest("next");
+        when(fileUploadService.forwardUploadRequest(failing))
+                .thenReturn(CompletableFuture.failedFuture(new IllegalStateException("n8n unavailable")));
+        when(fileUploadService.forwardUploadRequest(next)).thenReturn(CompletableFuture.completedFuture(null));
+        
+        dispatchService.tryDispatch(failing);
+        verify(fileUploadService, timeout(TIMEOUT_MILLIS)).forwardUploadRequest(failing);
+        dispatchService.tryDispatch(next);
+        
+        // The only worker is free again while the first request waits a minute for its retry
+        verify(uploadOutboxPort, timeout(TIMEOUT_MILLIS)).acknowledge("next");
+        verify(fileUploadService, after(100).times(1)).forwardUploadRequest(failing);
+    }
+    
+    @Test
+    void deadLettersARequestThatCannotBePreparedAndFreesItsWorker() throws IOException {
+        start(1, 3, Duration.ofMillis(10));
+        UploadRequest broken = uploadRequest("broken");
+        when(uploadPreprocessingService.preprocess(broken)).thenThrow(new IllegalStateException("unreadable"));
+        when(fileUploadService.forwardUploadRequest(any())).thenReturn(CompletableFuture.completedFuture(null));
+        
+        dispatchService.tryDispatch(broken);
+        dispatchService.tryDispatch(uploadRequest("next"));
+        
+        verify(uploadOutboxPort, timeout(TIMEOUT_MILLIS)).deadLetter(eq("broken"), contains("unreadable"));
+        verify(jobStateService, timeout(TIMEOUT_MILLIS)).markFailed(eq("broken"), anyString());
+        verify(uploadOutboxPort, timeout(TIMEOUT_MILLIS)).acknowledge("next");
+        verify(fileUploadService, never()).forwardUploadRequest(broken);
+    }
+    
+    private void start(int concurrency, int maxAttempts, Duration initialBackoff) {
+        dispatchService = new UploadDispatchService(fileUploadService, uploadFanOutService, forwardGuardService,
+                uploadPreprocessingService, resultCacheService, clientRateLimitService, uploadOutboxPort,
+                jobStateService, mock(IPipelineMetricsPort.class), executor);
+        ReflectionTestUtils.setField(dispatchService, "queueCapacity", 10);
+        ReflectionTestUtils.setField(dispatchService, "concurrency", concurrency);
+        ReflectionTestUtils.setField(dispatchService, "maxAttempts", maxAttempts);
+        ReflectionTestUtils.setField(dispatchService, "initialBackoff", initialBackoff);
+        ReflectionTestUtils.setField(dispatchService, "maxBackoff", Duration.ofMinutes(1));
+        dispatchService.start();
+    }
+    
+    private UploadRequest uploadRequest(String requestId) throws IOException {
+        Path spoolFile = Files.createTempFile(tempDir, requestId + "-", ".part");
+        Files.writeString(spoolFile, "content of " + requestId);
+        return UploadRequest.builder()
+                .requestId(requestId)
+                .promptDescription("prompt for " + requestId)
+                .timestamp(LocalDateTime.now())
+                .files(List.of(UploadRequest.FilePart.builder()
+                        .originalFilename(requestId + ".pdf")
+                        .contentType("application/pdf")
+                        .contentPath(spoolFile)
+                        .size(Files.size(spoolFile))
+                        .build()))
+                .build();
+    }
+}
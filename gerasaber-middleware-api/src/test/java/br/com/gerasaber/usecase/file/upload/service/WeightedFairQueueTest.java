@@ -0,0 +1,76 @@
+package br.com.gerasaber.usecase.file.upload.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class WeightedFairQueueTest {
+    
+    @Test
+    void servesFlowsInProportionToTheirWeights() throws InterruptedException {
+        WeightedFairQueue<String> queue = new WeightedFairQueue<>();
+        for (int i = 0; i < 6; i++) {
+            queue.add("heavy", 2, "heavy-" + i);
+            queue.add("light", 1, "light-" + i);
+        }
+        
+        List<String> taken = take(queue, 6);
+        
+        assertThat(taken).filteredOn(item -> item.startsWith("heavy")).hasSize(4);
+        assertThat(taken).filteredOn(item -> item.startsWith("light")).hasSize(2);
+    }
+    
+    @Test
+    void keepsAFloodingFlowFromDelayingOthers() throws InterruptedException {
+        WeightedFairQueue<String> queue = new WeightedFairQueue<>();
+        for (int i = 0; i < 100; i++) {
+            queue.add("flood", 1, "flood-" + i);
+        }
+        queue.add("quiet", 1, "quiet-0");
+        
+        assertThat(take(queue, 2)).containsExactly("flood-0", "quiet-0");
+    }
+    
+    @Test
+    void keepsTheOrderWithinAFlow() throws InterruptedException {
+        WeightedFairQueue<String> queue = new WeightedFairQueue<>();
+        queue.add("a", 1, "a-0");
+        queue.add("b", 3, "b-0");
+        queue.add("a", 1, "a-1");
+        queue.add("b", 3, "b-1");
+        
+        List<String> taken = take(queue, 4);
+        
+        assertThat(taken).containsSubsequence("a-0", "a-1");
+        assertThat(taken).containsSubsequence("b-0", "b-1");
+        assertThat(queue.size()).isZero();
+    }
+    
+    @Test
+    void doesNotLetAnIdleFlowSaveUpCredit() throws InterruptedException {
+        WeightedFairQueue<String> queue = new WeightedFairQueue<>();
+        for (int i = 0; i < 4; i++) {
+            queue.add("busy", 1, "busy-" + i);
+        }
+        take(queue, 3);
+        
+        // A flow joining later starts at the current virtual time instead of at zero, so it alternates with the
+        // busy flow instead of being served twice in a row
+        queue.add("late", 1, "late-0");
+        queue.add("late", 1, "late-1");
+        queue.add("busy", 1, "busy-4");
+        
+        assertThat(take(queue, 4)).containsExactly("late-0", "busy-3", "late-1", "busy-4");
+    }
+    
+    private static List<String> take(WeightedFairQueue<String> queue, int count) throws InterruptedException {
+        List<String> taken = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            taken.add(queue.take());
+        }
+        return taken;
+    }
+}
@@ -0,0 +1,141 @@
+package br.com.gerasaber.usecase.job.service;
+
+import br.com.gerasaber.domain.entity.JobState;
+import br.com.gerasaber.domain.entity.JobStatus;
+import br.com.gerasaber.domain.port.IPipelineMetricsPort;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+class JobStateServiceTest {
+    
+    private JobStateService jobStateService;
+    
+    @BeforeEach
+    void setUp() {
+        jobStateService = new JobStateService(mock(IPipelineMetricsPort.class));
+        ReflectionTestUtils.setField(jobStateService, "maxEntries", 100);
+        ReflectionTestUtils.setField(jobStateService, "ttl", Duration.ofHours(1));
+    }
+    
+    @Test
+    void movesThroughTheLifecycle() {
+        jobStateService.accept("job");
+        assertThat(status("job")).isEqualTo(JobStatus.ACCEPTED);
+        
+        jobStateService.markForwarded("job");
+        assertThat(status("job")).isEqualTo(JobStatus.FORWARDED);
+        
+        jobStateService.markCompleted("job", Path.of("result.pdf"));
+        assertThat(jobStateService.find("job")).get()
+                .extracting(JobState::getStatus, JobState::getResultPath)
+                .containsExactly(JobStatus.COMPLETED, Path.of("result.pdf"));
+    }
+    
+    @Test
+    void ignoresResultsForUnknownJobs() {
+        jobStateService.markCompleted("unknown", Path.of("result.pdf"));
+        
+        assertThat(jobStateService.find("unknown")).isEmpty();
+    }
+    
+    @Test
+    void keepsFinalStates() {
+        jobStateService.accept("failed");
+        jobStateService.markFailed("failed", "n8n unavailable");
+        jobStateService.markCompleted("failed", Path.of("late.pdf"));
+        jobStateService.markForwarded("failed");
+        
+        jobStateService.accept("completed");
+        jobStateService.markCompleted("completed", Path.of("result.pdf"));
+        jobStateService.markFailed("completed", "late failure");
+        
+        assertThat(status("failed")).isEqualTo(JobStatus.FAILED);
+        assertThat(jobStateService.find("failed").get().getResultPath()).isNull();
+        assertThat(status("completed")).isEqualTo(JobStatus.COMPLETED);
+    }
+    
+    @Test
+    void notifiesCompletionListenersOnce() {
+        List<JobStatus> notified = new ArrayList<>();
+        jobStateService.accept("job");
+        assertThat(jobStateService.onCompletion("job", state -> notified.add(state.getStatus()))).isTrue();
+        
+        jobStateService.markForwarded("job");
+        assertThat(notified).isEmpty();
+        
+        jobStateService.markCompleted("job", Path.of("result.pdf"));
+        jobStateService.markCompleted("job", Path.of("result.pdf"));
+        assertThat(notified).containsExactly(JobStatus.COMPLETED);
+        
+        // Listeners registered after the job finished are called right away
+        jobStateService.onCompletion("job", state -> notified.add(state.getStatus()));
+        assertThat(notified).containsExactly(JobStatus.COMPLETED, JobStatus.COMPLETED);
+    }
+    
+    @Test
+    void doesNotNotifyRemovedListeners() {
+        List<JobState> notified = new ArrayList<>();
+        Consumer<JobState> listener = notified::add;
+        jobStateService.accept("job");
+        jobStateService.onCompletion("job", listener);
+        
+        jobStateService.removeCompletionListener("job", listener);
+        jobStateService.markFailed("job", "n8n unavailable");
+        
+        assertThat(notified).isEmpty();
+        assertThat(jobStateService.onCompletion("unknown", listener)).isFalse();
+    }
+    
+    @Test
+    void aggregatesFannedOutParts() {
+        jobStateService.accept("job");
+        jobStateService.fanOut("job", List.of("part-1", "part-2"));
+        
+        jobStateService.markCompleted("part-1", Path.of("part-1.pdf"));
+        assertThat(status("job")).isEqualTo(JobStatus.FORWARDED);
+        
+        jobStateService.markFailed("part-2", "n8n unavailable");
+        assertThat(status("job")).isEqualTo(JobStatus.FAILED);
+        assertThat(jobStateService.find("job").get().getFailureReason()).isEqualTo("1 of 2 parts failed");
+    }
+    
+    @Test
+    void evictsExpiredJobsAndReleasesTheirListeners() {
+        List<JobStatus> notified = new ArrayList<>();
+        jobStateService.accept("job");
+        jobStateService.onCompletion("job", state -> notified.add(state.getStatus()));
+        
+        ReflectionTestUtils.setField(jobStateService, "ttl", Duration.ZERO);
+        jobStateService.evictExpired();
+        
+        assertThat(jobStateService.find("job")).isEmpty();
+        assertThat(notified).containsExactly(JobStatus.ACCEPTED);
+    }
+    
+    @Test
+    void evictsTheOldestJobsBeyondTheMaximumSize() {
+        ReflectionTestUtils.setField(jobStateService, "maxEntries", 2);
+        
+        jobStateService.accept("first");
+        jobStateService.accept("second");
+        jobStateService.accept("third");
+        
+        assertThat(jobStateService.find("first")).isEmpty();
+        assertThat(jobStateService.find("second")).isPresent();
+        assertThat(jobStateService.find("third")).isPresent();
+    }
+    
+    private JobStatus status(String requestId) {
+        return jobStateService.find(requestId).orElseThrow().getStatus();
+    }
+}